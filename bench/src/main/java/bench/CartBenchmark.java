@@ -0,0 +1,81 @@
+package bench;
+
+import dao.CartDao;
+import dao.CartDaoImpl;
+import engine.BookingEngine;
+import engine.Session;
+import model.Event;
+import model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a cart edit costs once carts are saved: written behind by the
+ * engine's cart store, against writing the line through on every edit.
+ * Also what bringing a five-line cart back at login costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBenchmark {
+    private SyntheticDatabase db;
+    private BookingEngine engine;
+    private final CartDao cartDao = new CartDaoImpl();
+    private User buyer;
+    private User returning;
+    private Session session;
+    private Event event;
+    private int qty = 1;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        db = SyntheticDatabase.create(1000, 10, 0, 0);
+        engine = new BookingEngine();
+        engine.setup();
+        buyer = engine.getUserDao().findUser("user1");
+        returning = engine.getUserDao().findUser("user2");
+        session = engine.openSession(buyer);
+        event = engine.getInventory().get(1);
+        session.addToCart(event, qty);
+
+        List<CartDao.Line> saved = new ArrayList<>();
+        for (int id = 10; id < 15; id++) saved.add(new CartDao.Line(returning.getUsername(), id, 2));
+        cartDao.saveLines(saved);
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws Exception {
+        session.close();
+        engine.close();
+        db.close();
+    }
+
+    /** One quantity change, saved behind: a map update on this thread. */
+    @Benchmark
+    public void editWriteBehind() {
+        qty = 3 - qty;
+        session.updateCart(event, qty);
+    }
+
+    /** The same change with its row written before returning, as a naive store would. */
+    @Benchmark
+    public void editWriteThrough() throws Exception {
+        qty = 3 - qty;
+        session.updateCart(event, qty);
+        cartDao.saveLines(List.of(new CartDao.Line(buyer.getUsername(), event.getId(), qty)));
+    }
+
+    /** Login for a user who left five lines: read them and hold their seats again. */
+    @Benchmark
+    public int resumeSession() throws Exception {
+        try (Session s = engine.resumeSession(returning)) {
+            return s.getCart().size();
+        }
+    }
+}
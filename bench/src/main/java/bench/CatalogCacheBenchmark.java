@@ -0,0 +1,78 @@
+package bench;
+
+import dao.Database;
+import engine.BookingEngine;
+import engine.CatalogCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picking up changes made by another writer: a delta refresh by catalog
+ * version against reloading the whole catalog. Each invocation first sells
+ * one seat of {@code changed} events straight through JDBC, as another
+ * process would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-D" + CatalogCache.REFRESH_PROPERTY + "=0")
+public class CatalogCacheBenchmark {
+    @Param({"10000", "100000"})
+    public int events;
+
+    @Param({"1", "100"})
+    public int changed;
+
+    private SyntheticDatabase db;
+    private BookingEngine engine;
+    private CatalogCache cache;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        db = SyntheticDatabase.create(events, 10, 0, 0);
+        engine = new BookingEngine();
+        engine.setup();
+        cache = engine.getCatalog();
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws Exception {
+        engine.close();
+        db.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void sellElsewhere() throws Exception {
+        try (Connection conn = Database.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pst = conn.prepareStatement(
+                    "UPDATE events SET remainingSeats = remainingSeats - 1 WHERE id = ?")) {
+                for (int i = 0; i < changed; i++) {
+                    next = next % events + 1;
+                    pst.setInt(1, next);
+                    pst.addBatch();
+                }
+                pst.executeBatch();
+            }
+            conn.commit();
+        }
+    }
+
+    @Benchmark
+    public List<CatalogCache.Change> deltaRefresh() throws Exception {
+        return cache.refresh();
+    }
+
+    @Benchmark
+    public long fullReload() throws Exception {
+        cache.load();
+        return cache.getVersion();
+    }
+}
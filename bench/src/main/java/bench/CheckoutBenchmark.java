@@ -0,0 +1,92 @@
+package bench;
+
+import model.Event;
+import model.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Model.checkout end to end: one Model per thread (each has its own cart),
+ * all sharing one database file.
+ * <p>
+ * {@code hotEvent} makes every thread buy the same event, which is the
+ * contention case for the conditional seat update; otherwise threads spread
+ * over the catalog. Run with {@code -t 1,4,8} to see contention scaling.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        @Param({"1000"})
+        public int events;
+
+        @Param({"true", "false"})
+        public boolean hotEvent;
+
+        SyntheticDatabase db;
+
+        @Setup(Level.Trial)
+        public void seed() throws Exception {
+            db = SyntheticDatabase.create(events, 10, 1000, 2);
+        }
+
+        @TearDown(Level.Trial)
+        public void drop() throws Exception {
+            db.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        Model model;
+        List<Event> catalog;
+        int next;
+
+        @Setup(Level.Trial)
+        public void open(Shared shared) throws Exception {
+            model = new Model();
+            model.setup();
+            catalog = model.getEvents();
+            next = (int) (Thread.currentThread().threadId() % catalog.size());
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            model.getEngine().close();
+        }
+    }
+
+    @Benchmark
+    public void checkoutOneLine(Shared shared, Session s) {
+        s.model.addToCart(pick(shared, s), 1);
+        s.model.checkout();
+    }
+
+    @Benchmark
+    public void checkoutThreeLines(Shared shared, Session s) {
+        for (int i = 0; i < 3; i++) {
+            s.model.addToCart(pick(shared, s), 1);
+        }
+        s.model.checkout();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void checkoutContended(Shared shared, Session s) {
+        s.model.addToCart(pick(shared, s), 1);
+        s.model.checkout();
+    }
+
+    private static Event pick(Shared shared, Session s) {
+        if (shared.hotEvent) return s.catalog.get(0);
+        s.next = (s.next + 1) % s.catalog.size();
+        return s.catalog.get(s.next);
+    }
+}
@@ -0,0 +1,80 @@
+package bench;
+
+import dao.UserDao;
+import dao.UserDaoImpl;
+import engine.Credentials;
+import engine.PasswordHasher;
+import model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Login throughput at a given hash cost. {@code verify} is one check on the
+ * benchmark thread; {@code login} sends checks from many threads through the
+ * bounded worker pool, as the UI does, so its throughput is what the
+ * application can sustain:
+ * <pre>
+ *   java -jar bench/target/benchmarks.jar Credentials -p iterations=210000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CredentialsBenchmark {
+    @Param({"210000"})
+    public int iterations;
+
+    // every user gets a current-cost hash up front, so no login re-hashes
+    private static final int USERS = 64;
+
+    private SyntheticDatabase db;
+    private Credentials credentials;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        db = SyntheticDatabase.create(10, USERS, 0, 0);
+        UserDao dao = new UserDaoImpl();
+        PasswordHasher hasher = new PasswordHasher(iterations);
+        IntStream.rangeClosed(1, USERS).parallel().forEach(i -> {
+            try {
+                dao.replacePassword("user" + i, "pw" + i, hasher.hash("pw" + i));
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        // the queue is large enough that no benchmark thread is turned away
+        credentials = new Credentials(dao, hasher,
+                Runtime.getRuntime().availableProcessors(), 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws Exception {
+        credentials.close();
+        db.close();
+    }
+
+    @Benchmark
+    public User verify() throws Exception {
+        int i = ThreadLocalRandom.current().nextInt(USERS) + 1;
+        return credentials.verify("user" + i, "pw" + i);
+    }
+
+    /** Must cost the same as {@link #verify}, or response times reveal which names exist. */
+    @Benchmark
+    public User verifyUnknownUser() throws Exception {
+        return credentials.verify("nobody", "pw1");
+    }
+
+    @Benchmark
+    @Threads(32)
+    public User login() {
+        int i = ThreadLocalRandom.current().nextInt(USERS) + 1;
+        return credentials.authenticate("user" + i, "pw" + i).join();
+    }
+}
@@ -0,0 +1,39 @@
+package bench;
+
+import dao.EventDao;
+import dao.EventDaoImpl;
+import model.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Full catalog load, as done by Model.setup. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventDaoBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int events;
+
+    private SyntheticDatabase db;
+    private final EventDao dao = new EventDaoImpl();
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        db = SyntheticDatabase.create(events, 10, 0, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws Exception {
+        db.close();
+    }
+
+    @Benchmark
+    public List<Event> getAll() throws Exception {
+        return dao.getAll();
+    }
+}
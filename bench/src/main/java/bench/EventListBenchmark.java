@@ -0,0 +1,84 @@
+package bench;
+
+import engine.CatalogCache;
+import model.Event;
+import model.EventList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeping a view's event list current: one catalog change patched into
+ * {@link EventList}, against rebuilding the list the way the screens used
+ * to after every edit. A listener counts the list changes, standing in for
+ * the table. Purely in memory; no database or JavaFX toolkit involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventListBenchmark {
+    @Param({"10000", "100000", "500000"})
+    public int events;
+
+    private List<Event> catalog;
+    private EventList list;
+    private long listChanges;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void build() {
+        catalog = new ArrayList<>(events);
+        for (int i = 1; i <= events; i++) {
+            catalog.add(new Event(i, "Show " + (i % 1000), "Mon", "Venue " + (i % 50), 20, 100));
+        }
+        list = new EventList(e -> !e.isDisabled());
+        list.reset(catalog);
+        list.items().addListener((javafx.collections.ListChangeListener<Event>) c -> {
+            while (c.next()) listChanges++;
+        });
+        nextId = events + 1;
+    }
+
+    /** An event details edit: one replace, found by binary search. */
+    @Benchmark
+    public long patchUpdated() {
+        Event old = catalog.get(ThreadLocalRandom.current().nextInt(events));
+        Event edited = new Event(old.getId(), old.getName(), old.getDate(), old.getVenue(),
+                old.getPrice() + 1, old.getRemainingSeats());
+        list.apply(List.of(new CatalogCache.Change(CatalogCache.Kind.UPDATED, edited)));
+        return listChanges;
+    }
+
+    /** Disable then re-enable an event anywhere in the list: a remove and an insert. */
+    @Benchmark
+    public long patchDisableEnable() {
+        Event e = catalog.get(ThreadLocalRandom.current().nextInt(events));
+        e.setDisabled(true);
+        list.apply(List.of(new CatalogCache.Change(CatalogCache.Kind.DISABLED, e)));
+        e.setDisabled(false);
+        list.apply(List.of(new CatalogCache.Change(CatalogCache.Kind.DISABLED, e)));
+        return listChanges;
+    }
+
+    /** A new event (ids only grow) and its removal: an append and a remove at the end. */
+    @Benchmark
+    public long patchAddRemove() {
+        Event e = new Event(nextId, "New", "Tue", "Venue", 10, 10);
+        list.apply(List.of(new CatalogCache.Change(CatalogCache.Kind.ADDED, e)));
+        list.apply(List.of(new CatalogCache.Change(CatalogCache.Kind.REMOVED, e)));
+        return listChanges;
+    }
+
+    /** The old way: any change re-filters and replaces the whole list. */
+    @Benchmark
+    public long rebuild() {
+        list.reset(catalog);
+        return listChanges;
+    }
+}
@@ -0,0 +1,100 @@
+package bench;
+
+import engine.EventInventory;
+import model.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The old List&lt;Event&gt; catalog against {@link EventInventory}: listing
+ * enabled events, lookup by id and toggling the disabled flag.
+ * Purely in memory; no database involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryBenchmark {
+    private static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+
+    @Param({"100000", "500000"})
+    public int events;
+
+    private List<Event> list;
+    private EventInventory inventory;
+    private int[] probes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        list = new ArrayList<>(events);
+        for (int i = 1; i <= events; i++) {
+            list.add(new Event(i, "Show " + (i % 997), DAYS[i % 7], "Venue " + (i % 211),
+                    10 + i % 90, 1000, i % 20 == 0));
+        }
+        inventory = new EventInventory();
+        inventory.load(list);
+
+        Random rnd = new Random(42);
+        probes = new int[4096];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = 1 + rnd.nextInt(events);
+        }
+    }
+
+    private int nextId() {
+        return probes[next++ & (probes.length - 1)];
+    }
+
+    // ─── list enabled (Model.getEvents) ──────────────────────────────────────
+
+    @Benchmark
+    public List<Event> listEnabled_stream() {
+        return list.stream().filter(e -> !e.isDisabled()).collect(Collectors.toList());
+    }
+
+    /** Unchanged catalog: returns the cached snapshot. */
+    @Benchmark
+    public List<Event> listEnabled_inventory() {
+        return inventory.getEnabled();
+    }
+
+    // ─── lookup by id ────────────────────────────────────────────────────────
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Event lookup_stream() {
+        int id = nextId();
+        return list.stream().filter(e -> e.getId() == id).findFirst().orElse(null);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int lookup_inventory() {
+        return inventory.getRemainingSeats(nextId());
+    }
+
+    // ─── disable + re-list (AdminController toggle) ──────────────────────────
+    // the inventory side has to rebuild its snapshot here
+
+    @Benchmark
+    public int toggle_stream() {
+        Event e = list.get(nextId() - 1);
+        e.setDisabled(!e.isDisabled());
+        return listEnabled_stream().size();
+    }
+
+    @Benchmark
+    public int toggle_inventory() {
+        int id = nextId();
+        inventory.setDisabled(id, !list.get(id - 1).isDisabled());
+        return inventory.getEnabled().size();
+    }
+}
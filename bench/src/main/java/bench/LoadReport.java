@@ -0,0 +1,259 @@
+package bench;
+
+import metrics.LatencyHistogram;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What a {@link LoadSimulator} run measured: per operation, the outcome
+ * counts and a latency histogram; at the end, the consistency checks.
+ * Written out as JSON (stable keys, one run per file) so runs of different
+ * versions can be diffed or compared by a script, and as a short table
+ * for people.
+ */
+final class LoadReport {
+    /** Report layout version; bump when keys change meaning. */
+    static final int FORMAT = 1;
+
+    private static final int MAX_SAMPLES = 20;
+
+    /** How an operation ended. */
+    enum Outcome {
+        /** Done. */
+        OK,
+        /** Refused by the application: sold out, hold lost, duplicate. Expected under load. */
+        REJECTED,
+        /** The database was busy or locked and gave up waiting. */
+        LOCK_WAIT,
+        /** Anything else. */
+        ERROR
+    }
+
+    static final class Op {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder[] outcomes = new LongAdder[Outcome.values().length];
+
+        Op() {
+            for (int i = 0; i < outcomes.length; i++) outcomes[i] = new LongAdder();
+        }
+
+        long count(Outcome o) { return outcomes[o.ordinal()].sum(); }
+
+        long total() {
+            long n = 0;
+            for (LongAdder a : outcomes) n += a.sum();
+            return n;
+        }
+    }
+
+    private final Map<String, Op> ops = new ConcurrentHashMap<>();
+    private final List<String> errorSamples = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Object> config = new TreeMap<>();
+    private final Map<String, Long> consistency = new TreeMap<>();
+    private final List<String> violations = new ArrayList<>();
+    private final Instant startedAt = Instant.now();
+    private double seconds;
+
+    void config(String key, Object value) {
+        config.put(key, value);
+    }
+
+    /** Record one operation's latency and outcome. */
+    void record(String op, long nanos, Outcome outcome, Throwable error) {
+        Op o = ops.computeIfAbsent(op, k -> new Op());
+        o.latency.record(nanos);
+        o.outcomes[outcome.ordinal()].increment();
+        if (error != null && outcome != Outcome.REJECTED && errorSamples.size() < MAX_SAMPLES) {
+            errorSamples.add(op + ": " + describe(error));
+        }
+    }
+
+    void elapsed(double seconds) {
+        this.seconds = seconds;
+    }
+
+    /** A figure from the consistency checks; reported as is. */
+    void check(String name, long value) {
+        consistency.put(name, value);
+    }
+
+    /** A broken invariant, with enough detail to start looking. */
+    void violation(String detail) {
+        violations.add(detail);
+    }
+
+    int violationCount() {
+        return violations.size();
+    }
+
+    long lockWaits() {
+        long n = 0;
+        for (Op o : ops.values()) n += o.count(Outcome.LOCK_WAIT);
+        return n;
+    }
+
+    /**
+     * Sort an exception into an outcome. Session and engine wrap
+     * SQLExceptions in RuntimeExceptions, so the cause chain is searched;
+     * SQLite reports lock waits as SQLITE_BUSY (5) or SQLITE_LOCKED (6).
+     */
+    static Outcome classify(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql) {
+                String msg = String.valueOf(sql.getMessage()).toLowerCase(Locale.ROOT);
+                int code = sql.getErrorCode() & 0xff;
+                if (code == 5 || code == 6 || msg.contains("busy") || msg.contains("locked")) {
+                    return Outcome.LOCK_WAIT;
+                }
+            }
+        }
+        return ex instanceof IllegalStateException || ex instanceof IllegalArgumentException
+                ? Outcome.REJECTED : Outcome.ERROR;
+    }
+
+    private static String describe(Throwable ex) {
+        StringBuilder sb = new StringBuilder(ex.toString());
+        for (Throwable t = ex.getCause(); t != null; t = t.getCause()) {
+            sb.append(" <- ").append(t);
+        }
+        return sb.toString();
+    }
+
+    // ─── output ───────────────────────────────────────────────────────────────
+
+    String toJson() {
+        StringBuilder sb = new StringBuilder("{\n");
+        sb.append("  \"format\": ").append(FORMAT).append(",\n");
+        sb.append("  \"startedAt\": ").append(str(startedAt.toString())).append(",\n");
+        sb.append("  \"java\": ").append(str(System.getProperty("java.version"))).append(",\n");
+        sb.append("  \"config\": {");
+        String sep = "\n";
+        for (Map.Entry<String, Object> c : config.entrySet()) {
+            sb.append(sep).append("    ").append(str(c.getKey())).append(": ").append(value(c.getValue()));
+            sep = ",\n";
+        }
+        sb.append("\n  },\n");
+        sb.append("  \"durationSeconds\": ").append(num(seconds)).append(",\n");
+
+        long all = 0;
+        sb.append("  \"operations\": {");
+        sep = "\n";
+        for (Map.Entry<String, Op> e : new TreeMap<>(ops).entrySet()) {
+            Op o = e.getValue();
+            LatencyHistogram.Snapshot s = o.latency.snapshot();
+            all += o.total();
+            sb.append(sep).append("    ").append(str(e.getKey())).append(": {");
+            sb.append("\"count\": ").append(o.total());
+            for (Outcome out : Outcome.values()) {
+                sb.append(", ").append(str(key(out))).append(": ").append(o.count(out));
+            }
+            sb.append(", \"perSecond\": ").append(num(o.total() / seconds));
+            sb.append(", \"latencyMicros\": {")
+                    .append("\"mean\": ").append(num(s.getMean() / 1e3))
+                    .append(", \"p50\": ").append(num(s.valueAtPercentile(50) / 1e3))
+                    .append(", \"p99\": ").append(num(s.valueAtPercentile(99) / 1e3))
+                    .append(", \"p999\": ").append(num(s.valueAtPercentile(99.9) / 1e3))
+                    .append(", \"max\": ").append(num(s.getMax() / 1e3))
+                    .append("}}");
+            sep = ",\n";
+        }
+        sb.append("\n  },\n");
+        sb.append("  \"totals\": {\"operations\": ").append(all)
+                .append(", \"perSecond\": ").append(num(all / seconds))
+                .append(", \"lockWaits\": ").append(lockWaits()).append("},\n");
+
+        sb.append("  \"consistency\": {");
+        sep = "\n";
+        for (Map.Entry<String, Long> c : consistency.entrySet()) {
+            sb.append(sep).append("    ").append(str(c.getKey())).append(": ").append(c.getValue());
+            sep = ",\n";
+        }
+        sb.append(sep).append("    \"violations\": ").append(violations.size());
+        sb.append(",\n    \"details\": ").append(array(violations.subList(0, Math.min(MAX_SAMPLES, violations.size()))));
+        sb.append("\n  },\n");
+        synchronized (errorSamples) {
+            sb.append("  \"errorSamples\": ").append(array(errorSamples)).append("\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    String toTable() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-12s %9s %9s %9s %6s %6s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "ok", "rejected", "lock", "error", "per sec",
+                "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (Map.Entry<String, Op> e : new TreeMap<>(ops).entrySet()) {
+            Op o = e.getValue();
+            LatencyHistogram.Snapshot s = o.latency.snapshot();
+            sb.append(String.format("%-12s %9d %9d %9d %6d %6d %9.1f %9.0f %9.0f %9.0f %9.0f%n",
+                    e.getKey(), o.total(), o.count(Outcome.OK), o.count(Outcome.REJECTED),
+                    o.count(Outcome.LOCK_WAIT), o.count(Outcome.ERROR), o.total() / seconds,
+                    s.valueAtPercentile(50) / 1e3, s.valueAtPercentile(99) / 1e3,
+                    s.valueAtPercentile(99.9) / 1e3, s.getMax() / 1e3));
+        }
+        consistency.forEach((k, v) -> sb.append(String.format("%-24s %d%n", k, v)));
+        sb.append(String.format("%-24s %d%n", "violations", violations.size()));
+        for (String v : violations.subList(0, Math.min(MAX_SAMPLES, violations.size()))) {
+            sb.append("  ").append(v).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // OK -> "ok", LOCK_WAIT -> "lockWait"
+    private static String key(Outcome o) {
+        String[] words = o.name().toLowerCase(Locale.ROOT).split("_");
+        StringBuilder sb = new StringBuilder(words[0]);
+        for (int i = 1; i < words.length; i++) {
+            sb.append(Character.toUpperCase(words[i].charAt(0))).append(words[i].substring(1));
+        }
+        return sb.toString();
+    }
+
+    private static String value(Object v) {
+        return v instanceof Number n ? num(n.doubleValue()) : str(String.valueOf(v));
+    }
+
+    private static String num(double d) {
+        if (Double.isNaN(d) || Double.isInfinite(d)) return "null";
+        return d == Math.rint(d) && Math.abs(d) < 1e15
+                ? Long.toString((long) d)
+                : String.format(Locale.ROOT, "%.3f", d);
+    }
+
+    private static String array(List<String> items) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(str(items.get(i)));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String str(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"'  -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
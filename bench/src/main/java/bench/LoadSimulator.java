@@ -0,0 +1,385 @@
+package bench;
+
+import dao.Database;
+import engine.BookingEngine;
+import engine.EventInventory;
+import engine.EventSearch;
+import metrics.Metrics;
+import model.CartItem;
+import model.Event;
+import model.Model;
+import model.User;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Headless load: N simulated buyers, each a virtual thread with its own
+ * {@link Model} (and so its own session and cart) over one shared
+ * {@link BookingEngine} and database file, for a fixed time.
+ * <p>
+ * Scenarios:
+ * <ul>
+ *   <li>{@code flash-sale}: everyone buys 1..maxQty seats of event 1,
+ *       which has {@code hotSeats}, until the time is up;</li>
+ *   <li>{@code mixed}: browsing, searching, adding random events to the
+ *       cart and checking out;</li>
+ *   <li>{@code admin-edits}: mixed, with a third of the adds on event 1,
+ *       while an admin thread reprices and disables events.</li>
+ * </ul>
+ * Each operation's latency and outcome is recorded (see
+ * {@link LoadReport.Outcome}). Afterwards every event's seats are checked
+ * against the orders written during the run, the seats confirmed to
+ * buyers, the in-memory catalog, the seat holds and the sales totals.
+ * Results go to stdout and, as JSON, to {@code out}; the exit status is 1
+ * if any check failed.
+ * <p>
+ * Runs from the benchmark jar, options as {@code key=value}:
+ * <pre>
+ * java -cp bench/target/benchmarks.jar bench.LoadSimulator scenario=flash-sale users=2000 seconds=30
+ * </pre>
+ */
+public final class LoadSimulator {
+    private static final int HOT_EVENT = 1;
+
+    enum Scenario {
+        FLASH_SALE, MIXED, ADMIN_EDITS;
+
+        static Scenario parse(String s) {
+            return valueOf(s.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    // options
+    private final Scenario scenario;
+    private final int users;
+    private final int seconds;
+    private final int events;
+    private final int seats;
+    private final int hotSeats;
+    private final int maxQty;
+    private final int thinkMillis;
+    private final int adminMillis;
+    private final Path out;
+
+    private final LoadReport report = new LoadReport();
+    private BookingEngine engine;
+    private EventInventory inventory;
+    // seats each event sold, as told to the buyers
+    private AtomicLongArray confirmed;
+    private long deadline;
+
+    private LoadSimulator(Map<String, String> opts) {
+        scenario    = Scenario.parse(opts.getOrDefault("scenario", "mixed"));
+        users       = Integer.parseInt(opts.getOrDefault("users", "500"));
+        seconds     = Integer.parseInt(opts.getOrDefault("seconds", "20"));
+        events      = Integer.parseInt(opts.getOrDefault("events", "1000"));
+        seats       = Integer.parseInt(opts.getOrDefault("seats", "500"));
+        hotSeats    = Integer.parseInt(opts.getOrDefault("hotSeats", "2000"));
+        maxQty      = Integer.parseInt(opts.getOrDefault("maxQty", "4"));
+        thinkMillis = Integer.parseInt(opts.getOrDefault("thinkMillis", "5"));
+        adminMillis = Integer.parseInt(opts.getOrDefault("adminMillis", "20"));
+        out         = Path.of(opts.getOrDefault("out", "load-report.json"));
+
+        report.config("scenario", scenario.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+        report.config("users", users);
+        report.config("seconds", seconds);
+        report.config("events", events);
+        report.config("seats", seats);
+        report.config("hotSeats", hotSeats);
+        report.config("maxQty", maxQty);
+        report.config("thinkMillis", thinkMillis);
+        report.config("adminMillis", adminMillis);
+        report.config("cpus", Runtime.getRuntime().availableProcessors());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String a : args) {
+            int eq = a.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Expected key=value: " + a);
+            opts.put(a.substring(0, eq), a.substring(eq + 1));
+        }
+        int violations = new LoadSimulator(opts).run();
+        System.exit(violations == 0 ? 0 : 1);
+    }
+
+    // the database is only held so it is deleted at the end; the run reaches it through Database
+    @SuppressWarnings("try")
+    private int run() throws Exception {
+        try (SyntheticDatabase db = SyntheticDatabase.create(events, users, 0, 0)) {
+            int[] initial = stockEvents();
+            long salesBefore = salesSeats();
+
+            engine = new BookingEngine();
+            engine.setup();
+            inventory = engine.getInventory();
+            confirmed = new AtomicLongArray(events + 1);
+            List<User> buyers = new ArrayList<>(users);
+            for (int i = 1; i <= users; i++) {
+                buyers.add(engine.getUserDao().findUser("user" + i));
+            }
+
+            System.out.printf("%s: %d users for %ds over %d events%n",
+                    scenario, users, seconds, events);
+            long start = System.nanoTime();
+            deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+            try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (User u : buyers) {
+                    threads.submit(() -> buyer(u));
+                }
+                if (scenario == Scenario.ADMIN_EDITS) {
+                    threads.submit(this::admin);
+                }
+            }
+            report.elapsed((System.nanoTime() - start) / 1e9);
+
+            verify(initial, salesBefore);
+            engine.close();
+        }
+
+        String json = report.toJson();
+        Files.writeString(out, json);
+        System.out.print(report.toTable());
+        System.out.println(Metrics.report());
+        System.out.println("Report written to " + out.toAbsolutePath());
+        return report.violationCount();
+    }
+
+    // finite seats, so events sell out; returns each event's seats by id
+    private int[] stockEvents() throws SQLException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pst = conn.prepareStatement(
+                     "UPDATE events SET remainingSeats = CASE id WHEN ? THEN ? ELSE ? END")) {
+            pst.setInt(1, HOT_EVENT);
+            pst.setInt(2, hotSeats);
+            pst.setInt(3, seats);
+            pst.executeUpdate();
+        }
+        return eventSeats();
+    }
+
+    // ─── simulated users ──────────────────────────────────────────────────────
+
+    private void buyer(User u) {
+        Model m = new Model(engine);
+        m.setCurrentUser(u);
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        try {
+            while (System.nanoTime() < deadline) {
+                switch (scenario) {
+                    case FLASH_SALE  -> flashSale(m, rnd);
+                    case MIXED       -> mixed(m, rnd, 0);
+                    case ADMIN_EDITS -> mixed(m, rnd, 0.33);
+                }
+                think(rnd, thinkMillis);
+            }
+        } finally {
+            // releases whatever is still held
+            m.setCurrentUser(null);
+        }
+    }
+
+    private void flashSale(Model m, ThreadLocalRandom rnd) {
+        if (add(m, inventory.get(HOT_EVENT), 1 + rnd.nextInt(maxQty))) {
+            checkout(m);
+        }
+    }
+
+    private void mixed(Model m, ThreadLocalRandom rnd, double hotShare) {
+        double r = rnd.nextDouble();
+        if (m.getCart().size() >= 5 || (r >= 0.93 && !m.getCart().isEmpty())) {
+            checkout(m);
+        } else if (r < 0.45) {
+            timed("browse", m::getEvents);
+        } else if (r < 0.70) {
+            String text = "show " + rnd.nextInt(100);
+            timed("search", () -> m.searchEvents(EventSearch.Query.text(text), 50));
+        } else {
+            int id = rnd.nextDouble() < hotShare ? HOT_EVENT : 1 + rnd.nextInt(events);
+            Event e = inventory.get(id);
+            if (e != null && !e.isDisabled()) add(m, e, 1 + rnd.nextInt(maxQty));
+        }
+    }
+
+    private boolean add(Model m, Event e, int qty) {
+        return timed("addToCart", () -> {
+            m.addToCart(e, qty);
+            return Boolean.TRUE;
+        }) != null;
+    }
+
+    private void checkout(Model m) {
+        List<CartItem> lines = new ArrayList<>();
+        for (CartItem ci : m.getCart()) lines.add(new CartItem(ci.getEvent(), ci.getQuantity()));
+        boolean sold = timed("checkout", () -> {
+            m.checkout();
+            return Boolean.TRUE;
+        }) != null;
+        if (sold) {
+            for (CartItem ci : lines) confirmed.addAndGet(ci.getEvent().getId(), ci.getQuantity());
+        } else {
+            // start over; the failed sale already gave its seats back
+            for (CartItem ci : lines) m.removeFromCart(ci.getEvent());
+        }
+    }
+
+    // reprices and disables events, the hot one included, while they sell
+    private void admin() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            int id = rnd.nextDouble() < 0.33 ? HOT_EVENT : 1 + rnd.nextInt(events);
+            Event e = inventory.get(id);
+            if (e == null) continue;
+            if (rnd.nextBoolean()) {
+                // like the edit dialog: the seat count shown, sent back unchanged
+                double price = Math.max(1, e.getPrice() + (rnd.nextBoolean() ? 1 : -1));
+                int shown = inventory.getRemainingSeats(id);
+                timed("adminEdit", () -> {
+                    engine.editEvent(new Event(id, e.getName(), e.getDate(), e.getVenue(), price,
+                            shown), shown);
+                    return Boolean.TRUE;
+                });
+            } else {
+                timed("adminToggle", () -> {
+                    engine.setEventDisabled(e, !e.isDisabled());
+                    return Boolean.TRUE;
+                });
+            }
+            think(rnd, adminMillis);
+        }
+    }
+
+    private interface Call<T> {
+        T call() throws Exception;
+    }
+
+    // run and record one operation; null if it failed
+    private <T> T timed(String op, Call<T> call) {
+        long t = System.nanoTime();
+        try {
+            T value = call.call();
+            report.record(op, System.nanoTime() - t, LoadReport.Outcome.OK, null);
+            return value;
+        } catch (Exception ex) {
+            report.record(op, System.nanoTime() - t, LoadReport.classify(ex), ex);
+            return null;
+        }
+    }
+
+    private static void think(ThreadLocalRandom rnd, int millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(rnd.nextInt(2 * millis + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ─── consistency ──────────────────────────────────────────────────────────
+
+    /**
+     * Once every buyer has left: for each event, the seats it lost must be
+     * exactly the seats in orders written during the run, which must be
+     * exactly what buyers were told they bought. Memory and the hold
+     * counters must agree with the database, and the sales totals must
+     * have grown by the seats sold.
+     */
+    private void verify(int[] initial, long salesBefore) throws SQLException {
+        int[] remaining = eventSeats();
+        long[] ordered = new long[events + 1];
+        long orders;
+        try (Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT event_id, SUM(quantity) FROM order_items GROUP BY event_id")) {
+                while (rs.next()) ordered[rs.getInt(1)] = rs.getLong(2);
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM orders")) {
+                orders = rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+
+        long sold = 0, oversold = 0, ledger = 0, told = 0, memory = 0, held = 0;
+        for (int id = 1; id <= events; id++) {
+            sold += ordered[id];
+            if (remaining[id] < 0) {
+                oversold++;
+                report.violation("event " + id + " oversold: " + remaining[id] + " seats left");
+            }
+            if (initial[id] - remaining[id] != ordered[id]) {
+                ledger++;
+                report.violation("event " + id + " went from " + initial[id] + " to " + remaining[id]
+                        + " seats, but orders hold " + ordered[id]);
+            }
+            if (ordered[id] != confirmed.get(id)) {
+                told++;
+                report.violation("event " + id + ": " + ordered[id] + " seats in orders, "
+                        + confirmed.get(id) + " confirmed to buyers");
+            }
+            if (inventory.getRemainingSeats(id) != remaining[id]) {
+                memory++;
+                report.violation("event " + id + ": " + inventory.getRemainingSeats(id)
+                        + " seats in memory, " + remaining[id] + " in the database");
+            }
+            Event e = inventory.get(id);
+            if (e != null && engine.getAvailableSeats(e) != remaining[id]) {
+                held++;
+                report.violation("event " + id + ": " + (remaining[id] - engine.getAvailableSeats(e))
+                        + " seats still held with every cart closed");
+            }
+        }
+        long salesDelta = salesSeats() - salesBefore;
+        if (salesDelta != sold) {
+            report.violation("sales totals grew by " + salesDelta + " seats, orders hold " + sold);
+        }
+
+        report.check("ordersPlaced", orders);
+        report.check("seatsSold", sold);
+        report.check("hotEventSeatsSold", ordered[HOT_EVENT]);
+        report.check("hotEventSeatsLeft", remaining[HOT_EVENT]);
+        report.check("oversoldEvents", oversold);
+        report.check("seatLedgerMismatches", ledger);
+        report.check("confirmedMismatches", told);
+        report.check("memoryMismatches", memory);
+        report.check("heldSeatLeaks", held);
+        report.check("salesTotalsMismatch", salesDelta == sold ? 0 : 1);
+    }
+
+    private int[] eventSeats() throws SQLException {
+        int[] seatsById = new int[events + 1];
+        try (Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, remainingSeats FROM events")) {
+            while (rs.next()) {
+                int id = rs.getInt(1);
+                if (id <= events) seatsById[id] = rs.getInt(2);
+            }
+        }
+        return seatsById;
+    }
+
+    private static long salesSeats() throws SQLException {
+        try (Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT seats FROM sales_summary WHERE dimension = 'all' AND key = ''")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
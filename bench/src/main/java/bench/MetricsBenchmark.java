@@ -0,0 +1,116 @@
+package bench;
+
+import dao.UserDao;
+import dao.UserDaoImpl;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import metrics.Timer;
+import model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What instrumentation costs: recording into a histogram, a timer around
+ * nothing, a call through {@link Metrics#instrument} against a direct one,
+ * and a real DAO lookup both ways. The {@code ...Disabled} variants run in
+ * a JVM started with {@code -Dmetrics.enabled=false}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+    private static final String DISABLED = "-D" + Metrics.ENABLED_PROPERTY + "=false";
+
+    /** Stands in for a DAO: an interface call that does almost nothing. */
+    public interface Lookup {
+        int get(int id);
+    }
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final Timer timer = Metrics.timer("bench.noop");
+    private final Lookup direct = id -> id * 31;
+    private final Lookup proxied = Metrics.instrument(Lookup.class, direct);
+
+    @State(Scope.Benchmark)
+    public static class Db {
+        SyntheticDatabase db;
+        final UserDao direct = new UserDaoImpl();
+        final UserDao instrumented = Metrics.instrument(UserDao.class, new UserDaoImpl());
+
+        @Setup(Level.Trial)
+        public void seed() throws Exception {
+            db = SyntheticDatabase.create(10, 1000, 0, 0);
+        }
+
+        @TearDown(Level.Trial)
+        public void drop() throws Exception {
+            db.close();
+        }
+    }
+
+    // ─── building blocks ──────────────────────────────────────────────────────
+
+    @Benchmark
+    public void histogramRecord() {
+        histogram.record(ThreadLocalRandom.current().nextLong(1_000_000));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void histogramRecordContended() {
+        histogram.record(ThreadLocalRandom.current().nextLong(1_000_000));
+    }
+
+    @Benchmark
+    public void timerStartStop() {
+        timer.stop(timer.start());
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = DISABLED)
+    public void timerStartStopDisabled() {
+        timer.stop(timer.start());
+    }
+
+    // ─── DAO wrapper ──────────────────────────────────────────────────────────
+
+    @Benchmark
+    public int directCall() {
+        return direct.get(ThreadLocalRandom.current().nextInt());
+    }
+
+    @Benchmark
+    public int instrumentedCall() {
+        return proxied.get(ThreadLocalRandom.current().nextInt());
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = DISABLED)
+    public int instrumentedCallDisabled() {
+        return proxied.get(ThreadLocalRandom.current().nextInt());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public User findUserDirect(Db db) throws Exception {
+        return db.direct.findUser("user" + (ThreadLocalRandom.current().nextInt(1000) + 1));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public User findUserInstrumented(Db db) throws Exception {
+        return db.instrumented.findUser("user" + (ThreadLocalRandom.current().nextInt(1000) + 1));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Fork(value = 1, jvmArgsAppend = DISABLED)
+    public User findUserDisabled(Db db) throws Exception {
+        return db.instrumented.findUser("user" + (ThreadLocalRandom.current().nextInt(1000) + 1));
+    }
+}
@@ -0,0 +1,105 @@
+package bench;
+
+import dao.OrderDao;
+import dao.OrderDaoImpl;
+import engine.OrderExport;
+import model.CartItem;
+import model.Event;
+import model.Order;
+import model.OrderSummary;
+import model.UserOrderSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order history load, first history page, streaming export and single-order
+ * insert, globally and for one of ten users. Run with several {@code orders}
+ * values: the full reads should scale linearly, one user's reads with that
+ * user's share, and the first page and the user summary not at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderDaoBenchmark {
+    // one of SyntheticDatabase's ten users, owning a tenth of the orders
+    private static final String USER = "user1";
+
+    @Param({"1000", "10000", "50000"})
+    public int orders;
+
+    @Param({"3"})
+    public int itemsPerOrder;
+
+    private SyntheticDatabase db;
+    private final OrderDao dao = new OrderDaoImpl();
+    private Order template;
+    private Path exportFile;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        db = SyntheticDatabase.create(1000, 10, orders, itemsPerOrder);
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 1; i <= itemsPerOrder; i++) {
+            items.add(new CartItem(new Event(i, "Show", "Mon", "Venue", 10, 100), 1));
+        }
+        template = new Order(orders + 1, LocalDateTime.now(), USER, items, 10.0 * itemsPerOrder);
+        exportFile = Files.createTempFile("bench-export", ".txt");
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws Exception {
+        db.close();
+        Files.deleteIfExists(exportFile);
+    }
+
+    @Benchmark
+    public List<Order> getAllOrders() throws Exception {
+        return dao.getAllOrders();
+    }
+
+    /** The first screen of the history table; should not grow with {@code orders}. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<OrderSummary> firstPage() throws Exception {
+        return dao.getOrderPage(null, 0, 100, null, null);
+    }
+
+    /** The same screen for one user, walking their index entries only. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<OrderSummary> userFirstPage() throws Exception {
+        return dao.getOrderPage(USER, 0, 100, null, null);
+    }
+
+    /** The home screen's totals: one primary-key read. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public UserOrderSummary userSummary() throws Exception {
+        return dao.getUserSummary(USER);
+    }
+
+    @Benchmark
+    public long exportOrders() throws Exception {
+        return OrderExport.write(dao, null, exportFile, null);
+    }
+
+    @Benchmark
+    public long exportUserOrders() throws Exception {
+        return OrderExport.write(dao, USER, exportFile, null);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void saveOrder() throws Exception {
+        dao.saveOrder(template);
+    }
+}
@@ -0,0 +1,88 @@
+package bench;
+
+import dao.OrderDao;
+import dao.OrderDaoImpl;
+import dao.SalesDao;
+import dao.SalesDaoImpl;
+import model.CartItem;
+import model.Order;
+import model.SalesTotal;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The admin screen's sales figures: read from the totals checkout keeps,
+ * against aggregating the whole order history in memory as before. Also
+ * what a one-day range and a full rebuild cost. Run with several
+ * {@code orders} values: the kept totals should not grow with them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SalesBenchmark {
+    @Param({"10000", "100000"})
+    public int orders;
+
+    private SyntheticDatabase db;
+    private final SalesDao sales = new SalesDaoImpl();
+    private final OrderDao orderDao = new OrderDaoImpl();
+    // SyntheticDatabase places one order a minute from 2024-01-01 09:00
+    private final LocalDateTime day = LocalDateTime.of(2024, 1, 2, 0, 0);
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        db = SyntheticDatabase.create(10_000, 10, orders, 3);
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws Exception {
+        db.close();
+    }
+
+    /** The dashboard: top 50 shows and the grand total. */
+    @Benchmark
+    public Object keptTotals() throws Exception {
+        return List.of(sales.getTotals(SalesTotal.Dimension.SHOW, 50), sales.getGrandTotal());
+    }
+
+    /** The same figures the old way: every order loaded, then grouped. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object fromHistory() throws Exception {
+        Map<String, double[]> byShow = new HashMap<>();
+        double revenue = 0;
+        int seats = 0;
+        List<Order> all = orderDao.getAllOrders();
+        for (Order o : all) {
+            for (CartItem ci : o.getItems()) {
+                double r = ci.getEvent().getPrice() * ci.getQuantity();
+                double[] s = byShow.computeIfAbsent(ci.getEvent().getName(), k -> new double[2]);
+                s[0] += r;
+                s[1] += ci.getQuantity();
+                revenue += r;
+                seats += ci.getQuantity();
+            }
+        }
+        return List.of(byShow, revenue, seats, all.size());
+    }
+
+    /** Top shows for one past day (1440 orders), computed from the history. */
+    @Benchmark
+    public List<SalesTotal> oneDayRange() throws Exception {
+        return sales.computeTotals(SalesTotal.Dimension.SHOW, day, day.plusDays(1), 50);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void rebuild() throws Exception {
+        sales.rebuild();
+    }
+}
@@ -0,0 +1,160 @@
+package bench;
+
+import engine.CatalogCache;
+import engine.EventInventory;
+import engine.EventSearch;
+import model.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-as-you-type over the catalog: {@link EventSearch} queries against
+ * a scan of every event, for a text prefix as it grows, a day, a price
+ * range and all three together, plus the cost of indexing one edit.
+ * Each query materializes at most 50 rows, like a screenful. Purely in
+ * memory; no database involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    private static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+    private static final int LIMIT = 50;
+
+    private static final EventSearch.Query FIRST_LETTER = EventSearch.Query.text("v");
+    private static final EventSearch.Query WORD_PREFIX  = EventSearch.Query.text("show 12");
+    private static final EventSearch.Query TWO_WORDS    = EventSearch.Query.text("show 123 venue 45");
+    private static final EventSearch.Query DAY =
+            new EventSearch.Query("", Set.of(DayOfWeek.SATURDAY), 0, Double.POSITIVE_INFINITY);
+    private static final EventSearch.Query PRICE_RANGE =
+            new EventSearch.Query("", Set.of(), 20, 25);
+    private static final EventSearch.Query COMBINED =
+            new EventSearch.Query("show 12", Set.of(DayOfWeek.SATURDAY), 20, 60);
+
+    @Param({"100000", "500000"})
+    public int events;
+
+    private List<Event> list;
+    private EventInventory inventory;
+    private EventSearch search;
+
+    @Setup(Level.Trial)
+    public void build() {
+        list = new ArrayList<>(events);
+        for (int i = 1; i <= events; i++) {
+            list.add(new Event(i, "Show " + (i % 997), DAYS[i % 7], "Venue " + (i % 211),
+                    10 + i % 90, 1000, i % 20 == 0));
+        }
+        inventory = new EventInventory();
+        inventory.load(list);
+        search = new EventSearch(inventory);
+        search.rebuild();
+    }
+
+    // ─── index ────────────────────────────────────────────────────────────────
+
+    /** Worst case: one letter that starts every venue. */
+    @Benchmark
+    public EventSearch.Result index_firstLetter() {
+        return search.search(FIRST_LETTER, LIMIT);
+    }
+
+    @Benchmark
+    public EventSearch.Result index_wordPrefix() {
+        return search.search(WORD_PREFIX, LIMIT);
+    }
+
+    @Benchmark
+    public EventSearch.Result index_twoWords() {
+        return search.search(TWO_WORDS, LIMIT);
+    }
+
+    @Benchmark
+    public EventSearch.Result index_day() {
+        return search.search(DAY, LIMIT);
+    }
+
+    @Benchmark
+    public EventSearch.Result index_priceRange() {
+        return search.search(PRICE_RANGE, LIMIT);
+    }
+
+    @Benchmark
+    public EventSearch.Result index_combined() {
+        return search.search(COMBINED, LIMIT);
+    }
+
+    /** An admin edit: the old document retired, the new one indexed. */
+    @Benchmark
+    public EventSearch.Result index_update() {
+        Event old = list.get(ThreadLocalRandom.current().nextInt(events));
+        Event edited = new Event(old.getId(), old.getName(), old.getDate(), old.getVenue(),
+                old.getPrice(), old.getRemainingSeats(), old.isDisabled());
+        search.catalogChanged(0, List.of(new CatalogCache.Change(CatalogCache.Kind.UPDATED, edited)));
+        return null;
+    }
+
+    // ─── scan ─────────────────────────────────────────────────────────────────
+
+    @Benchmark
+    public EventSearch.Result scan_firstLetter() {
+        return scan(FIRST_LETTER);
+    }
+
+    @Benchmark
+    public EventSearch.Result scan_wordPrefix() {
+        return scan(WORD_PREFIX);
+    }
+
+    @Benchmark
+    public EventSearch.Result scan_twoWords() {
+        return scan(TWO_WORDS);
+    }
+
+    @Benchmark
+    public EventSearch.Result scan_day() {
+        return scan(DAY);
+    }
+
+    @Benchmark
+    public EventSearch.Result scan_priceRange() {
+        return scan(PRICE_RANGE);
+    }
+
+    @Benchmark
+    public EventSearch.Result scan_combined() {
+        return scan(COMBINED);
+    }
+
+    // every enabled event checked in turn: each query word must start a word
+    private EventSearch.Result scan(EventSearch.Query q) {
+        String[] words = q.text().isBlank() ? new String[0] : q.text().toLowerCase(Locale.ROOT).split(" ");
+        List<Event> out = new ArrayList<>(LIMIT);
+        int total = 0;
+        for (Event e : list) {
+            if (e.isDisabled()) continue;
+            if (e.getPrice() < q.minPrice() || e.getPrice() > q.maxPrice()) continue;
+            if (!q.days().isEmpty() && q.days().stream()
+                    .noneMatch(d -> DAYS[d.getValue() - 1].equals(e.getDate()))) continue;
+            String text = " " + (e.getName() + " " + e.getVenue()).toLowerCase(Locale.ROOT);
+            boolean all = true;
+            for (String w : words) {
+                if (!text.contains(" " + w)) { all = false; break; }
+            }
+            if (!all) continue;
+            total++;
+            if (out.size() < LIMIT) out.add(e);
+        }
+        return new EventSearch.Result(out, total);
+    }
+}
@@ -0,0 +1,80 @@
+package bench;
+
+import engine.SeatHolds;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flash-sale contention on the seat-hold counters: every thread places and
+ * releases holds, by default all on the same event.
+ * <p>
+ * {@code lockedHoldRelease} is the same work behind one global lock (what a
+ * synchronized cart check would cost), for comparison. Run with
+ * {@code -t 1,4,8} to see how each scales with cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeatHoldBenchmark {
+    private static final int EVENTS = 1000;
+
+    @Param({"true", "false"})
+    public boolean hotEvent;
+
+    private SeatHolds holds;
+    private final Object lock = new Object();
+    private final int[] lockedSeats = new int[EVENTS + 1];
+
+    @Setup(Level.Trial)
+    public void open() {
+        holds = new SeatHolds(Duration.ofMinutes(10), Duration.ofSeconds(1), id -> 1_000_000_000);
+        Arrays.fill(lockedSeats, 1_000_000_000);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        holds.close();
+    }
+
+    private int pick() {
+        return hotEvent ? 1 : 1 + ThreadLocalRandom.current().nextInt(EVENTS);
+    }
+
+    @Benchmark
+    public boolean holdRelease() {
+        SeatHolds.Hold h = holds.hold(pick(), 2);
+        if (h == null) return false;
+        holds.release(h);
+        return true;
+    }
+
+    @Benchmark
+    public boolean holdClaim() {
+        int id = pick();
+        SeatHolds.Hold h = holds.hold(id, 2);
+        if (h == null || !holds.claim(h)) return false;
+        // put the seats back so the counter never runs dry
+        holds.giveBack(id, 2);
+        return true;
+    }
+
+    @Benchmark
+    public boolean lockedHoldRelease() {
+        int id = pick();
+        synchronized (lock) {
+            if (lockedSeats[id] < 2) return false;
+            lockedSeats[id] -= 2;
+        }
+        synchronized (lock) {
+            lockedSeats[id] += 2;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package bench;
+
+import engine.BookingEngine;
+import engine.CatalogCache;
+import engine.CatalogSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold engine startup, with the catalog loaded from its snapshot against
+ * read from the events table, as the catalog grows. {@code setup} is the
+ * engine alone; {@code setupAndList} also materializes the enabled events,
+ * as the first screen after login does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 15)
+@Fork(1)
+public class StartupBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int events;
+
+    @Param({"true", "false"})
+    public boolean snapshot;
+
+    private SyntheticDatabase db;
+    private BookingEngine engine;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        // no background refresh racing the measured startups
+        System.setProperty(CatalogCache.REFRESH_PROPERTY, "0");
+        if (snapshot) System.clearProperty(CatalogSnapshot.FILE_PROPERTY);
+        else System.setProperty(CatalogSnapshot.FILE_PROPERTY, "off");
+        db = SyntheticDatabase.create(events, 10, 0, 0);
+
+        // the first start reads the table and leaves the snapshot behind
+        BookingEngine first = new BookingEngine();
+        first.setup();
+        first.close();
+        if (snapshot && !Files.exists(db.getSnapshotFile())) {
+            throw new IllegalStateException("No snapshot written to " + db.getSnapshotFile());
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() {
+        if (engine != null) engine.close();
+        engine = null;
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws Exception {
+        db.close();
+        System.clearProperty(CatalogSnapshot.FILE_PROPERTY);
+    }
+
+    @Benchmark
+    public BookingEngine setup() throws Exception {
+        engine = new BookingEngine();
+        engine.setup();
+        return engine;
+    }
+
+    @Benchmark
+    public int setupAndList() throws Exception {
+        engine = new BookingEngine();
+        engine.setup();
+        return engine.getEvents().size();
+    }
+}
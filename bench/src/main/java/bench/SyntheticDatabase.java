@@ -0,0 +1,171 @@
+package bench;
+
+import dao.Database;
+import dao.SalesDaoImpl;
+import engine.CatalogSnapshot;
+import model.Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A throwaway SQLite file filled with generated users, events and orders.
+ * <p>
+ * Creating one points {@link Database} at the new file; {@link #close()}
+ * shuts the pool down and deletes the file (and its WAL side files).
+ */
+public final class SyntheticDatabase implements AutoCloseable {
+    public static final String[] DAYS = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+
+    /** Seats given to every generated event, so checkout loops don't run dry. */
+    public static final int SEATS_PER_EVENT = 100_000_000;
+
+    private final Path file;
+
+    private SyntheticDatabase(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @param events        rows in the events table (ids 1..events)
+     * @param users         users named user1..userN with password pwN
+     * @param orders        historical orders, dealt round-robin to the users
+     * @param itemsPerOrder order_items rows per order (distinct events)
+     */
+    public static SyntheticDatabase create(int events, int users, int orders, int itemsPerOrder)
+            throws SQLException, IOException {
+        Path file = Files.createTempFile("booking-bench-", ".db");
+        Database.setUrl("jdbc:sqlite:" + file.toAbsolutePath());
+
+        // let the application build its own schema, then replace the seeded catalog
+        Model model = new Model();
+        model.setup();
+        model.getEngine().close();   // its background threads would skew the measurements
+
+        try (Connection conn = Database.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM order_items");
+                stmt.executeUpdate("DELETE FROM orders");
+                stmt.executeUpdate("DELETE FROM user_order_summary");
+                stmt.executeUpdate("DELETE FROM sales_summary");
+                stmt.executeUpdate("DELETE FROM events");
+                stmt.executeUpdate("DELETE FROM users");
+            }
+            insertEvents(conn, events);
+            insertUsers(conn, users);
+            insertOrders(conn, orders, Math.min(itemsPerOrder, events), events, users);
+            try (Statement stmt = conn.createStatement()) {
+                // what checkout would have accumulated, order by order
+                stmt.executeUpdate("""
+                    INSERT INTO user_order_summary(user_id, order_count, total_spent, seats_booked)
+                    SELECT o.user_id, COUNT(*), SUM(o.total),
+                           COALESCE(SUM((SELECT SUM(oi.quantity) FROM order_items oi
+                                          WHERE oi.order_id = o.id)), 0)
+                      FROM orders o
+                     WHERE o.user_id IS NOT NULL
+                     GROUP BY o.user_id
+                    """);
+                stmt.executeUpdate("UPDATE sequences SET next_value = " + (orders + 1)
+                        + " WHERE name = 'order_number'");
+            }
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+        // and the sales totals
+        new SalesDaoImpl().rebuild();
+        // the setup engine's snapshot has the seeded catalog; the first engine writes a new one
+        Files.deleteIfExists(snapshotFile(file));
+        return new SyntheticDatabase(file);
+    }
+
+    public Path getFile() { return file; }
+
+    /** Where engines on this database keep their catalog snapshot. */
+    public Path getSnapshotFile() { return snapshotFile(file); }
+
+    private static Path snapshotFile(Path db) {
+        return CatalogSnapshot.fileFor("jdbc:sqlite:" + db.toAbsolutePath());
+    }
+
+    @Override
+    public void close() throws IOException {
+        Database.shutdown();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(Path.of(file + "-wal"));
+        Files.deleteIfExists(Path.of(file + "-shm"));
+        Files.deleteIfExists(getSnapshotFile());
+    }
+
+    private static void insertEvents(Connection conn, int n) throws SQLException {
+        try (PreparedStatement pst = conn.prepareStatement(
+                "INSERT INTO events(id,name,date,venue,price,remainingSeats,disabled)"
+                        + " VALUES (?,?,?,?,?,?,?)")) {
+            for (int i = 1; i <= n; i++) {
+                pst.setInt(1, i);
+                pst.setString(2, "Show " + (i % 997));
+                pst.setString(3, DAYS[i % DAYS.length]);
+                pst.setString(4, "Venue " + (i / 997) % 101);
+                pst.setDouble(5, 20 + i % 100);
+                pst.setInt(6, SEATS_PER_EVENT);
+                pst.setInt(7, i % 20 == 0 ? 1 : 0);
+                pst.addBatch();
+                if (i % 10_000 == 0) pst.executeBatch();
+            }
+            pst.executeBatch();
+        }
+    }
+
+    private static void insertUsers(Connection conn, int n) throws SQLException {
+        try (PreparedStatement pst = conn.prepareStatement(
+                "INSERT INTO users(username,password,preferred_name) VALUES (?,?,?)")) {
+            for (int i = 1; i <= n; i++) {
+                pst.setString(1, "user" + i);
+                pst.setString(2, "pw" + i);
+                pst.setString(3, "User " + i);
+                pst.addBatch();
+                if (i % 10_000 == 0) pst.executeBatch();
+            }
+            pst.executeBatch();
+        }
+    }
+
+    private static void insertOrders(Connection conn, int n, int itemsPerOrder, int events,
+                                     int users) throws SQLException {
+        if (events == 0) return;
+        DateTimeFormatter fmt = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        try (PreparedStatement ord = conn.prepareStatement(
+                     "INSERT INTO orders(id,order_number,timestamp,total,user_id) VALUES (?,?,?,?,?)");
+             PreparedStatement item = conn.prepareStatement(
+                     "INSERT INTO order_items(order_id,event_id,quantity) VALUES (?,?,?)")) {
+            for (int i = 1; i <= n; i++) {
+                ord.setInt(1, i);
+                ord.setString(2, String.format("%04d", i));
+                ord.setString(3, start.plusMinutes(i).format(fmt));
+                ord.setDouble(4, 50.0 * itemsPerOrder);
+                ord.setString(5, users == 0 ? null : "user" + (i % users + 1));
+                ord.addBatch();
+                for (int k = 0; k < itemsPerOrder; k++) {
+                    item.setInt(1, i);
+                    item.setInt(2, (int) ((i * 31L + k) % events) + 1);
+                    item.setInt(3, 1 + k % 3);
+                    item.addBatch();
+                }
+                if (i % 5_000 == 0) {
+                    ord.executeBatch();
+                    item.executeBatch();
+                }
+            }
+            ord.executeBatch();
+            item.executeBatch();
+        }
+    }
+}
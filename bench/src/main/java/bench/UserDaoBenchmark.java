@@ -0,0 +1,45 @@
+package bench;
+
+import dao.UserDao;
+import dao.UserDaoImpl;
+import model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Login lookup by username; the password check is in {@link CredentialsBenchmark}. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDaoBenchmark {
+    @Param({"1000", "100000"})
+    public int users;
+
+    private SyntheticDatabase db;
+    private final UserDao dao = new UserDaoImpl();
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        db = SyntheticDatabase.create(10, users, 0, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws Exception {
+        db.close();
+    }
+
+    @Benchmark
+    public User findUser() throws Exception {
+        int i = ThreadLocalRandom.current().nextInt(users) + 1;
+        return dao.findUser("user" + i);
+    }
+
+    @Benchmark
+    public User findUnknownUser() throws Exception {
+        return dao.findUser("nobody");
+    }
+}
@@ -2,16 +2,17 @@
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.concurrent.Executor;
 
 import javafx.application.Application;
-import javafx.scene.Parent;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
-import javafx.fxml.FXMLLoader;
 
-import controller.LoginController;
+import controller.Navigator;
 import dao.Database;
+import model.Event;
 import model.Model;
 
 public class Main extends Application {
@@ -19,37 +20,26 @@ public class Main extends Application {
 
 	@Override
 	public void init() throws Exception {
-		Database.init();
+		// seat counts, disabled flags and the catalog change on worker threads;
+		// bound properties and the views' lists must only change on the FX thread
+		Executor fxThread = r -> {
+			if (Platform.isFxApplicationThread()) r.run();
+			else Platform.runLater(r);
+		};
+		Event.setPropertyUpdates(fxThread);
 
 		model = new Model();
+		model.setViewUpdates(fxThread);
 	}
 
 	@Override
 	public void start(Stage primaryStage) {
 		try {
 			model.setup();
-			FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/LoginView.fxml"));
-
-			// Customize controller instance
-			LoginController loginController = new LoginController(primaryStage, model);
-
-			loader.setControllerFactory(type -> {
-				if (type == LoginController.class) {
-					return new LoginController(primaryStage, model);
-				}
-				// default no-arg constructor for other controllers
-				try {
-					return type.getDeclaredConstructor().newInstance();
-				} catch (Exception ex) {
-					throw new RuntimeException(ex);
-				}
-			});
-			Parent root = loader.load();
-			Scene scene = new Scene(root, 700, 500);
-			primaryStage.setScene(scene);
-			primaryStage.setTitle("Login");
+			// every view is built once per window and reused; see Navigator
+			Navigator navigator = new Navigator(primaryStage, model);
 			primaryStage.setResizable(false);
-			primaryStage.show();
+			navigator.show(Navigator.View.LOGIN);
 		} catch (IOException | SQLException | RuntimeException e) {
 			Scene scene = new Scene(new Label(e.getMessage()), 200, 100);
 			primaryStage.setTitle("Error");
@@ -58,6 +48,12 @@ public class Main extends Application {
 		}
 	}
 
+	@Override
+	public void stop() {
+		model.getEngine().close();
+		Database.shutdown();
+	}
+
 	public static void main(String[] args) {
 		launch(args);
 	}
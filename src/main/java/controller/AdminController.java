@@ -1,28 +1,31 @@
 package controller;
 
+import javafx.beans.binding.Bindings;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.control.cell.TreeItemPropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
-import javafx.stage.Stage;
 import javafx.util.Callback;
 import model.Event;
 import model.Model;
+import model.SalesTotal;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
-public class AdminController {
+public class AdminController implements ViewController {
     @FXML private TreeTableView<Event> showsTree;
     @FXML private TreeTableColumn<Event, String> titleCol;
     @FXML private TreeTableColumn<Event, String> dateCol;
@@ -30,11 +33,34 @@ public class AdminController {
     @FXML private Button logoutBtn;
     @FXML private Button btnAdd, btnEdit, btnDelete;
 
-    private final Stage stage;
+    @FXML private ComboBox<SalesTotal.Dimension> salesByBox;
+    @FXML private DatePicker salesFromPicker, salesToPicker;
+    @FXML private Button salesRefreshBtn, salesRebuildBtn;
+    @FXML private Label salesTotalLabel;
+    @FXML private TableView<SalesTotal> salesTable;
+    @FXML private TableColumn<SalesTotal, String> salesKeyCol;
+    @FXML private TableColumn<SalesTotal, Double> salesRevenueCol;
+    @FXML private TableColumn<SalesTotal, Integer> salesSeatsCol, salesOrdersCol;
+
+    // rows in the sales table
+    private static final int SALES_ROWS = 50;
+
+    private final Navigator navigator;
     private final Model model;
 
-    public AdminController(Stage stage, Model model) {
-        this.stage = stage;
+    // the sales load in flight; a newer one replaces it
+    private CompletableFuture<?> salesLoad = CompletableFuture.completedFuture(null);
+
+    // event rows by id, and the title rows they hang under
+    private TreeItem<Event> root;
+    private final Map<Integer, TreeItem<Event>> rows = new HashMap<>();
+    private final Map<String, TreeItem<Event>> titles = new HashMap<>();
+
+    // the model's event list changes one event at a time; so does the tree
+    private final ListChangeListener<Event> catalogListener = this::patchTree;
+
+    public AdminController(Navigator navigator, Model model) {
+        this.navigator = navigator;
         this.model = model;
     }
 
@@ -65,8 +91,7 @@ public class AdminController {
                 btn.setOnAction(evt -> {
                     Event ev = getTreeTableRow().getItem();
                     boolean now = !ev.isDisabled();
-                    model.setEventDisabled(ev, now);
-                    updateItem(null, false);
+                    run(model.setEventDisabledAsync(ev, now));
                 });
             }
             @Override
@@ -77,20 +102,19 @@ public class AdminController {
                     return;
                 }
                 TreeItem<Event> ti = getTreeTableRow().getTreeItem();
+                btn.textProperty().unbind();
                 if (ti == null || ti.getValue().getId() == 0) {
                     setGraphic(null);
                 } else {
-                    Event ev = ti.getValue();
-                    btn.setText(ev.isDisabled() ? "Enable" : "Disable");
+                    // follows the flag, whoever changes it
+                    btn.textProperty().bind(Bindings.when(ti.getValue().disabledProperty())
+                            .then("Enable").otherwise("Disable"));
                     setGraphic(btn);
                 }
             }
         });
 
-        // (4) Build the grouped tree
-        refreshTree();
-
-        // (5) Hide expand arrow on parent rows
+        // (4) Hide expand arrow on parent rows
         showsTree.setRowFactory(tv -> {
             TreeTableRow<Event> row = new TreeTableRow<>();
             row.treeItemProperty().addListener((obs, oldTI, newTI) -> {
@@ -101,7 +125,7 @@ public class AdminController {
             return row;
         });
 
-        // (6) Add / Edit / Delete handlers
+        // (5) Add / Edit / Delete handlers
         btnAdd.setOnAction(e -> showEventDialog(null));
         btnEdit.setOnAction(e -> {
             var sel = showsTree.getSelectionModel().getSelectedItem();
@@ -112,22 +136,48 @@ public class AdminController {
             var sel = showsTree.getSelectionModel().getSelectedItem();
             if (sel == null || sel.getValue().getId() == 0) return;
             if (confirm("Delete “" + sel.getValue().getName() + "”?")) {
-                model.deleteEvent(sel.getValue());
-                refreshTree();
+                run(model.deleteEventAsync(sel.getValue()));
+            }
+        });
+
+        // (6) Sales totals: the breakdown picker, refresh and rebuild
+        salesKeyCol    .setCellValueFactory(new PropertyValueFactory<>("label"));
+        salesRevenueCol.setCellValueFactory(new PropertyValueFactory<>("revenue"));
+        salesSeatsCol  .setCellValueFactory(new PropertyValueFactory<>("seatsSold"));
+        salesOrdersCol .setCellValueFactory(new PropertyValueFactory<>("orderCount"));
+        salesRevenueCol.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(Double v, boolean empty) {
+                super.updateItem(v, empty);
+                setText(empty || v == null ? null : String.format("$%,.2f", v));
             }
         });
+        salesByBox.getItems().setAll(SalesTotal.Dimension.EVENT, SalesTotal.Dimension.SHOW,
+                SalesTotal.Dimension.VENUE, SalesTotal.Dimension.DAY);
+        salesByBox.setValue(SalesTotal.Dimension.SHOW);
+        salesByBox     .valueProperty().addListener(o -> loadSales());
+        salesFromPicker.valueProperty().addListener(o -> loadSales());
+        salesToPicker  .valueProperty().addListener(o -> loadSales());
+        salesRefreshBtn.setOnAction(e -> loadSales());
+        salesRebuildBtn.setOnAction(e -> {
+            if (!confirm("Recompute all sales totals from the order history?"
+                    + " Checkouts wait until it is done.")) return;
+            salesRebuildBtn.setDisable(true);
+            FxAsync.onFx(model.rebuildSalesAsync(),
+                    v -> {
+                        salesRebuildBtn.setDisable(false);
+                        loadSales();
+                    },
+                    ex -> {
+                        salesRebuildBtn.setDisable(false);
+                        showAlert("Rebuild failed: " + ex.getMessage());
+                    });
+        });
 
         // (7) Logout
         logoutBtn.setOnAction(e -> {
             try {
-                FXMLLoader loader = new FXMLLoader(
-                        getClass().getResource("/view/LoginView.fxml")
-                );
-                loader.setControllerFactory(type -> new LoginController(stage, model));
-                Parent login = loader.load();
-                stage.setScene(new Scene(login, 500, 300));
-                stage.setTitle("Login");
-                stage.show();
+                navigator.show(Navigator.View.LOGIN);
             } catch (IOException ex) {
                 new Alert(Alert.AlertType.ERROR,
                         "Failed to load login:\n" + ex.getMessage(),
@@ -136,6 +186,58 @@ public class AdminController {
         });
     }
 
+    @Override
+    public void onShow() {
+        // Build the grouped tree, then follow changes row by row while shown
+        refreshTree();
+        model.getAllEventList().addListener(catalogListener);
+        loadSales();
+    }
+
+    @Override
+    public void onHide() {
+        salesLoad.cancel(true);
+        model.getAllEventList().removeListener(catalogListener);
+    }
+
+    /**
+     * Show the picked breakdown. Without dates these are the totals checkout
+     * keeps: a few rows read by index, however long the history is. With
+     * dates they are computed from the orders in that range.
+     */
+    private void loadSales() {
+        salesLoad.cancel(true);
+        SalesTotal.Dimension by = salesByBox.getValue();
+        String name = by.name();
+        salesKeyCol.setText(name.charAt(0) + name.substring(1).toLowerCase());
+
+        LocalDate fromDay = salesFromPicker.getValue();
+        LocalDate toDay = salesToPicker.getValue();
+        CompletableFuture<List<SalesTotal>> rows;
+        CompletableFuture<SalesTotal> total;
+        if (fromDay == null && toDay == null) {
+            rows = model.getSalesTotalsAsync(by, SALES_ROWS);
+            total = model.getSalesGrandTotalAsync();
+        } else {
+            LocalDateTime from = fromDay == null ? null : fromDay.atStartOfDay();
+            // the picker's end day is inclusive
+            LocalDateTime to = toDay == null ? null : toDay.plusDays(1).atStartOfDay();
+            rows = model.computeSalesTotalsAsync(by, from, to, SALES_ROWS);
+            total = model.computeSalesTotalsAsync(SalesTotal.Dimension.ALL, from, to, 1)
+                    .thenApply(all -> all.isEmpty() ? SalesTotal.EMPTY : all.get(0));
+        }
+        salesLoad = FxAsync.onFx(rows.thenCombine(total, Sales::new),
+                got -> {
+                    salesTable.getItems().setAll(got.rows());
+                    salesTotalLabel.setText(String.format("Total: $%,.2f · %d seats · %d orders",
+                            got.total().getRevenue(), got.total().getSeatsSold(),
+                            got.total().getOrderCount()));
+                },
+                ex -> salesTotalLabel.setText("Failed to load sales: " + ex.getMessage()));
+    }
+
+    private record Sales(List<SalesTotal> rows, SalesTotal total) {}
+
     private void showEventDialog(Event toEdit) {
         Dialog<Event> dlg = new Dialog<>();
         dlg.setTitle(toEdit == null ? "Add Event" : "Edit Event");
@@ -147,13 +249,15 @@ public class AdminController {
                 tfDate = new TextField(),
                 tfPrice = new TextField(),
                 tfCap = new TextField();
+        // sales keep going while the dialog is open; only the admin's change applies
+        int shownSeats = toEdit == null ? 0 : toEdit.getRemainingSeats();
 
         if (toEdit != null) {
             tfName.setText(toEdit.getName());
             tfVenue.setText(toEdit.getVenue());
             tfDate.setText(toEdit.getDate());
             tfPrice.setText(Double.toString(toEdit.getPrice()));
-            tfCap.setText(Integer.toString(toEdit.getRemainingSeats()));
+            tfCap.setText(Integer.toString(shownSeats));
         }
 
         GridPane grid = new GridPane();
@@ -182,15 +286,34 @@ public class AdminController {
             return null;
         });
 
-        dlg.showAndWait().ifPresent(e -> {
-            try {
-                if (toEdit == null) model.addEvent(e);
-                else                model.editEvent(e);
-                refreshTree();
-            } catch (IllegalArgumentException ex) {
-                showAlert(ex.getMessage());
-            }
-        });
+        dlg.showAndWait().ifPresent(e ->
+                run(toEdit == null ? model.addEventAsync(e) : model.editEventAsync(e, shownSeats)));
+    }
+
+    /**
+     * Wait for a write off the FX thread. The tree and buttons are locked
+     * until it lands, so edits can't overlap; duplicates and other
+     * failures are shown as alerts. The tree itself follows the change
+     * through the catalog listener.
+     */
+    private void run(CompletableFuture<Void> write) {
+        setBusy(true);
+        FxAsync.onFx(write,
+                v -> setBusy(false),
+                ex -> {
+                    setBusy(false);
+                    showAlert(ex instanceof IllegalArgumentException
+                            ? ex.getMessage()
+                            : "Failed to save: " + ex.getMessage());
+                });
+    }
+
+    private void setBusy(boolean busy) {
+        showsTree.setDisable(busy);
+        btnAdd   .setDisable(busy);
+        btnEdit  .setDisable(busy);
+        btnDelete.setDisable(busy);
+        logoutBtn.setDisable(busy);
     }
 
     private boolean confirm(String msg) {
@@ -204,22 +327,68 @@ public class AdminController {
     }
 
     private void refreshTree() {
-        List<Event> all = model.getAllEventsIncludingDisabled();
-        Map<String,List<Event>> byTitle = all.stream()
-                .collect(Collectors.groupingBy(Event::getName));
-
-        TreeItem<Event> root = new TreeItem<>(new Event(0,"","", "",0,0,false));
+        List<Event> all = model.getAllEventList();
+        rows.clear();
+        titles.clear();
+        root = new TreeItem<>(new Event(0,"","", "",0,0,false));
         root.setExpanded(true);
-        byTitle.forEach((title, evs) -> {
-            TreeItem<Event> parent = new TreeItem<>(new Event(0,title,"","",0,0,false));
-            parent.setExpanded(true);
-            for (Event e : evs) {
-                parent.getChildren().add(new TreeItem<>(e));
-            }
-            root.getChildren().add(parent);
-        });
+        for (Event e : all) {
+            place(e);
+        }
 
         showsTree.setRoot(root);
         showsTree.setShowRoot(false);
     }
+
+    /**
+     * Apply list changes to the tree in place. Seats and the disabled flag
+     * never show up here: the cells are bound to the event's properties.
+     */
+    private void patchTree(ListChangeListener.Change<? extends Event> change) {
+        while (change.next()) {
+            // a replaced event is removed and added under the same id
+            Map<Integer, Event> added = new HashMap<>();
+            for (Event ev : change.getAddedSubList()) {
+                added.put(ev.getId(), ev);
+            }
+            for (Event ev : change.getRemoved()) {
+                if (!added.containsKey(ev.getId())) unplace(ev.getId());
+            }
+            for (Event ev : added.values()) {
+                TreeItem<Event> row = rows.get(ev.getId());
+                if (row != null && row.getParent().getValue().getName().equals(ev.getName())) {
+                    row.setValue(ev);
+                } else {
+                    // new, or renamed into another title
+                    unplace(ev.getId());
+                    place(ev);
+                }
+            }
+        }
+    }
+
+    // add an event row under its title, creating the title row if needed
+    private void place(Event e) {
+        TreeItem<Event> parent = titles.computeIfAbsent(e.getName(), title -> {
+            TreeItem<Event> p = new TreeItem<>(new Event(0,title,"","",0,0,false));
+            p.setExpanded(true);
+            root.getChildren().add(p);
+            return p;
+        });
+        TreeItem<Event> row = new TreeItem<>(e);
+        parent.getChildren().add(row);
+        rows.put(e.getId(), row);
+    }
+
+    // drop an event row, and its title row once that is empty
+    private void unplace(int eventId) {
+        TreeItem<Event> row = rows.remove(eventId);
+        if (row == null) return;
+        TreeItem<Event> parent = row.getParent();
+        parent.getChildren().remove(row);
+        if (parent.getChildren().isEmpty()) {
+            titles.remove(parent.getValue().getName());
+            root.getChildren().remove(parent);
+        }
+    }
 }
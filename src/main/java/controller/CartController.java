@@ -7,21 +7,17 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
-import javafx.beans.property.ReadOnlyDoubleWrapper;
-import javafx.collections.FXCollections;
+import javafx.beans.binding.Bindings;
+import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.TextFieldTableCell;
-import javafx.stage.Stage;
 import javafx.util.converter.IntegerStringConverter;
 import model.CartItem;
 import model.Model;
 
-public class CartController {
+public class CartController implements ViewController {
     @FXML private TableView<CartItem> cartTable;
     @FXML private TableColumn<CartItem,String>  evtNameCol;
     @FXML private TableColumn<CartItem,String>  evtDateCol;
@@ -36,8 +32,9 @@ public class CartController {
     @FXML private Button checkoutBtn;
     @FXML private Button backBtn;
 
-    private final Stage stage;
+    private final Navigator navigator;
     private final Model model;
+    private SortedList<CartItem> lines;
 
     // map "Mon"→MONDAY, etc.
     private static final Map<String,DayOfWeek> DAY_MAP = new HashMap<>();
@@ -51,8 +48,8 @@ public class CartController {
         DAY_MAP.put("Sun", DayOfWeek.SUNDAY);
     }
 
-    public CartController(Stage stage, Model model) {
-        this.stage = stage;
+    public CartController(Navigator navigator, Model model) {
+        this.navigator = navigator;
         this.model = model;
     }
 
@@ -75,41 +72,43 @@ public class CartController {
             if (newQty < 0) {
                 new Alert(Alert.AlertType.ERROR,
                         "Quantity must be ≥ 0", ButtonType.OK).showAndWait();
-            } else if (newQty > ci.getEvent().getRemainingSeats()) {
-                new Alert(Alert.AlertType.ERROR,
-                        "Only " + ci.getEvent().getRemainingSeats() + " seats available.",
-                        ButtonType.OK).showAndWait();
+                cartTable.refresh();   // put the old quantity back in the cell
             } else {
-                model.updateCart(ci.getEvent(), newQty);
+                updateQuantity(ci, newQty);
             }
-            refreshTable();
         });
 
-        // 3) subtotal = price * qty
+        // 3) subtotal = price * qty, following both
         subtotalCol.setCellValueFactory(c ->
-                new ReadOnlyDoubleWrapper(
-                        c.getValue().getEvent().getPrice() * c.getValue().getQuantity()
-                )
+                Bindings.multiply(c.getValue().getEvent().priceProperty(),
+                        c.getValue().quantityProperty())
         );
 
         // 4) wire up buttons
-        refreshTable();
         removeBtn .setOnAction(this::onRemove);
         updateBtn .setOnAction(this::onUpdate);
         checkoutBtn.setOnAction(this::onCheckout);
         backBtn   .setOnAction(this::onBack);
     }
 
-    private void refreshTable() {
-        cartTable.setItems(FXCollections.observableArrayList(model.getCart()));
+    @Override
+    public void onShow() {
+        // the model's live cart list: lines are added, removed and updated
+        // in place, never rebuilt; column sorting goes through a SortedList
+        if (lines == null) {
+            lines = new SortedList<>(model.getCartItems());
+            lines.comparatorProperty().bind(cartTable.comparatorProperty());
+            cartTable.setItems(lines);
+        }
+        cartTable.getSelectionModel().clearSelection();
         msgLabel.setText("");
+        msgLabel.setStyle("");
     }
 
     private void onRemove(ActionEvent e) {
         CartItem sel = cartTable.getSelectionModel().getSelectedItem();
         if (sel != null) {
             model.removeFromCart(sel.getEvent());
-            refreshTable();
         }
     }
 
@@ -141,15 +140,19 @@ public class CartController {
             return;
         }
 
-        if (newQty > sel.getEvent().getRemainingSeats()) {
+        updateQuantity(sel, newQty);
+    }
+
+    // the cart holds its seats, so growing a line can fail if others took them
+    private void updateQuantity(CartItem ci, int newQty) {
+        try {
+            model.updateCart(ci.getEvent(), newQty);
+        } catch (IllegalStateException ex) {
             new Alert(Alert.AlertType.ERROR,
-                    "Only " + sel.getEvent().getRemainingSeats() + " seats available.",
+                    ex.getMessage(),
                     ButtonType.OK).showAndWait();
-            return;
+            cartTable.refresh();   // the line kept its quantity; undo the cell's edit
         }
-
-        model.updateCart(sel.getEvent(), newQty);
-        refreshTable();
     }
 
     private void onCheckout(ActionEvent e) {
@@ -198,38 +201,40 @@ public class CartController {
             }
         }
 
-        // 4) All good → finalize
-        try {
-            model.checkout();
-            new Alert(Alert.AlertType.INFORMATION,
-                    "Payment successful! You paid $" + total,
-                    ButtonType.OK).showAndWait();
-            refreshTable();
-        } catch (IllegalStateException ex) {
-            new Alert(Alert.AlertType.ERROR,
-                    "Not enough seats for one or more items.",
-                    ButtonType.OK).showAndWait();
-        }
+        // 4) All good → finalize off the FX thread; the cart stays locked meanwhile
+        setBusy(true);
+        msgLabel.setText("Processing payment…");
+        FxAsync.onFx(model.checkoutAsync(),
+                order -> {
+                    setBusy(false);
+                    msgLabel.setText("");
+                    new Alert(Alert.AlertType.INFORMATION,
+                            "Payment successful! You paid $" + total,
+                            ButtonType.OK).showAndWait();
+                },
+                ex -> {
+                    setBusy(false);
+                    msgLabel.setText("");
+                    new Alert(Alert.AlertType.ERROR,
+                            ex instanceof IllegalStateException
+                                    ? ex.getMessage()
+                                    : "Checkout failed: " + ex.getMessage(),
+                            ButtonType.OK).showAndWait();
+                });
+    }
+
+    // a sale can't be called back once sent, so while it runs nothing else can be pressed
+    private void setBusy(boolean busy) {
+        cartTable  .setDisable(busy);
+        removeBtn  .setDisable(busy);
+        updateBtn  .setDisable(busy);
+        checkoutBtn.setDisable(busy);
+        backBtn    .setDisable(busy);
     }
 
     private void onBack(ActionEvent e) {
         try {
-            FXMLLoader loader = new FXMLLoader(
-                    getClass().getResource("/view/HomeView.fxml")
-            );
-            loader.setControllerFactory(type -> {
-                if (type == controller.HomeController.class) {
-                    return new controller.HomeController(stage, model);
-                }
-                try {
-                    return type.getDeclaredConstructor().newInstance();
-                } catch (Exception ex) {
-                    throw new RuntimeException(ex);
-                }
-            });
-            Parent home = loader.load();
-            stage.setScene(new Scene(home, 700, 500));
-            stage.setTitle("Dashboard");
+            navigator.show(Navigator.View.HOME);
         } catch (IOException ex) {
             msgLabel.setText("Error loading Dashboard");
             msgLabel.setStyle("-fx-text-fill: red;");
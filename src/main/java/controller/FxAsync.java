@@ -0,0 +1,36 @@
+package controller;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Hands the result of a background call back to the JavaFX thread.
+ * <p>
+ * Exactly one of the callbacks runs, on the FX thread, unless the future
+ * was cancelled: a cancelled call has been abandoned by whoever started it,
+ * so neither callback runs. Exceptions arrive unwrapped from
+ * {@link CompletionException}.
+ */
+final class FxAsync {
+    private FxAsync() {}
+
+    /** @return {@code future}, so the caller can keep it for cancellation */
+    static <T> CompletableFuture<T> onFx(CompletableFuture<T> future,
+                                         Consumer<? super T> done,
+                                         Consumer<Throwable> failed) {
+        future.whenComplete((value, err) -> Platform.runLater(() -> {
+            if (future.isCancelled() || err instanceof CancellationException) return;
+            if (err == null) {
+                done.accept(value);
+            } else {
+                failed.accept(err instanceof CompletionException && err.getCause() != null
+                        ? err.getCause() : err);
+            }
+        }));
+        return future;
+    }
+}
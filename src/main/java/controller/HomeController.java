@@ -1,28 +1,41 @@
 package controller;
 
 import java.io.IOException;
-import java.util.List;
+import java.time.DayOfWeek;
+import java.time.format.TextStyle;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+import engine.EventSearch;
+import javafx.beans.InvalidationListener;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.TextInputDialog;
-import javafx.stage.Stage;
+import model.CartItem;
 import model.Event;
 import model.Model;
 import model.User;
+import model.UserOrderSummary;
+
+public class HomeController implements ViewController {
+	// rows shown for a search; the label gives the full count
+	private static final int SEARCH_LIMIT = 500;
+	private static final String ANY_DAY = "Any day";
 
-public class HomeController {
 	@FXML private Label welcomeLabel;
+	@FXML private Label summaryLabel;
 	@FXML private TableView<Event> eventsTable;
 	@FXML private TableColumn<Event, Integer> idCol;
 	@FXML private TableColumn<Event, String>  nameCol;
@@ -31,26 +44,39 @@ public class HomeController {
 	@FXML private TableColumn<Event, Double>  priceCol;
 	@FXML private TableColumn<Event, Integer> seatsCol;
 
+	@FXML private TextField searchField;
+	@FXML private ComboBox<String> dayBox;
+	@FXML private TextField minPriceField;
+	@FXML private TextField maxPriceField;
+	@FXML private Label resultLabel;
+
 	@FXML private Button viewCartBtn;
 	@FXML private Button viewOrdersBtn;// ← new
 	@FXML private Button bookSeatsBtn;
 	@FXML private Button logoutBtn;
 
+	private final Navigator navigator;
 	private final Model model;
-	private final Stage stage;
+	private CompletableFuture<UserOrderSummary> summaryLoad;
+	// a search typed before the index was built, waiting for it
+	private CompletableFuture<Void> indexWait;
 
-	public HomeController(Stage stage, Model model) {
-		this.stage = stage;
+	// the whole list, or the current search's results, each sorted by the table
+	private SortedList<Event> allEvents;
+	private SortedList<Event> searchResults;
+	private final ObservableList<Event> results = FXCollections.observableArrayList();
+	// while searching, catalog changes re-run the search
+	private final InvalidationListener researchOnChange = o -> search();
+
+	public HomeController(Navigator navigator, Model model) {
+		this.navigator = navigator;
 		this.model = model;
 	}
 
+	// builds the screen only; the user's data comes in onShow()
 	@FXML
 	public void initialize() {
-		// 1) Personalized greeting
-		User me = model.getCurrentUser();
-		welcomeLabel.setText("Welcome, " + me.getPreferredName() + "!");
-
-		// 2) Table columns
+		// 1) Table columns
 		idCol   .setCellValueFactory(c -> c.getValue().idProperty().asObject());
 		nameCol .setCellValueFactory(c -> c.getValue().nameProperty());
 		dateCol .setCellValueFactory(c -> c.getValue().dateProperty());
@@ -58,30 +84,27 @@ public class HomeController {
 		priceCol.setCellValueFactory(c -> c.getValue().priceProperty().asObject());
 		seatsCol.setCellValueFactory(c -> c.getValue().remainingSeatsProperty().asObject());
 
-		// 3) Load events into table
-		List<Event> events = model.getEvents();
-		eventsTable.setItems(FXCollections.observableArrayList(events));
+		// 2) Column sorting goes through SortedLists, leaving the model's order alone
+		searchResults = new SortedList<>(results);
+		searchResults.comparatorProperty().bind(eventsTable.comparatorProperty());
+
+		// 3) Search as you type: the engine's index answers well under a
+		// millisecond, so once it is built every keystroke runs a query on
+		// the FX thread
+		dayBox.getItems().add(ANY_DAY);
+		for (DayOfWeek d : DayOfWeek.values()) {
+			dayBox.getItems().add(d.getDisplayName(TextStyle.SHORT, Locale.ENGLISH));
+		}
+		dayBox.getSelectionModel().selectFirst();
+		searchField  .textProperty().addListener(o -> search());
+		minPriceField.textProperty().addListener(o -> search());
+		maxPriceField.textProperty().addListener(o -> search());
+		dayBox.valueProperty().addListener(o -> search());
 
 		// 4) View Cart button
 		viewCartBtn.setOnAction(e -> {
 			try {
-				FXMLLoader loader = new FXMLLoader(
-						getClass().getResource("/view/CartView.fxml")
-				);
-				loader.setControllerFactory(type -> {
-					if (type == controller.CartController.class) {
-						return new controller.CartController(stage, model);
-					}
-					try {
-						return type.getDeclaredConstructor().newInstance();
-					} catch (Exception ex) {
-						throw new RuntimeException(ex);
-					}
-				});
-				Parent cartRoot = loader.load();
-				stage.setScene(new Scene(cartRoot, 600, 400));
-				stage.setTitle("Your Cart");
-				stage.show();
+				navigator.show(Navigator.View.CART);
 			} catch (IOException ex) {
 				new Alert(Alert.AlertType.ERROR,
 						"Failed to open cart: " + ex.getMessage(),
@@ -92,24 +115,7 @@ public class HomeController {
 
 		viewOrdersBtn.setOnAction(e -> {
 			try {
-				FXMLLoader loader = new FXMLLoader(
-						getClass().getResource("/view/OrdersView.fxml")
-				);
-				loader.setControllerFactory(type -> {
-					if (type == OrdersController.class) {
-						return new OrdersController(stage, model);
-					}
-					// fall-back for other controllers:
-					try {
-						return type.getDeclaredConstructor().newInstance();
-					} catch (Exception ex) {
-						throw new RuntimeException(ex);
-					}
-				});
-				Parent ordersRoot = loader.load();
-				stage.setScene(new Scene(ordersRoot, 700, 500));
-				stage.setTitle("Order History");
-				stage.show();
+				navigator.show(Navigator.View.ORDERS);
 			} catch (IOException ex) {
 				new Alert(Alert.AlertType.ERROR,
 						"Failed to load order history:\n" + ex.getMessage(),
@@ -147,22 +153,30 @@ public class HomeController {
 				return;
 			}
 
-			// check what's already in the cart too
-			int already = model.getCart().stream()
-					.filter(ci -> ci.getEvent().equals(selected))
-					.mapToInt(ci -> ci.getQuantity())
-					.sum();
-			if (qty + already > selected.getRemainingSeats()) {
+			// seats in carts (ours included) are held, so they don't count as free
+			CartItem line = model.getCartLine(selected.getId());
+			int already = line == null ? 0 : line.getQuantity();
+			int free = model.getAvailableSeats(selected);
+			if (qty > free) {
 				new Alert(Alert.AlertType.ERROR,
-						"Only " + selected.getRemainingSeats()
-								+ " seats available (you already have "
+						"Only " + Math.max(0, free)
+								+ " more seats available (you already have "
 								+ already + " in your cart).",
 						ButtonType.OK)
 						.showAndWait();
 				return;
 			}
 
-			model.addToCart(selected, qty);
+			try {
+				model.addToCart(selected, qty);
+			} catch (IllegalStateException exHold) {
+				// someone else took them since we looked
+				new Alert(Alert.AlertType.ERROR,
+						exHold.getMessage(),
+						ButtonType.OK)
+						.showAndWait();
+				return;
+			}
 
 			// then immediately show the cart
 			viewCartBtn.fire();
@@ -170,24 +184,10 @@ public class HomeController {
 
 		// 6) Log Out button handler
 		logoutBtn.setOnAction(e -> {
+			// releases the seats held in this user's cart
+			model.setCurrentUser(null);
 			try {
-				FXMLLoader loader = new FXMLLoader(
-						getClass().getResource("/view/LoginView.fxml")
-				);
-				loader.setControllerFactory(type -> {
-					if (type == controller.LoginController.class) {
-						return new controller.LoginController(stage, model);
-					}
-					try {
-						return type.getDeclaredConstructor().newInstance();
-					} catch (Exception ex) {
-						throw new RuntimeException(ex);
-					}
-				});
-				Parent loginRoot = loader.load();
-				stage.setScene(new Scene(loginRoot, 500, 300));
-				stage.setTitle("Login");
-				stage.show();
+				navigator.show(Navigator.View.LOGIN);
 			} catch (IOException ex) {
 				new Alert(Alert.AlertType.ERROR,
 						"Failed to load login: " + ex.getMessage(),
@@ -196,4 +196,106 @@ public class HomeController {
 			}
 		});
 	}
+
+	/** Greet whoever is logged in now, and start from the full list again. */
+	@Override
+	public void onShow() {
+		User me = model.getCurrentUser();
+		welcomeLabel.setText("Welcome, " + me.getPreferredName() + "!");
+
+		// totals are kept per user at checkout, so this is one row, not a scan;
+		// still, it's read off the FX thread, and dropped if we navigate away first
+		summaryLabel.setText("…");
+		summaryLoad = FxAsync.onFx(model.getOrderSummaryAsync(),
+				sum -> summaryLabel.setText(String.format("%d orders · %d seats · $%.2f spent",
+						sum.getOrderCount(), sum.getSeatsBooked(), sum.getTotalSpent())),
+				ex -> summaryLabel.setText(""));
+
+		// The model's live event list; catalog changes patch single rows, also
+		// while this view is hidden, so it is bound once, on the first visit
+		if (allEvents == null) {
+			allEvents = new SortedList<>(model.getEventList());
+			allEvents.comparatorProperty().bind(eventsTable.comparatorProperty());
+		}
+
+		// no search or selection left from the last visit
+		searchField.clear();
+		minPriceField.clear();
+		maxPriceField.clear();
+		dayBox.getSelectionModel().selectFirst();
+		eventsTable.getSelectionModel().clearSelection();
+		search();
+	}
+
+	@Override
+	public void onHide() {
+		leave();
+	}
+
+	// Run the query in the search controls; with nothing entered, show the live list
+	private void search() {
+		String text = searchField.getText().trim();
+		String day = dayBox.getValue();
+		double min = price(minPriceField, 0);
+		double max = price(maxPriceField, Double.POSITIVE_INFINITY);
+		Set<DayOfWeek> days = day == null || ANY_DAY.equals(day) ? Set.of()
+				: Set.of(DayOfWeek.values()[dayBox.getItems().indexOf(day) - 1]);
+
+		model.getEventList().removeListener(researchOnChange);
+		if (text.isEmpty() && days.isEmpty() && min <= 0 && max == Double.POSITIVE_INFINITY) {
+			results.clear();
+			eventsTable.setItems(allEvents);
+			resultLabel.setText("");
+			return;
+		}
+
+		// the index is built in the background after startup; until then,
+		// wait for it off the FX thread and search again once it is ready
+		if (!model.isSearchReady()) {
+			results.clear();
+			eventsTable.setItems(searchResults);
+			resultLabel.setText("Indexing events…");
+			if (indexWait == null) {
+				indexWait = FxAsync.onFx(model.whenSearchReady(),
+						v -> {
+							indexWait = null;
+							search();
+						},
+						ex -> {
+							indexWait = null;
+							resultLabel.setText("Search unavailable");
+						});
+			}
+			return;
+		}
+
+		EventSearch.Result r = model.searchEvents(new EventSearch.Query(text, days, min, max), SEARCH_LIMIT);
+		results.setAll(r.events());
+		eventsTable.setItems(searchResults);
+		resultLabel.setText(r.total() > r.events().size()
+				? "Showing " + r.events().size() + " of " + r.total()
+				: r.total() + (r.total() == 1 ? " match" : " matches"));
+		model.getEventList().addListener(researchOnChange);
+	}
+
+	// a price box's value; blank, unreadable, negative or NaN leaves that end of the range open
+	private static double price(TextField field, double open) {
+		try {
+			String s = field.getText().trim();
+			double p = s.isEmpty() ? open : Double.parseDouble(s);
+			return p >= 0 ? p : open;
+		} catch (NumberFormatException ex) {
+			return open;
+		}
+	}
+
+	// stop background work meant for this screen
+	private void leave() {
+		summaryLoad.cancel(true);
+		if (indexWait != null) {
+			indexWait.cancel(true);
+			indexWait = null;
+		}
+		model.getEventList().removeListener(researchOnChange);
+	}
 }
@@ -1,32 +1,33 @@
 package controller;
 
 import java.io.IOException;
-import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
+import engine.Session;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import model.Model;
-import model.User;
 
-public class LoginController {
+public class LoginController implements ViewController {
 	@FXML private TextField      name;
 	@FXML private PasswordField  password;
 	@FXML private Label          message;
 	@FXML private Button         login;
 	@FXML private Button         signup;
 
+	private final Navigator navigator;
 	private final Model model;
 	private final Stage stage;
 
-	public LoginController(Stage stage, Model model) {
-		this.stage = stage;
+	public LoginController(Navigator navigator, Model model) {
+		this.navigator = navigator;
 		this.model = model;
+		this.stage = navigator.getStage();
 	}
 
 	@FXML
@@ -39,22 +40,7 @@ public class LoginController {
 			// 1) Admin login
 			if ("admin".equals(u) && "Admin321".equals(p)) {
 				try {
-					FXMLLoader loader = new FXMLLoader(
-							getClass().getResource("/view/AdminView.fxml")
-					);
-					loader.setControllerFactory(type -> {
-						if (type == AdminController.class) {
-							return new AdminController(stage, model);
-						}
-						try {
-							return type.getDeclaredConstructor().newInstance();
-						} catch (Exception ex) {
-							throw new RuntimeException(ex);
-						}
-					});
-					Parent root = loader.load();
-					stage.setScene(new Scene(root, 700, 500));
-					stage.setTitle("Admin Dashboard");
+					navigator.show(Navigator.View.ADMIN);
 				} catch (IOException ex) {
 					ex.printStackTrace();
 					new Alert(Alert.AlertType.ERROR,
@@ -72,62 +58,38 @@ public class LoginController {
 			if (u.isEmpty() || p.isEmpty()) {
 				message.setText("Empty username or password");
 				message.setTextFill(Color.RED);
-			} else {
-				try {
-					User user = model.getUserDao().getUser(u, p);
-					if (user != null) {
-						model.setCurrentUser(user);
-
-						FXMLLoader loader = new FXMLLoader(
-								getClass().getResource("/view/HomeView.fxml")
-						);
-						loader.setControllerFactory(type -> {
-							if (type == HomeController.class) {
-								return new HomeController(stage, model);
-							}
-							try {
-								return type.getDeclaredConstructor().newInstance();
-							} catch (Exception ex) {
-								throw new RuntimeException(ex);
-							}
-						});
-
-						Parent root = loader.load();
-						stage.setScene(new Scene(root, 700, 500));
-						stage.setTitle("Dashboard");
-					} else {
-						message.setText("Wrong username or password");
-						message.setTextFill(Color.RED);
-					}
-				} catch (SQLException | IOException ex) {
-					message.setText("Error: " + ex.getMessage());
-					message.setTextFill(Color.RED);
-					ex.printStackTrace();
-				} finally {
-					name.clear();
-					password.clear();
-				}
+				return;
 			}
+
+			// the hash check takes a while by design, and the saved cart is
+			// read back after it; keep the window responsive
+			name.clear();
+			password.clear();
+			login.setDisable(true);
+			message.setText("Signing in…");
+			message.setTextFill(Color.GRAY);
+			FxAsync.onFx(model.authenticate(u, p).thenCompose(user -> user == null
+							? CompletableFuture.<Session>completedFuture(null)
+							: model.openSessionAsync(user)),
+					session -> {
+						login.setDisable(false);
+						message.setText("");
+						if (session == null) {
+							message.setText("Wrong username or password");
+							message.setTextFill(Color.RED);
+						} else {
+							showHome(session);
+						}
+					},
+					ex -> {
+						login.setDisable(false);
+						loginFailed(ex);
+					});
 		});
 
 		signup.setOnAction(evt -> {
 			try {
-				FXMLLoader loader = new FXMLLoader(
-						getClass().getResource("/view/SignupView.fxml")
-				);
-				loader.setControllerFactory(type -> {
-					if (type == SignupController.class) {
-						return new SignupController(stage, model);
-					}
-					try {
-						return type.getDeclaredConstructor().newInstance();
-					} catch (Exception ex) {
-						throw new RuntimeException(ex);
-					}
-				});
-				Parent root = loader.load();
-				stage.setScene(new Scene(root, 700, 500));
-				stage.setTitle("Sign Up");
+				navigator.show(Navigator.View.SIGNUP);
 			} catch (IOException ex) {
 				message.setText("Error: " + ex.getMessage());
 				message.setTextFill(Color.RED);
@@ -136,6 +98,34 @@ public class LoginController {
 		});
 	}
 
+	// a view switched back to keeps what was typed last time
+	@Override
+	public void onShow() {
+		name.clear();
+		password.clear();
+		message.setText("");
+	}
+
+	private void showHome(Session session) {
+		try {
+			model.setCurrentSession(session);
+			navigator.show(Navigator.View.HOME);
+		} catch (IOException ex) {
+			loginFailed(ex);
+		}
+	}
+
+	private void loginFailed(Throwable ex) {
+		if (ex instanceof RejectedExecutionException) {
+			// the credential workers are saturated; nothing was checked
+			message.setText("Too many sign-ins right now, please try again");
+		} else {
+			message.setText("Error: " + ex.getMessage());
+			ex.printStackTrace();
+		}
+		message.setTextFill(Color.RED);
+	}
+
 	public void showStage(Pane root) {
 		Scene scene = new Scene(root, 700, 500);
 		stage.setScene(scene);
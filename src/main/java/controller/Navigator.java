@@ -0,0 +1,215 @@
+package controller;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import metrics.Metrics;
+import metrics.Timer;
+import model.Model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Switches a window between the application's views, keeping each view
+ * once it has been built.
+ * <p>
+ * A view's FXML is parsed, and its controller created, once per window.
+ * Later visits reuse the same scene graph and controller. Each controller
+ * is a {@link ViewController}: its {@link ViewController#onShow()} hook
+ * refreshes the view for the current user, and {@link ViewController#onHide()}
+ * stops work meant for the visit being left.
+ * <p>
+ * Showing a view also starts building the views one click away from it
+ * (see {@link View#next()}). The FXML is parsed on a background thread.
+ * The scene and the CSS pass, which must happen on the FX thread, follow
+ * there once parsing is done. A login can so find the dashboard ready
+ * while the password is still being checked, and the dashboard finds the
+ * cart and the order history ready.
+ * <p>
+ * Switch times go to the {@code Navigator.show.cold} timer when the view
+ * had to be built on the click, and {@code Navigator.show.cached} when it
+ * was ready. Each is measured from the call to the end of the new scene's
+ * first layout pulse; {@code Navigator.load} times the parse alone.
+ * FX thread only, apart from the parsing.
+ */
+public final class Navigator {
+    private static final Logger LOG = Logger.getLogger(Navigator.class.getName());
+
+    private static final Timer LOAD        = Metrics.timer("Navigator.load");
+    private static final Timer SHOW_COLD   = Metrics.timer("Navigator.show.cold");
+    private static final Timer SHOW_CACHED = Metrics.timer("Navigator.show.cached");
+
+    // one parser for every window; daemon, so it never holds up exit
+    private static final ExecutorService PRELOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "view-preload");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public enum View {
+        LOGIN ("/view/LoginView.fxml",  "Login",           700, 500),
+        SIGNUP("/view/SignupView.fxml", "Sign Up",         700, 500),
+        HOME  ("/view/HomeView.fxml",   "Dashboard",       700, 500),
+        CART  ("/view/CartView.fxml",   "Your Cart",       600, 400),
+        ORDERS("/view/OrdersView.fxml", "Order History",   700, 500),
+        ADMIN ("/view/AdminView.fxml",  "Admin Dashboard", 700, 700);
+
+        private final String fxml;
+        private final String title;
+        private final double width;
+        private final double height;
+
+        View(String fxml, String title, double width, double height) {
+            this.fxml = fxml;
+            this.title = title;
+            this.width = width;
+            this.height = height;
+        }
+
+        /** The views a user can go to from this one in one click. */
+        public List<View> next() {
+            return switch (this) {
+                case LOGIN  -> List.of(HOME, SIGNUP, ADMIN);
+                case HOME   -> List.of(CART, ORDERS, LOGIN);
+                case CART, ORDERS -> List.of(HOME);
+                case SIGNUP, ADMIN -> List.of(LOGIN);
+            };
+        }
+    }
+
+    // a built view: its root, its controller, and the scene once it has one
+    private static final class Screen {
+        final Parent root;
+        final ViewController controller;
+        Scene scene;
+
+        Screen(Parent root, ViewController controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+
+    private final Stage stage;
+    private final Model model;
+    private final Map<View, Screen> screens = new EnumMap<>(View.class);
+    private final Set<View> preloading = EnumSet.noneOf(View.class);
+    private Screen current;
+
+    public Navigator(Stage stage, Model model) {
+        this.stage = stage;
+        this.model = model;
+    }
+
+    /** The window the views are shown in, for dialogs that need an owner. */
+    public Stage getStage() {
+        return stage;
+    }
+
+    /**
+     * Switch the window to {@code view}: the one already built if there is
+     * one, otherwise build it now. Then start building the views one click
+     * away from it.
+     *
+     * @throws IOException if the view had to be built and its FXML failed to load
+     */
+    public void show(View view) throws IOException {
+        Screen s = screens.get(view);
+        Timer timer = s == null ? SHOW_COLD : SHOW_CACHED;
+        long t = timer.start();
+        try {
+            if (s == null) {
+                s = load(view);
+                screens.put(view, s);
+            }
+            if (s.scene == null) s.scene = new Scene(s.root, view.width, view.height);
+            if (current != null && current != s) current.controller.onHide();
+            current = s;
+            s.controller.onShow();
+            stage.setScene(s.scene);
+            stage.setTitle(view.title);
+            stage.show();
+        } catch (IOException | RuntimeException ex) {
+            timer.failed();
+            timer.stop(t);
+            throw ex;
+        }
+        stopAfterLayout(s.scene, timer, t);
+        for (View next : view.next()) preload(next);
+    }
+
+    // the switch is done once the new scene has been styled and laid out
+    private static void stopAfterLayout(Scene scene, Timer timer, long t) {
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                timer.stop(t);
+            }
+        });
+    }
+
+    /** Build {@code view} in the background, unless it is built or on its way. */
+    public void preload(View view) {
+        if (screens.containsKey(view) || !preloading.add(view)) return;
+        FxAsync.onFx(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return load(view);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }, PRELOADER),
+                s -> {
+                    preloading.remove(view);
+                    // shown meanwhile: that click built its own
+                    if (screens.containsKey(view)) return;
+                    screens.put(view, s);
+                    // scene, skins and CSS now, while the user is still reading this screen
+                    s.scene = new Scene(s.root, view.width, view.height);
+                    s.root.applyCss();
+                    s.root.layout();
+                },
+                ex -> {
+                    // show() will try again on the click, and report it there
+                    preloading.remove(view);
+                    LOG.log(Level.WARNING, "Preloading " + view + " failed", ex);
+                });
+    }
+
+    // parse the FXML and make its controller; safe off the FX thread
+    private Screen load(View view) throws IOException {
+        long t = LOAD.start();
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource(view.fxml));
+            loader.setControllerFactory(this::controller);
+            Parent root = loader.load();
+            return new Screen(root, loader.getController());
+        } catch (IOException | RuntimeException ex) {
+            LOAD.failed();
+            throw ex;
+        } finally {
+            LOAD.stop(t);
+        }
+    }
+
+    private Object controller(Class<?> type) {
+        if (type == LoginController.class)  return new LoginController(this, model);
+        if (type == SignupController.class) return new SignupController(this, model);
+        if (type == HomeController.class)   return new HomeController(this, model);
+        if (type == CartController.class)   return new CartController(this, model);
+        if (type == OrdersController.class) return new OrdersController(this, model);
+        if (type == AdminController.class)  return new AdminController(this, model);
+        throw new IllegalArgumentException("No view uses " + type.getName());
+    }
+}
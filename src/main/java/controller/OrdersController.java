@@ -1,74 +1,94 @@
 package controller;
 
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
 import javafx.beans.property.ReadOnlyIntegerWrapper;
-import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-import model.Order;
 import model.Model;
+import model.OrderSummary;
 
 import java.io.File;
 import java.io.IOException;
-import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.stream.Collectors;
-
-public class OrdersController {
-    @FXML private TableView<Order> ordersTable;
-    @FXML private TableColumn<Order, String>  orderNumCol;
-    @FXML private TableColumn<Order, String>  timestampCol;
-    @FXML private TableColumn<Order,String>   eventCol;
-    @FXML private TableColumn<Order,Number>   seatsCol;
-    @FXML private TableColumn<Order, Number>  totalCol;
+import java.util.concurrent.CompletableFuture;
+
+public class OrdersController implements ViewController {
+    // rows per query; the next page is requested when a row this close to the end is shown
+    private static final int PAGE_SIZE = 100;
+    private static final int PREFETCH  = 20;
+    private static final DateTimeFormatter TS_FMT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @FXML private TableView<OrderSummary> ordersTable;
+    @FXML private TableColumn<OrderSummary, String>  orderNumCol;
+    @FXML private TableColumn<OrderSummary, String>  timestampCol;
+    @FXML private TableColumn<OrderSummary,String>   eventCol;
+    @FXML private TableColumn<OrderSummary,Number>   seatsCol;
+    @FXML private TableColumn<OrderSummary, Number>  totalCol;
+    @FXML private DatePicker fromPicker;
+    @FXML private DatePicker toPicker;
     @FXML private Button backBtn;
     @FXML private Button exportBtn;
+    @FXML private ProgressBar exportProgress;
 
+    private final Navigator navigator;
     private final Stage stage;
     private final Model model;
 
-    public OrdersController(Stage stage, Model model) {
-        this.stage = stage;
+    // paging state, touched on the FX thread only
+    private final ObservableList<OrderSummary> rows = FXCollections.observableArrayList();
+    private int cursor;          // id of the last row loaded; 0 = nothing yet
+    private boolean loading;
+    private boolean exhausted;
+    private int generation;      // bumped by reload(), so pages for an old filter are dropped
+    private CompletableFuture<List<OrderSummary>> page;   // in flight, or null
+    private CompletableFuture<Long> export;               // in flight, or null
+
+    public OrdersController(Navigator navigator, Model model) {
+        this.navigator = navigator;
+        this.stage = navigator.getStage();
         this.model = model;
     }
 
     @FXML
     protected void initialize() {
-        // bind columns to Order properties
-        orderNumCol .setCellValueFactory(c -> c.getValue().orderNumberProperty());
-        timestampCol.setCellValueFactory(c -> c.getValue().timestampProperty());
-        eventCol.setCellValueFactory(c -> {
-            String allNames = c.getValue().getItems().stream()
-                    .map(ci -> ci.getEvent().getName())
-                    .collect(Collectors.joining(", "));
-            return new SimpleStringProperty(allNames);
-        });
-        seatsCol.setCellValueFactory(c -> {
-            int totalSeats = c.getValue().getItems().stream()
-                    .mapToInt(ci -> ci.getQuantity())
-                    .sum();
-            return new ReadOnlyIntegerWrapper(totalSeats);
+        // names and seat counts come pre-aggregated from the query
+        orderNumCol .setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getOrderNumber()));
+        timestampCol.setCellValueFactory(c ->
+                new ReadOnlyStringWrapper(c.getValue().getTimestamp().format(TS_FMT)));
+        eventCol    .setCellValueFactory(c -> new ReadOnlyStringWrapper(c.getValue().getEventNames()));
+        seatsCol    .setCellValueFactory(c -> new ReadOnlyIntegerWrapper(c.getValue().getSeats()));
+        totalCol    .setCellValueFactory(c -> new ReadOnlyDoubleWrapper(c.getValue().getTotal()));
+
+        // fetch the next page once the user scrolls near the last loaded row
+        ordersTable.setItems(rows);
+        ordersTable.setRowFactory(tv -> new TableRow<>() {
+            @Override
+            protected void updateItem(OrderSummary item, boolean empty) {
+                super.updateItem(item, empty);
+                if (!empty && getIndex() >= rows.size() - PREFETCH) loadNextPage();
+            }
         });
 
-        totalCol    .setCellValueFactory(c -> c.getValue().totalProperty());
-
-        // load all orders (reverse‐chronological)
-        try {
-            List<Order> orders = model.getOrders();
-            ordersTable.setItems(FXCollections.observableArrayList(orders));
-        } catch (SQLException ex) {
-            new Alert(Alert.AlertType.ERROR,
-                    "Failed to load order history:\n" + ex.getMessage(),
-                    ButtonType.OK)
-                    .showAndWait();
-        }
+        fromPicker.valueProperty().addListener((obs, o, n) -> reload());
+        toPicker  .valueProperty().addListener((obs, o, n) -> reload());
 
+        // the export streams on a virtual thread; while it runs the button cancels it
         exportBtn.setOnAction(e -> {
+            if (export != null) {
+                export.cancel(true);
+                exportDone();
+                return;
+            }
             FileChooser chooser = new FileChooser();
             chooser.getExtensionFilters().add(
                     new FileChooser.ExtensionFilter("Text Files", "*.txt")
@@ -76,37 +96,29 @@ public class OrdersController {
             File file = chooser.showSaveDialog(stage);
             if (file == null) return;
 
-            try {
-                model.exportOrders(file);
-                new Alert(Alert.AlertType.INFORMATION,
-                        "Orders exported to:\n" + file.getAbsolutePath(),
-                        ButtonType.OK).showAndWait();
-            } catch (IOException ex) {
-                new Alert(Alert.AlertType.ERROR,
-                        "Failed to export orders:\n" + ex.getMessage(),
-                        ButtonType.OK).showAndWait();
-            }
+            exportProgress.setProgress(0);
+            exportProgress.setVisible(true);
+            exportBtn.setText("Cancel Export");
+            export = FxAsync.onFx(
+                    model.exportOrdersAsync(file, (done, total) -> Platform.runLater(() ->
+                            exportProgress.setProgress(total == 0 ? -1 : (double) done / total))),
+                    count -> {
+                        exportDone();
+                        new Alert(Alert.AlertType.INFORMATION,
+                                count + " orders exported to:\n" + file.getAbsolutePath(),
+                                ButtonType.OK).showAndWait();
+                    },
+                    ex -> {
+                        exportDone();
+                        new Alert(Alert.AlertType.ERROR,
+                                "Failed to export orders:\n" + ex.getMessage(),
+                                ButtonType.OK).showAndWait();
+                    });
         });
 
-        // back to dashboard
         backBtn.setOnAction(e -> {
             try {
-                FXMLLoader loader = new FXMLLoader(
-                        getClass().getResource("/view/HomeView.fxml")
-                );
-                loader.setControllerFactory(type -> {
-                    if (type == HomeController.class) {
-                        return new HomeController(stage, model);
-                    }
-                    try {
-                        return type.getDeclaredConstructor().newInstance();
-                    } catch (Exception ex2) {
-                        throw new RuntimeException(ex2);
-                    }
-                });
-                Parent root = loader.load();
-                stage.setScene(new Scene(root, 700, 500));
-                stage.setTitle("Dashboard");
+                navigator.show(Navigator.View.HOME);
             } catch (IOException ex2) {
                 new Alert(Alert.AlertType.ERROR,
                         "Failed to load dashboard:\n" + ex2.getMessage(),
@@ -115,4 +127,75 @@ public class OrdersController {
             }
         });
     }
+
+    /** Newest orders first, unfiltered; the last visit's rows may be another user's. */
+    @Override
+    public void onShow() {
+        // unfiltered again; reload() drops any page a cleared picker started
+        fromPicker.setValue(null);
+        toPicker.setValue(null);
+        reload();
+    }
+
+    // nothing still running here is wanted any more
+    @Override
+    public void onHide() {
+        generation++;
+        if (page != null) page.cancel(true);
+        page = null;
+        if (export != null) {
+            export.cancel(true);
+            exportDone();
+        }
+    }
+
+    private void exportDone() {
+        export = null;
+        exportProgress.setVisible(false);
+        exportBtn.setText("Export");
+    }
+
+    /** Start over from the newest order, with the current date filter. */
+    private void reload() {
+        if (page != null) page.cancel(true);
+        generation++;
+        rows.clear();
+        cursor = 0;
+        loading = false;
+        exhausted = false;
+        loadNextPage();
+    }
+
+    private void loadNextPage() {
+        if (loading || exhausted) return;
+        loading = true;
+
+        int gen = generation;
+        int before = cursor;
+        LocalDate fromDay = fromPicker.getValue();
+        LocalDate toDay = toPicker.getValue();
+        LocalDateTime from = fromDay == null ? null : fromDay.atStartOfDay();
+        // the picker's end day is inclusive
+        LocalDateTime to = toDay == null ? null : toDay.plusDays(1).atStartOfDay();
+
+        page = FxAsync.onFx(model.getOrderPageAsync(before, PAGE_SIZE, from, to),
+                got -> {
+                    if (gen != generation) return;
+                    if (!got.isEmpty()) cursor = got.get(got.size() - 1).getId();
+                    exhausted = got.size() < PAGE_SIZE;
+                    loading = false;
+                    page = null;
+                    rows.addAll(got);
+                },
+                ex -> {
+                    if (gen != generation) return;
+                    exhausted = true;   // don't retry on every scroll
+                    loading = false;
+                    page = null;
+                    new Alert(Alert.AlertType.ERROR,
+                            "Failed to load order history:\n" + ex.getMessage(),
+                            ButtonType.OK)
+                            .showAndWait();
+                });
+    }
 }
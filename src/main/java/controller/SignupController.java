@@ -1,10 +1,9 @@
 package controller;
 
 import java.io.IOException;
-import java.sql.SQLException;
+import java.util.concurrent.RejectedExecutionException;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -14,9 +13,8 @@ import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import model.Model;
-import model.User;
 
-public class SignupController {
+public class SignupController implements ViewController {
 	@FXML private TextField username;
 	@FXML private PasswordField password;
 	@FXML private TextField preferredName;
@@ -24,11 +22,13 @@ public class SignupController {
 	@FXML private Button back;
 	@FXML private Label status;
 
+	private final Navigator navigator;
 	private final Stage stage;
 	private final Model model;
 
-	public SignupController(Stage stage, Model model) {
-		this.stage = stage;
+	public SignupController(Navigator navigator, Model model) {
+		this.navigator = navigator;
+		this.stage = navigator.getStage();
 		this.model = model;
 	}
 
@@ -44,75 +44,47 @@ public class SignupController {
 				return;
 			}
 
-			try {
-				User user = model.getUserDao()
-						.createUser(
-								username.getText(),
-								password.getText(),
-								preferredName.getText()
-						);
-				status.setText("Account created for " + user.getPreferredName());
-				status.setTextFill(Color.GREEN);
-
-				// navigate back to LoginView via controller factory
-				FXMLLoader loader = new FXMLLoader(
-						getClass().getResource("/view/LoginView.fxml")
-				);
-				loader.setControllerFactory(type -> {
-					if (type == LoginController.class) {
-						return new LoginController(stage, model);
-					}
-					try {
-						return type.getDeclaredConstructor().newInstance();
-					} catch (Exception ex) {
-						throw new RuntimeException(ex);
-					}
-				});
-
-				// load and swap scene
-				Pane loginRoot = loader.load();
-				Scene scene = new Scene(loginRoot, 700, 500);
-				stage.setScene(scene);
-				stage.setTitle("Login");
-				stage.show();
-
-			} catch (SQLException | IOException ex) {
-				status.setText("Error: " + ex.getMessage());
-				status.setTextFill(Color.RED);
-				ex.printStackTrace();
-			}
+			// hashing the password happens on the credential workers
+			createUser.setDisable(true);
+			FxAsync.onFx(model.signUp(username.getText(), password.getText(), preferredName.getText()),
+					user -> {
+						createUser.setDisable(false);
+						status.setText("Account created for " + user.getPreferredName());
+						status.setTextFill(Color.GREEN);
+						showLogin();
+					},
+					ex -> {
+						createUser.setDisable(false);
+						status.setText(ex instanceof RejectedExecutionException
+								? "Too many requests right now, please try again"
+								: "Error: " + ex.getMessage());
+						status.setTextFill(Color.RED);
+						ex.printStackTrace();
+					});
 		});
 
-		back.setOnAction(evt -> {
-			try {
-				FXMLLoader loader = new FXMLLoader(
-						getClass().getResource("/view/LoginView.fxml")
-				);
-				loader.setControllerFactory(type -> {
-					if (type == LoginController.class) {
-						return new LoginController(stage, model);
-					}
-					try {
-						return type.getDeclaredConstructor().newInstance();
-					} catch (Exception ex) {
-						throw new RuntimeException(ex);
-					}
-				});
-
-				Pane loginRoot = loader.load();
-				Scene scene = new Scene(loginRoot, 700, 500);
-				stage.setScene(scene);
-				stage.setTitle("Login");
-				stage.show();
+		back.setOnAction(evt -> showLogin());
+	}
 
-			} catch (IOException ex) {
-				status.setText("Error: " + ex.getMessage());
-				status.setTextFill(Color.RED);
-				ex.printStackTrace();
-			}
-		});
+	// a new visit starts with an empty form
+	@Override
+	public void onShow() {
+		username.clear();
+		password.clear();
+		preferredName.clear();
+		status.setText("");
 	}
 
+	// navigate back to the login view
+	private void showLogin() {
+		try {
+			navigator.show(Navigator.View.LOGIN);
+		} catch (IOException ex) {
+			status.setText("Error: " + ex.getMessage());
+			status.setTextFill(Color.RED);
+			ex.printStackTrace();
+		}
+	}
 
 	public void showStage(Pane root) {
 		Scene scene = new Scene(root, 700, 500);
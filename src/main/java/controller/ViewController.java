@@ -0,0 +1,21 @@
+package controller;
+
+/**
+ * A controller whose view {@link Navigator} keeps and shows again.
+ * <p>
+ * Its {@code initialize()} only builds the screen: cell factories, button
+ * handlers, fixed choices. It may run on the preloader thread, before
+ * anyone has logged in, so it must not read the model. Whatever depends
+ * on who is logged in or on the database belongs in {@link #onShow()}.
+ */
+interface ViewController {
+    /**
+     * The view is about to be shown, on the FX thread. Fill it in for the
+     * current user and start its loads; leftovers from the last visit
+     * (typed text, selections, rows) are cleared here.
+     */
+    void onShow();
+
+    /** Another view replaced this one, on the FX thread: stop work meant for this visit. */
+    default void onHide() {}
+}
@@ -0,0 +1,33 @@
+package dao;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Saved carts: per user, a quantity per event id. Rows are not written
+ * on every cart edit; {@code engine.CartStore} collects the edits and
+ * hands them over in batches. Checkout deletes the buyer's rows in its
+ * own transaction (see {@link CheckoutDaoImpl}).
+ */
+public interface CartDao {
+    /** One line's latest quantity; zero or less means the line is gone. */
+    record Line(String username, int eventId, int quantity) {}
+
+    /** The user's saved lines, event id to quantity, in the order they were added. */
+    Map<Integer, Integer> getCart(String username) throws SQLException;
+
+    /** Apply every line in one write transaction: upsert the positive ones, delete the rest. */
+    void saveLines(List<Line> lines) throws SQLException;
+
+    // ─── Async variants ───────────────────────────────────────────────────────
+
+    default CompletableFuture<Map<Integer, Integer>> getCartAsync(String username) {
+        return DaoExecutor.submit(() -> getCart(username));
+    }
+
+    default CompletableFuture<Void> saveLinesAsync(List<Line> lines) {
+        return DaoExecutor.submitUninterruptibly(() -> { saveLines(lines); return null; });
+    }
+}
@@ -0,0 +1,65 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CartDaoImpl implements CartDao {
+    // an existing line keeps its rowid, and with it its place in the cart
+    private static final String UPSERT_SQL = """
+        INSERT INTO cart_items(user_id, event_id, quantity) VALUES(?, ?, ?)
+        ON CONFLICT(user_id, event_id) DO UPDATE SET quantity = excluded.quantity
+        """;
+    private static final String DELETE_SQL =
+            "DELETE FROM cart_items WHERE user_id = ? AND event_id = ?";
+
+    @Override
+    public Map<Integer, Integer> getCart(String username) throws SQLException {
+        Map<Integer, Integer> lines = new LinkedHashMap<>();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pst = conn.prepareStatement(
+                     "SELECT event_id, quantity FROM cart_items WHERE user_id = ? ORDER BY rowid")) {
+            pst.setString(1, username);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) lines.put(rs.getInt(1), rs.getInt(2));
+            }
+        }
+        return lines;
+    }
+
+    @Override
+    public void saveLines(List<Line> lines) throws SQLException {
+        if (lines.isEmpty()) return;
+        Database.write(conn -> {
+            try (PreparedStatement upsert = conn.prepareStatement(UPSERT_SQL);
+                 PreparedStatement delete = conn.prepareStatement(DELETE_SQL)) {
+                for (Line l : lines) {
+                    PreparedStatement pst = l.quantity() > 0 ? upsert : delete;
+                    pst.setString(1, l.username());
+                    pst.setInt(2, l.eventId());
+                    if (l.quantity() > 0) pst.setInt(3, l.quantity());
+                    pst.addBatch();
+                }
+                upsert.executeBatch();
+                delete.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Empty a user's saved cart on the caller's connection and transaction,
+     * so a checkout and the cart it bought commit together.
+     */
+    static void clearCart(Connection conn, String username) throws SQLException {
+        if (username == null) return;
+        try (PreparedStatement pst = conn.prepareStatement("DELETE FROM cart_items WHERE user_id = ?")) {
+            pst.setString(1, username);
+            pst.executeUpdate();
+        }
+    }
+}
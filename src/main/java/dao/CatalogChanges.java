@@ -0,0 +1,18 @@
+package dao;
+
+import model.Event;
+
+import java.util.List;
+
+/**
+ * The catalog rows changed after some version, read in one transaction.
+ *
+ * @param version    the catalog version these changes bring the reader up to
+ * @param changed    rows inserted or updated since, in id order
+ * @param removedIds ids deleted since (and not re-inserted)
+ */
+public record CatalogChanges(long version, List<Event> changed, int[] removedIds) {
+    public boolean isEmpty() {
+        return changed.isEmpty() && removedIds.length == 0;
+    }
+}
@@ -0,0 +1,220 @@
+package dao;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Parser for the semicolon-separated catalog format of events.dat:
+ * <pre>
+ *   name;venue;day;price;sold;capacity
+ *   Jazz Night with Joe;Theatre Nova;Mon;45;22;90
+ * </pre>
+ * It scans the bytes of a buffer, which can be a memory-mapped file, and
+ * does not build a String per line. Numbers are parsed in place. Names,
+ * venues and days are decoded once and then served from an intern table,
+ * since a large feed repeats them on nearly every line. LF and CRLF line
+ * ends, a UTF-8 BOM, blank lines and {@code #} comment lines are accepted.
+ * Malformed lines are passed to the report, not thrown.
+ */
+final class CatalogFeed {
+    static final int FIELDS = 6;
+
+    /** A valid line; strings are interned, so equal values are the same instance. */
+    interface RowHandler {
+        void row(int line, String name, String venue, String day,
+                 double price, int sold, int capacity) throws SQLException;
+    }
+
+    private final StringTable strings = new StringTable();
+    private final int[] fieldStart = new int[FIELDS];
+    private final int[] fieldEnd = new int[FIELDS];
+    private byte[] scratch = new byte[256];
+
+    /** Parse the whole buffer, from its position to its limit. */
+    void parse(ByteBuffer buf, RowHandler rows, CatalogLoadReport report) throws SQLException {
+        int pos = buf.position();
+        int limit = buf.limit();
+        if (limit - pos >= 3 && buf.get(pos) == (byte) 0xEF
+                && buf.get(pos + 1) == (byte) 0xBB && buf.get(pos + 2) == (byte) 0xBF) {
+            pos += 3;
+        }
+
+        int lineNo = 0;
+        while (pos < limit) {
+            lineNo++;
+            int start = pos;
+            int fields = 0;
+            int fieldFrom = start;
+            // split on ';' up to the end of the line
+            while (pos < limit) {
+                byte b = buf.get(pos);
+                if (b == '\n') break;
+                if (b == ';') {
+                    if (fields < FIELDS) {
+                        fieldStart[fields] = fieldFrom;
+                        fieldEnd[fields] = pos;
+                    }
+                    fields++;
+                    fieldFrom = pos + 1;
+                }
+                pos++;
+            }
+            int end = pos;
+            pos++;   // past '\n'
+            if (end > start && buf.get(end - 1) == '\r') end--;
+            if (fields < FIELDS) {
+                fieldStart[fields] = fieldFrom;
+                fieldEnd[fields] = end;
+            }
+            fields++;
+
+            if (end == start || buf.get(start) == '#') continue;
+            report.line();
+
+            if (fields != FIELDS) {
+                report.reject(lineNo, "expected " + FIELDS + " fields, found " + fields);
+                continue;
+            }
+            handle(buf, lineNo, rows, report);
+        }
+    }
+
+    private void handle(ByteBuffer buf, int lineNo, RowHandler rows, CatalogLoadReport report)
+            throws SQLException {
+        String name  = string(buf, 0);
+        String venue = string(buf, 1);
+        String day   = string(buf, 2);
+        if (name.isEmpty() || venue.isEmpty()) {
+            report.reject(lineNo, "name and venue must not be empty");
+            return;
+        }
+        if (!isDay(day)) {
+            report.reject(lineNo, "unknown day '" + day + "' (expected Mon..Sun)");
+            return;
+        }
+        double price = decimal(buf, 3);
+        int sold     = integer(buf, 4);
+        int capacity = integer(buf, 5);
+        if (Double.isNaN(price) || sold < 0 || capacity < 0) {
+            report.reject(lineNo, "price, sold and capacity must be non-negative numbers");
+            return;
+        }
+        if (sold > capacity) {
+            report.reject(lineNo, "sold (" + sold + ") exceeds capacity (" + capacity + ")");
+            return;
+        }
+        rows.row(lineNo, name, venue, day, price, sold, capacity);
+    }
+
+    private static boolean isDay(String d) {
+        return switch (d) {
+            case "Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun" -> true;
+            default -> false;
+        };
+    }
+
+    // ─── field decoding ───────────────────────────────────────────────────────
+
+    private String string(ByteBuffer buf, int field) {
+        int from = fieldStart[field], len = fieldEnd[field] - from;
+        if (len > scratch.length) scratch = new byte[Math.max(len, scratch.length * 2)];
+        buf.get(from, scratch, 0, len);
+        return strings.intern(scratch, len);
+    }
+
+    /** @return the value, or -1 if the field isn't a plain non-negative integer */
+    private int integer(ByteBuffer buf, int field) {
+        int from = fieldStart[field], to = fieldEnd[field];
+        if (from == to || to - from > 9) return -1;
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) return -1;
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    /** @return the value, or NaN if the field isn't a plain non-negative decimal */
+    private double decimal(ByteBuffer buf, int field) {
+        int from = fieldStart[field], to = fieldEnd[field];
+        if (from == to || to - from > 15) return Double.NaN;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;   // digits after '.', -1 while none seen
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b == '.' && scale < 0) {
+                scale = 0;
+                continue;
+            }
+            int d = b - '0';
+            if (d < 0 || d > 9) return Double.NaN;
+            mantissa = mantissa * 10 + d;
+            digits++;
+            if (scale >= 0) scale++;
+        }
+        if (digits == 0) return Double.NaN;
+        // at most 15 digits and an exact power of ten: one correctly rounded
+        // division, the same double Double.parseDouble would give
+        return scale <= 0 ? mantissa : mantissa / POW10[scale];
+    }
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    /**
+     * Byte-sequence to String intern table (open addressing). Only the first
+     * occurrence of a value allocates.
+     */
+    private static final class StringTable {
+        private byte[][] keys = new byte[64][];
+        private String[] values = new String[64];
+        private int count;
+
+        String intern(byte[] b, int len) {
+            int h = hash(b, len);
+            int mask = keys.length - 1;
+            for (int i = h & mask; ; i = (i + 1) & mask) {
+                byte[] k = keys[i];
+                if (k == null) {
+                    String s = new String(b, 0, len, StandardCharsets.UTF_8);
+                    byte[] copy = new byte[len];
+                    System.arraycopy(b, 0, copy, 0, len);
+                    keys[i] = copy;
+                    values[i] = s;
+                    if (++count * 2 > keys.length) grow();
+                    return s;
+                }
+                if (k.length == len && Arrays.equals(k, 0, len, b, 0, len)) {
+                    return values[i];
+                }
+            }
+        }
+
+        private static int hash(byte[] b, int len) {
+            int h = 1;
+            for (int i = 0; i < len; i++) h = 31 * h + b[i];
+            return h ^ (h >>> 16);
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                byte[] k = oldKeys[j];
+                if (k == null) continue;
+                int i = hash(k, k.length) & mask;
+                while (keys[i] != null) i = (i + 1) & mask;
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
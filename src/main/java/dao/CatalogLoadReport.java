@@ -0,0 +1,91 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a {@link CatalogLoader} run did: row counts per outcome, the lines it
+ * rejected and why, and how fast it went.
+ */
+public class CatalogLoadReport {
+    /** Rejections beyond this many are counted but not listed. */
+    public static final int MAX_ISSUES = 100;
+
+    /** One rejected line of the feed. */
+    public record Issue(int line, String message) {
+        @Override
+        public String toString() {
+            return "line " + line + ": " + message;
+        }
+    }
+
+    private final CatalogLoader.Mode mode;
+    private final List<Issue> issues = new ArrayList<>();
+    private int lines;
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int rejected;
+    private long bytes;
+    private long elapsedNanos;
+
+    CatalogLoadReport(CatalogLoader.Mode mode) {
+        this.mode = mode;
+    }
+
+    // ─── filled in by the loader ──────────────────────────────────────────────
+
+    void line()      { lines++; }
+    void inserted()  { inserted++; }
+    void updated()   { updated++; }
+    void unchanged() { unchanged++; }
+
+    void reject(int line, String message) {
+        rejected++;
+        if (issues.size() < MAX_ISSUES) issues.add(new Issue(line, message));
+    }
+
+    void finish(long bytes, long elapsedNanos) {
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // ─── results ──────────────────────────────────────────────────────────────
+
+    public CatalogLoader.Mode getMode() { return mode; }
+
+    /** Non-blank lines read from the feed. */
+    public int getLines()     { return lines; }
+    public int getInserted()  { return inserted; }
+    public int getUpdated()   { return updated; }
+    public int getUnchanged() { return unchanged; }
+    public int getRejected()  { return rejected; }
+
+    /** The first {@link #MAX_ISSUES} rejected lines. */
+    public List<Issue> getIssues() { return Collections.unmodifiableList(issues); }
+
+    public boolean isClean() { return rejected == 0; }
+
+    public long getBytes()        { return bytes; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /** Feed lines processed per second, parse and database work included. */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : lines * 1e9 / elapsedNanos;
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos / (1024 * 1024);
+    }
+
+    /** One-line summary for the log. */
+    @Override
+    public String toString() {
+        return String.format(
+                "Catalog %s: %d lines, %d inserted, %d updated, %d unchanged, %d rejected"
+                        + " in %d ms (%.0f rows/s, %.1f MB/s)",
+                mode, lines, inserted, updated, unchanged, rejected,
+                elapsedNanos / 1_000_000, getRowsPerSecond(), getMegabytesPerSecond());
+    }
+}
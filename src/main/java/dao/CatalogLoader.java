@@ -0,0 +1,152 @@
+package dao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Bulk ingest of a catalog feed (the events.dat format, see {@link CatalogFeed})
+ * into the events table.
+ * <p>
+ * A whole feed is applied as one write task, so it commits in one
+ * transaction or not at all. Inserts and updates are sent in JDBC batches.
+ * Files are memory-mapped instead of read through a Reader. Lines that
+ * fail validation are skipped and listed in the {@link CatalogLoadReport};
+ * they never abort the load.
+ * <p>
+ * Rows are matched on their natural key (name, venue, day). Remaining seats
+ * are {@code capacity - sold} from the feed, as in the original seeding.
+ */
+public class CatalogLoader {
+    private static final Logger LOG = Logger.getLogger(CatalogLoader.class.getName());
+
+    /** JDBC batch size for inserts and updates. */
+    private static final int BATCH = 1000;
+
+    public enum Mode {
+        /** Insert every row; for an empty table. */
+        SEED,
+        /**
+         * Diff against the table: insert new rows, and update price and
+         * remaining seats where they differ. Matching rows are left alone,
+         * and rows missing from the feed are kept.
+         */
+        UPSERT
+    }
+
+    private static final String INSERT_SQL =
+            "INSERT INTO events(name,date,venue,price,remainingSeats) VALUES (?,?,?,?,?)";
+    private static final String UPDATE_SQL =
+            "UPDATE events SET price = ?, remainingSeats = ? WHERE id = ?";
+
+    /** Load a feed file, memory-mapped. */
+    public CatalogLoadReport load(Path file, Mode mode) throws IOException, SQLException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Catalog feed over 2 GB: " + file);
+            }
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return load(buf, mode);
+        }
+    }
+
+    /** Load a feed from a stream, e.g. a class path resource that can't be mapped. */
+    public CatalogLoadReport load(InputStream in, Mode mode) throws IOException, SQLException {
+        return load(ByteBuffer.wrap(in.readAllBytes()), mode);
+    }
+
+    /** Load a feed held in a buffer, from its position to its limit. */
+    public CatalogLoadReport load(ByteBuffer feed, Mode mode) throws SQLException {
+        CatalogLoadReport report = new CatalogLoadReport(mode);
+        long start = System.nanoTime();
+        Database.write(conn -> {
+            apply(conn, feed, mode, report);
+            return null;
+        });
+        report.finish(feed.remaining(), System.nanoTime() - start);
+        LOG.info(report.toString());
+        return report;
+    }
+
+    private static void apply(Connection conn, ByteBuffer feed, Mode mode, CatalogLoadReport report)
+            throws SQLException {
+        Map<Key, Existing> existing = mode == Mode.UPSERT ? readExisting(conn) : new HashMap<>();
+        // line of the first occurrence of each key in this feed
+        Map<Key, Integer> seen = new HashMap<>();
+
+        try (PreparedStatement ins = conn.prepareStatement(INSERT_SQL);
+             PreparedStatement upd = conn.prepareStatement(UPDATE_SQL)) {
+            int[] pending = new int[2];   // batched inserts, updates
+
+            new CatalogFeed().parse(feed, (line, name, venue, day, price, sold, capacity) -> {
+                Key key = new Key(name, venue, day);
+                Integer first = seen.putIfAbsent(key, line);
+                if (first != null) {
+                    report.reject(line, "duplicate of line " + first + " (same name, venue and day)");
+                    return;
+                }
+                int remaining = capacity - sold;
+
+                Existing row = existing.get(key);
+                if (row == null) {
+                    ins.setString(1, name);
+                    ins.setString(2, day);
+                    ins.setString(3, venue);
+                    ins.setDouble(4, price);
+                    ins.setInt   (5, remaining);
+                    ins.addBatch();
+                    report.inserted();
+                    if (++pending[0] == BATCH) {
+                        ins.executeBatch();
+                        pending[0] = 0;
+                    }
+                } else if (row.price != price || row.remainingSeats != remaining) {
+                    upd.setDouble(1, price);
+                    upd.setInt   (2, remaining);
+                    upd.setInt   (3, row.id);
+                    upd.addBatch();
+                    report.updated();
+                    if (++pending[1] == BATCH) {
+                        upd.executeBatch();
+                        pending[1] = 0;
+                    }
+                } else {
+                    report.unchanged();
+                }
+            }, report);
+
+            if (pending[0] > 0) ins.executeBatch();
+            if (pending[1] > 0) upd.executeBatch();
+        }
+    }
+
+    private static Map<Key, Existing> readExisting(Connection conn) throws SQLException {
+        Map<Key, Existing> rows = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT id, name, venue, date, price, remainingSeats FROM events")) {
+            while (rs.next()) {
+                rows.put(new Key(rs.getString(2), rs.getString(3), rs.getString(4)),
+                        new Existing(rs.getInt(1), rs.getDouble(5), rs.getInt(6)));
+            }
+        }
+        return rows;
+    }
+
+    private record Key(String name, String venue, String day) {}
+
+    private record Existing(int id, double price, int remainingSeats) {}
+}
@@ -0,0 +1,18 @@
+package dao;
+
+import model.Order;
+import java.sql.SQLException;
+
+/**
+ * Turns a cart into a sale in a single database transaction.
+ */
+public interface CheckoutDao {
+    /**
+     * Deduct seats for every line, insert the order and its items, empty the
+     * buyer's saved cart, then commit. Nothing is written if any step fails.
+     *
+     * @return the remaining seats of each line's event after the sale, in item order
+     * @throws InsufficientSeatsException if a line asks for more seats than are left
+     */
+    int[] checkout(Order order) throws SQLException;
+}
@@ -0,0 +1,52 @@
+package dao;
+
+import model.CartItem;
+import model.Order;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+public class CheckoutDaoImpl implements CheckoutDao {
+    // the WHERE clause makes the database the judge of availability,
+    // so two sellers can never both take the last seats
+    private static final String DEDUCT_SQL =
+            "UPDATE events SET remainingSeats = remainingSeats - ?"
+                    + " WHERE id = ? AND remainingSeats >= ?"
+                    + " RETURNING remainingSeats";
+
+    @Override
+    public int[] checkout(Order order) throws SQLException {
+        // the write queue wraps this in a transaction (shared with other
+        // checkouts in the same group commit) and rolls it back on failure
+        return Database.write(conn -> deduct(conn, order));
+    }
+
+    private static int[] deduct(Connection conn, Order order) throws SQLException {
+        List<CartItem> items = order.getItems();
+        int[] remaining = new int[items.size()];
+
+        try (PreparedStatement pst = conn.prepareStatement(DEDUCT_SQL)) {
+            for (int i = 0; i < items.size(); i++) {
+                CartItem ci = items.get(i);
+                int eventId = ci.getEvent().getId();
+                pst.setInt(1, ci.getQuantity());
+                pst.setInt(2, eventId);
+                pst.setInt(3, ci.getQuantity());
+                try (ResultSet rs = pst.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new InsufficientSeatsException(i, eventId, ci.getQuantity());
+                    }
+                    remaining[i] = rs.getInt(1);
+                }
+            }
+        }
+
+        OrderDaoImpl.insertOrder(conn, order);
+        // what was bought is no longer in the saved cart
+        CartDaoImpl.clearCart(conn, order.getUsername());
+        return remaining;
+    }
+}
@@ -0,0 +1,291 @@
+package dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A bounded pool of long-lived SQLite connections.
+ * <p>
+ * Callers get a proxy {@link Connection} from {@link #borrow()}; closing the
+ * proxy hands the physical connection back to the pool instead of closing the
+ * file handle, so the DAOs keep their usual try-with-resources shape.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+
+    /** Pool settings. Defaults suit a single desktop process. */
+    public static class Config {
+        private int minSize = 1;
+        private int maxSize = 8;
+        private long borrowTimeoutMillis = 10_000;
+        private int validationTimeoutSeconds = 1;
+        private long leakThresholdMillis = 30_000;
+        private List<String> pragmas = new ArrayList<>();
+
+        public Config minSize(int v)                  { this.minSize = v; return this; }
+        public Config maxSize(int v)                  { this.maxSize = v; return this; }
+        public Config borrowTimeoutMillis(long v)     { this.borrowTimeoutMillis = v; return this; }
+        public Config validationTimeoutSeconds(int v) { this.validationTimeoutSeconds = v; return this; }
+        /** 0 disables leak detection (and the stack capture it needs). */
+        public Config leakThresholdMillis(long v)     { this.leakThresholdMillis = v; return this; }
+        /** Statements such as "busy_timeout = 5000", run once per new physical connection. */
+        public Config pragmas(List<String> v)         { this.pragmas = new ArrayList<>(v); return this; }
+    }
+
+    /** Point-in-time view of the pool counters. */
+    public record Metrics(int active,
+                          int idle,
+                          int total,
+                          long borrowCount,
+                          long totalBorrowWaitNanos,
+                          long maxBorrowWaitNanos,
+                          long leaksDetected) {
+        public double averageBorrowWaitMillis() {
+            return borrowCount == 0 ? 0 : totalBorrowWaitNanos / 1e6 / borrowCount;
+        }
+    }
+
+    private final String url;
+    private final Config config;
+    private final Semaphore permits;
+    private final ArrayDeque<Connection> idle = new ArrayDeque<>();
+    private final Set<Lease> leased = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService leakReaper;
+
+    private final AtomicInteger total        = new AtomicInteger();
+    private final AtomicLong    borrowCount  = new AtomicLong();
+    private final AtomicLong    borrowWait   = new AtomicLong();
+    private final AtomicLong    maxWait      = new AtomicLong();
+    private final AtomicLong    leaks        = new AtomicLong();
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, Config config) throws SQLException {
+        if (config.minSize < 0 || config.maxSize < 1 || config.minSize > config.maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + config.minSize
+                    + " max=" + config.maxSize);
+        }
+        this.url = url;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize, true);
+
+        for (int i = 0; i < config.minSize; i++) {
+            idle.push(open());
+        }
+
+        if (config.leakThresholdMillis > 0) {
+            leakReaper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "db-leak-reaper");
+                t.setDaemon(true);
+                return t;
+            });
+            long period = Math.max(1, config.leakThresholdMillis / 2);
+            leakReaper.scheduleAtFixedRate(this::reportLeaks, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            leakReaper = null;
+        }
+    }
+
+    /**
+     * Borrow a connection, waiting up to the configured timeout when all
+     * {@code maxSize} connections are in use. Close it to give it back.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + config.borrowTimeoutMillis
+                        + " ms waiting for a database connection (" + leased.size() + " in use)");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", ex);
+        }
+
+        Connection physical;
+        try {
+            physical = takeValidIdle();
+            if (physical == null) physical = open();
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+
+        long waited = System.nanoTime() - start;
+        borrowCount.incrementAndGet();
+        borrowWait.addAndGet(waited);
+        maxWait.accumulateAndGet(waited, Math::max);
+
+        Lease lease = new Lease(physical,
+                config.leakThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null);
+        leased.add(lease);
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, lease);
+    }
+
+    public Metrics getMetrics() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        return new Metrics(leased.size(), idleCount, total.get(),
+                borrowCount.get(), borrowWait.get(), maxWait.get(), leaks.get());
+    }
+
+    /** Close idle connections and stop the leak reaper. Leased ones close on return. */
+    @Override
+    public void close() {
+        closed = true;
+        if (leakReaper != null) leakReaper.shutdownNow();
+        List<Connection> drained;
+        synchronized (idle) {
+            drained = new ArrayList<>(idle);
+            idle.clear();
+        }
+        drained.forEach(this::discard);
+    }
+
+    // ─── internals ────────────────────────────────────────────────────────────
+
+    private Connection takeValidIdle() {
+        while (true) {
+            Connection c;
+            synchronized (idle) {
+                c = idle.poll();
+            }
+            if (c == null) return null;
+            try {
+                if (!c.isClosed() && c.isValid(config.validationTimeoutSeconds)) return c;
+            } catch (SQLException ignored) {
+                // fall through and replace it
+            }
+            discard(c);
+        }
+    }
+
+    private Connection open() throws SQLException {
+        Connection c = DriverManager.getConnection(url);
+        try (Statement stmt = c.createStatement()) {
+            for (String pragma : config.pragmas) {
+                stmt.execute("PRAGMA " + pragma);
+            }
+        } catch (SQLException ex) {
+            c.close();
+            throw ex;
+        }
+        total.incrementAndGet();
+        return c;
+    }
+
+    private void discard(Connection c) {
+        total.decrementAndGet();
+        try {
+            c.close();
+        } catch (SQLException ex) {
+            LOG.log(Level.FINE, "Error closing pooled connection", ex);
+        }
+    }
+
+    private void giveBack(Lease lease) {
+        leased.remove(lease);
+        Connection c = lease.physical;
+        try {
+            // never hand out a connection in the middle of someone else's transaction
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+            if (closed) {
+                discard(c);
+            } else {
+                synchronized (idle) {
+                    idle.push(c);
+                }
+            }
+        } catch (SQLException ex) {
+            discard(c);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void reportLeaks() {
+        long now = System.nanoTime();
+        long threshold = TimeUnit.MILLISECONDS.toNanos(config.leakThresholdMillis);
+        for (Lease lease : leased) {
+            if (!lease.reported && now - lease.borrowedAt > threshold) {
+                lease.reported = true;
+                leaks.incrementAndGet();
+                LOG.log(Level.WARNING, "Connection held for more than "
+                        + config.leakThresholdMillis + " ms; possible leak", lease.borrowSite);
+            }
+        }
+    }
+
+    /** One checkout of a physical connection; also the proxy's handler. */
+    private final class Lease implements InvocationHandler {
+        final Connection physical;
+        final Throwable borrowSite;
+        final long borrowedAt = System.nanoTime();
+        volatile boolean reported;
+        private boolean released;
+
+        Lease(Connection physical, Throwable borrowSite) {
+            this.physical = physical;
+            this.borrowSite = borrowSite;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!released) {
+                            released = true;
+                            giveBack(this);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    synchronized (this) {
+                        return released || physical.isClosed();
+                    }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + physical + "]";
+                default:
+                    synchronized (this) {
+                        if (released) throw new SQLException("Connection is closed");
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+            }
+        }
+    }
+}
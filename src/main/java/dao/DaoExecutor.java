@@ -0,0 +1,85 @@
+package dao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs blocking database calls on virtual threads, for the {@code ...Async}
+ * DAO methods and for callers (the UI) that must never block on JDBC.
+ * <p>
+ * Each call gets its own virtual thread, so a slow query or a wait for a
+ * pooled connection parks only that call. The connection pool and the write
+ * queue still bound how much reaches SQLite at once.
+ * <p>
+ * Cancelling a future from {@link #submit} interrupts its thread. The JDBC
+ * call itself may still run to the end (SQLite doesn't check interrupts),
+ * but its result is dropped, and code that checks for interruption between
+ * rows, such as an export, stops early. Writes must not be interrupted
+ * halfway: a caller woken from its wait for the write queue can't tell
+ * whether the write committed. They go through {@link #submitUninterruptibly}.
+ */
+public final class DaoExecutor {
+    private DaoExecutor() {}
+
+    /** A blocking call; any exception fails the future. */
+    @FunctionalInterface
+    public interface Call<T> {
+        T call() throws Exception;
+    }
+
+    private static final ExecutorService THREADS =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dao-", 0).factory());
+
+    /** Run {@code call} on a new virtual thread. */
+    public static <T> CompletableFuture<T> submit(Call<T> call) {
+        Running<T> f = new Running<>();
+        f.task = THREADS.submit(() -> {
+            if (f.isDone()) return;   // cancelled before it started
+            try {
+                f.complete(call.call());
+            } catch (Throwable ex) {
+                f.completeExceptionally(ex);
+            }
+        });
+        if (f.isCancelled()) f.task.cancel(true);
+        return f;
+    }
+
+    /**
+     * Run {@code call} on a new virtual thread that cancellation never
+     * interrupts: cancelling only stops the caller waiting for it.
+     */
+    public static <T> CompletableFuture<T> submitUninterruptibly(Call<T> call) {
+        CompletableFuture<T> f = new CompletableFuture<>();
+        THREADS.execute(() -> {
+            if (f.isDone()) return;   // cancelled before it started
+            try {
+                f.complete(call.call());
+            } catch (Throwable ex) {
+                f.completeExceptionally(ex);
+            }
+        });
+        return f;
+    }
+
+    // a future whose cancel() reaches the thread doing the work
+    private static final class Running<T> extends CompletableFuture<T> {
+        volatile Future<?> task;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> t = task;
+            if (cancelled && t != null) t.cancel(true);
+            return cancelled;
+        }
+
+        // derived stages (thenApply, ...) are plain futures, not Running ones
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new CompletableFuture<>();
+        }
+    }
+}
@@ -1,28 +1,134 @@
 package dao;
 
+import metrics.Metrics;
+import metrics.Timer;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 
 public class Database {
-	private static final String DB_URL = "jdbc:sqlite:application.db";
+	private static final String DEFAULT_URL = "jdbc:sqlite:application.db";
+
+	/** System property overriding the JDBC URL, e.g. {@code -Ddb.url=jdbc:sqlite:/tmp/bench.db}. */
+	public static final String URL_PROPERTY = "db.url";
+
+	private static volatile String url = System.getProperty(URL_PROPERTY, DEFAULT_URL);
+
+	/** Journal mode, fsync policy and lock waits; see {@link StorageConfig}. */
+	private static final StorageConfig STORAGE = StorageConfig.fromSystemProperties();
 
+	/** Tasks the writer may fold into one group commit. */
+	private static final int MAX_WRITE_BATCH = 64;
+
+	private static volatile ConnectionPool pool;
+	private static volatile WriteQueue writer;
+
+	// time spent waiting for a pooled connection, and for a write to commit
+	private static final Timer GET_CONNECTION = Metrics.timer("Database.getConnection");
+	private static final Timer WRITE          = Metrics.timer("Database.write");
+
+	/**
+	 * Borrow a pooled connection. Closing it returns it to the pool, so callers
+	 * keep using try-with-resources exactly as before.
+	 */
 	public static Connection getConnection() throws SQLException {
-		return DriverManager.getConnection(DB_URL);
+		long t = GET_CONNECTION.start();
+		try {
+			return getPool().borrow();
+		} catch (SQLException ex) {
+			GET_CONNECTION.failed();
+			throw ex;
+		} finally {
+			GET_CONNECTION.stop(t);
+		}
 	}
 
-	/** Only create the users table here — everything else is in its DAO. */
-	public static void init() throws SQLException {
+	/** The shared pool, created on first use. Exposes borrow-wait and active-count metrics. */
+	public static ConnectionPool getPool() throws SQLException {
+		ConnectionPool p = pool;
+		if (p != null) return p;
+		synchronized (Database.class) {
+			if (pool == null) {
+				pool = new ConnectionPool(url, new ConnectionPool.Config()
+						.minSize(1)
+						.maxSize(8)
+						.pragmas(STORAGE.pragmas()));
+			}
+			return pool;
+		}
+	}
+
+	/** The single writer thread every DAO write goes through. */
+	public static WriteQueue getWriter() throws SQLException {
+		WriteQueue w = writer;
+		if (w != null) return w;
+		synchronized (Database.class) {
+			if (writer == null) {
+				writer = new WriteQueue(getPool(), MAX_WRITE_BATCH);
+			}
+			return writer;
+		}
+	}
+
+	/**
+	 * Run a write on the writer thread and wait until it has committed.
+	 * Concurrent callers share one commit.
+	 */
+	public static <T> T write(WriteTask<T> task) throws SQLException {
+		long t = WRITE.start();
+		try {
+			return getWriter().execute(task);
+		} catch (SQLException ex) {
+			WRITE.failed();
+			throw ex;
+		} finally {
+			WRITE.stop(t);
+		}
+	}
+
+	/**
+	 * Point the application at a different database file (benchmarks, tools).
+	 * Closes any connections to the previous one first.
+	 */
+	public static synchronized void setUrl(String jdbcUrl) {
+		shutdown();
+		url = jdbcUrl;
+	}
+
+	/** Close all pooled connections; called when the application stops. */
+	public static synchronized void shutdown() {
+		if (writer != null) {
+			writer.close();
+			writer = null;
+		}
+		if (pool != null) {
+			pool.close();
+			pool = null;
+		}
+	}
+
+	/** The JDBC URL connections are opened with. */
+	public static String getUrl() {
+		return url;
+	}
+
+	/**
+	 * The random id this database file was given when it was created (schema
+	 * migration 13). A copy of the file keeps it; a new file gets another.
+	 */
+	public static String getInstanceId() throws SQLException {
 		try (Connection conn = getConnection();
-			 Statement stmt = conn.createStatement()) {
-			stmt.execute("""
-        CREATE TABLE IF NOT EXISTS users (
-          username       TEXT    PRIMARY KEY,
-          password       TEXT    NOT NULL,
-          preferred_name TEXT    NOT NULL
-        )
-        """);
+			 Statement stmt = conn.createStatement();
+			 ResultSet rs = stmt.executeQuery("SELECT instance FROM database_info WHERE id = 1")) {
+			if (!rs.next()) throw new SQLException("database_info has no row; is the schema migrated?");
+			return rs.getString(1);
 		}
 	}
+
+	/** Create or upgrade every table; see {@link Schema} and {@link SchemaMigrator}. */
+	public static void init() throws SQLException {
+		new SchemaMigrator(Schema.MIGRATIONS).migrate();
+	}
 }
@@ -0,0 +1,21 @@
+package dao;
+
+import java.sql.SQLException;
+
+/**
+ * Raised by {@link EventDao} when an insert or update would give two events
+ * the same name, venue and day, which the {@code events_key} index forbids.
+ */
+public class DuplicateEventException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    public DuplicateEventException(String name, String venue, String day, SQLException cause) {
+        super("An event named '" + name + "' at " + venue + " on " + day + " already exists", cause);
+    }
+
+    /** True if {@code ex} is SQLite refusing a row because of the events_key index. */
+    static boolean isDuplicateKey(SQLException ex) {
+        String msg = ex.getMessage();
+        return msg != null && msg.contains("UNIQUE constraint failed: events.name");
+    }
+}
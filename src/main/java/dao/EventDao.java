@@ -2,23 +2,82 @@ package dao;
 
 import model.Event;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * DAO for the event catalog. The {@code ...Async} variants run the blocking
+ * call on a virtual thread (see {@link DaoExecutor}).
+ */
 public interface EventDao {
-    /** Ensure the table exists and is populated from events.dat if empty */
+    /** Populate the table from events.dat if it is empty */
     void setup() throws SQLException, IOException;
 
+    /**
+     * Apply a catalog feed (events.dat format) to the table: new shows are
+     * inserted, changed prices and seat counts updated, the rest left alone.
+     */
+    CatalogLoadReport importCatalog(Path feed) throws SQLException, IOException;
+
     /** Fetch all events (with current remainingSeats) */
     List<Event> getAll() throws SQLException;
 
+    /**
+     * The catalog version: it goes up on every insert, update or delete of an
+     * event, by whatever writer, so a reader can tell whether it is current.
+     */
+    long getCatalogVersion() throws SQLException;
+
+    /**
+     * Rows changed after {@code version}, and ids deleted since; pass 0 for
+     * the whole catalog. The result is one consistent snapshot, tagged with
+     * the version it brings the reader up to.
+     */
+    CatalogChanges getChangesSince(long version) throws SQLException;
+
     /** Update the remainingSeats for a single event */
     void updateRemainingSeats(int eventId, int seatsLeft) throws SQLException;
     void updateDisabled(int eventId, boolean disabled) throws SQLException;
     // dao/EventDao.java
+    /** @throws DuplicateEventException if the name, venue and day are taken */
     void insertEvent(Event e) throws SQLException;
     void deleteEvent(int eventId) throws SQLException;
-    void updateEvent(Event e) throws SQLException;
+    /**
+     * Rewrite an event's name, date, venue and price, and move its seat
+     * count by {@code seatDelta} (never below zero) from whatever it is now.
+     *
+     * @return the seats left afterwards, or -1 if there is no such event
+     * @throws DuplicateEventException if the name, venue and day are taken
+     */
+    int updateEvent(Event e, int seatDelta) throws SQLException;
+
+    // ─── Async variants ───────────────────────────────────────────────────────
+
+    default CompletableFuture<List<Event>> getAllAsync() {
+        return DaoExecutor.submit(this::getAll);
+    }
+
+    default CompletableFuture<CatalogChanges> getChangesSinceAsync(long version) {
+        return DaoExecutor.submit(() -> getChangesSince(version));
+    }
+
+    default CompletableFuture<Void> updateDisabledAsync(int eventId, boolean disabled) {
+        return DaoExecutor.submitUninterruptibly(() -> { updateDisabled(eventId, disabled); return null; });
+    }
+
+    /** Fails with {@link DuplicateEventException} like {@link #insertEvent}. */
+    default CompletableFuture<Void> insertEventAsync(Event e) {
+        return DaoExecutor.submitUninterruptibly(() -> { insertEvent(e); return null; });
+    }
 
+    default CompletableFuture<Void> deleteEventAsync(int eventId) {
+        return DaoExecutor.submitUninterruptibly(() -> { deleteEvent(eventId); return null; });
+    }
 
+    /** Fails with {@link DuplicateEventException} like {@link #updateEvent}. */
+    default CompletableFuture<Integer> updateEventAsync(Event e, int seatDelta) {
+        return DaoExecutor.submitUninterruptibly(() -> updateEvent(e, seatDelta));
+    }
 }
@@ -2,82 +2,46 @@ package dao;
 
 import model.Event;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 public class EventDaoImpl implements EventDao {
     private static final String TABLE = "events";
 
+    private final CatalogLoader catalogLoader = new CatalogLoader();
+
     @Override
     public void setup() throws SQLException, IOException {
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement()) {
-
-            // 1. Create table if needed (with disabled column)
-            stmt.executeUpdate(
-                    "CREATE TABLE IF NOT EXISTS " + TABLE + " ("
-                            + "id              INTEGER PRIMARY KEY, "
-                            + "name            TEXT    NOT NULL, "
-                            + "date            TEXT    NOT NULL, "
-                            + "venue           TEXT    NOT NULL, "
-                            + "price           REAL    NOT NULL, "
-                            + "remainingSeats  INTEGER NOT NULL, "
-                            + "disabled        INTEGER NOT NULL DEFAULT 0"
-                            + ")"
-            );
-            // 2. In case we upgraded from an older schema, try to add the column
-            try {
-                stmt.executeUpdate(
-                        "ALTER TABLE " + TABLE
-                                + " ADD COLUMN disabled INTEGER NOT NULL DEFAULT 0"
-                );
-            } catch (SQLException ex) {
-                // already exists, ignore
+        // the table itself comes from the schema migrations
+        if (isEmpty()) {
+            try (InputStream in = getClass().getResourceAsStream("/events.dat")) {
+                if (in == null) throw new IOException("events.dat not found on the class path");
+                catalogLoader.load(in, CatalogLoader.Mode.SEED);
             }
         }
+    }
 
-        // 3. Seed from events.dat if empty
+    // one row is enough to know; COUNT(*) would walk the whole table on every startup
+    private boolean isEmpty() throws SQLException {
         try (Connection conn = Database.getConnection();
              Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + TABLE)) {
+             ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM " + TABLE + ")")) {
             rs.next();
-            if (rs.getInt(1) == 0) {
-                try (InputStream in = getClass().getResourceAsStream("/events.dat");
-                     BufferedReader reader = new BufferedReader(new InputStreamReader(in));
-                     PreparedStatement ins = conn.prepareStatement(
-                             "INSERT INTO " + TABLE +
-                                     "(id,name,date,venue,price,remainingSeats) VALUES (?,?,?,?,?,?)"
-                     )) {
-                    String line;
-                    int id = 1;
-                    while ((line = reader.readLine()) != null) {
-                        String[] p = line.split(";");
-                        String name    = p[0];
-                        String venue   = p[1];
-                        String day     = p[2];
-                        double price   = Double.parseDouble(p[3]);
-                        int sold       = Integer.parseInt(p[4]);
-                        int capacity   = Integer.parseInt(p[5]);
-                        int remaining  = capacity - sold;
-
-                        ins.setInt   (1, id++);
-                        ins.setString(2, name);
-                        ins.setString(3, day);
-                        ins.setString(4, venue);
-                        ins.setDouble(5, price);
-                        ins.setInt   (6, remaining);
-                        ins.executeUpdate();
-                    }
-                }
-            }
+            return rs.getInt(1) == 0;
         }
     }
 
+    @Override
+    public CatalogLoadReport importCatalog(Path feed) throws SQLException, IOException {
+        return catalogLoader.load(feed, CatalogLoader.Mode.UPSERT);
+    }
+
     @Override
     public List<Event> getAll() throws SQLException {
         List<Event> list = new ArrayList<>();
@@ -85,88 +49,170 @@ public class EventDaoImpl implements EventDao {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery("SELECT * FROM " + TABLE)) {
             while (rs.next()) {
-                list.add(new Event(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("date"),
-                        rs.getString("venue"),
-                        rs.getDouble("price"),
-                        rs.getInt("remainingSeats"),
-                        rs.getInt("disabled") != 0      // pass disabled flag
-                ));
+                list.add(read(rs));
             }
         }
         return list;
     }
 
     @Override
-    public void updateRemainingSeats(int eventId, int seatsLeft) throws SQLException {
+    public long getCatalogVersion() throws SQLException {
         try (Connection conn = Database.getConnection();
-             PreparedStatement pst = conn.prepareStatement(
-                     "UPDATE " + TABLE + " SET remainingSeats = ? WHERE id = ?"
-             )) {
-            pst.setInt(1, seatsLeft);
-            pst.setInt(2, eventId);
-            pst.executeUpdate();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM catalog_clock WHERE id = 1")) {
+            return rs.next() ? rs.getLong(1) : 0;
         }
     }
 
     @Override
-    public void updateDisabled(int eventId, boolean disabled) throws SQLException {
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pst = conn.prepareStatement(
-                     "UPDATE " + TABLE + " SET disabled = ? WHERE id = ?"
-             )) {
-            pst.setInt(1, disabled ? 1 : 0);
-            pst.setInt(2, eventId);
-            pst.executeUpdate();
+    public CatalogChanges getChangesSince(long version) throws SQLException {
+        try (Connection conn = Database.getConnection()) {
+            // one read transaction: the clock, the rows and the tombstones all
+            // come from the same snapshot (the pool rolls it back on return)
+            conn.setAutoCommit(false);
+            long now;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT version FROM catalog_clock WHERE id = 1")) {
+                now = rs.next() ? rs.getLong(1) : 0;
+            }
+            // no ORDER BY: SQLite would rather scan the table in id order than
+            // use events_version, so sorting happens here
+            List<Event> changed = new ArrayList<>();
+            try (PreparedStatement pst = conn.prepareStatement(
+                    "SELECT * FROM " + TABLE + " WHERE version > ?")) {
+                pst.setLong(1, version);
+                try (ResultSet rs = pst.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(read(rs));
+                    }
+                }
+            }
+            int[] removed = new int[16];
+            int n = 0;
+            try (PreparedStatement pst = conn.prepareStatement(
+                    "SELECT event_id FROM event_tombstones WHERE version > ?")) {
+                pst.setLong(1, version);
+                try (ResultSet rs = pst.executeQuery()) {
+                    while (rs.next()) {
+                        if (n == removed.length) removed = Arrays.copyOf(removed, n * 2);
+                        removed[n++] = rs.getInt(1);
+                    }
+                }
+            }
+            changed.sort(Comparator.comparingInt(Event::getId));
+            removed = Arrays.copyOf(removed, n);
+            Arrays.sort(removed);
+            return new CatalogChanges(now, changed, removed);
         }
     }
 
+    private static Event read(ResultSet rs) throws SQLException {
+        return new Event(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("date"),
+                rs.getString("venue"),
+                rs.getDouble("price"),
+                rs.getInt("remainingSeats"),
+                rs.getInt("disabled") != 0      // pass disabled flag
+        );
+    }
+
+    @Override
+    public void updateRemainingSeats(int eventId, int seatsLeft) throws SQLException {
+        Database.write(conn -> {
+            try (PreparedStatement pst = conn.prepareStatement(
+                    "UPDATE " + TABLE + " SET remainingSeats = ? WHERE id = ?"
+            )) {
+                pst.setInt(1, seatsLeft);
+                pst.setInt(2, eventId);
+                return pst.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public void updateDisabled(int eventId, boolean disabled) throws SQLException {
+        Database.write(conn -> {
+            try (PreparedStatement pst = conn.prepareStatement(
+                    "UPDATE " + TABLE + " SET disabled = ? WHERE id = ?"
+            )) {
+                pst.setInt(1, disabled ? 1 : 0);
+                pst.setInt(2, eventId);
+                return pst.executeUpdate();
+            }
+        });
+    }
+
     // dao/EventDaoImpl.java
 
     @Override
     public void insertEvent(Event e) throws SQLException {
         String sql = "INSERT INTO " + TABLE +
                 " (name,date,venue,price,remainingSeats,disabled) VALUES (?,?,?,?,?,0)";
-        try (PreparedStatement pst = Database.getConnection().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pst.setString(1, e.getName());
-            pst.setString(2, e.getDate());
-            pst.setString(3, e.getVenue());
-            pst.setDouble(4, e.getPrice());
-            pst.setInt(5, e.getRemainingSeats());
-            pst.executeUpdate();
-            try (ResultSet rs = pst.getGeneratedKeys()) {
-                if (rs.next()) {
-                    e.idProperty().set(rs.getInt(1));
+        int id;
+        try {
+            id = Database.write(conn -> {
+                try (PreparedStatement pst = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    pst.setString(1, e.getName());
+                    pst.setString(2, e.getDate());
+                    pst.setString(3, e.getVenue());
+                    pst.setDouble(4, e.getPrice());
+                    pst.setInt(5, e.getRemainingSeats());
+                    pst.executeUpdate();
+                    try (ResultSet rs = pst.getGeneratedKeys()) {
+                        return rs.next() ? rs.getInt(1) : 0;
+                    }
                 }
-            }
+            });
+        } catch (SQLException ex) {
+            throw duplicateOr(ex, e);
+        }
+        if (id != 0) {
+            e.setId(id);
         }
     }
 
     @Override
     public void deleteEvent(int eventId) throws SQLException {
         String sql = "DELETE FROM " + TABLE + " WHERE id = ?";
-        try (PreparedStatement pst = Database.getConnection().prepareStatement(sql)) {
-            pst.setInt(1, eventId);
-            pst.executeUpdate();
-        }
+        Database.write(conn -> {
+            try (PreparedStatement pst = conn.prepareStatement(sql)) {
+                pst.setInt(1, eventId);
+                return pst.executeUpdate();
+            }
+        });
     }
 
     @Override
-    public void updateEvent(Event e) throws SQLException {
+    public int updateEvent(Event e, int seatDelta) throws SQLException {
+        // relative, so sales committed since the editor read the count stay sold
         String sql = "UPDATE " + TABLE +
-                " SET name=?, date=?, venue=?, price=?, remainingSeats=?" +
-                " WHERE id=?";
-        try (PreparedStatement pst = Database.getConnection().prepareStatement(sql)) {
-            pst.setString(1, e.getName());
-            pst.setString(2, e.getDate());
-            pst.setString(3, e.getVenue());
-            pst.setDouble(4, e.getPrice());
-            pst.setInt(5, e.getRemainingSeats());
-            pst.setInt(6, e.getId());
-            pst.executeUpdate();
+                " SET name=?, date=?, venue=?, price=?, remainingSeats=MAX(0, remainingSeats + ?)" +
+                " WHERE id=? RETURNING remainingSeats";
+        try {
+            return Database.write(conn -> {
+                try (PreparedStatement pst = conn.prepareStatement(sql)) {
+                    pst.setString(1, e.getName());
+                    pst.setString(2, e.getDate());
+                    pst.setString(3, e.getVenue());
+                    pst.setDouble(4, e.getPrice());
+                    pst.setInt(5, seatDelta);
+                    pst.setInt(6, e.getId());
+                    try (ResultSet rs = pst.executeQuery()) {
+                        return rs.next() ? rs.getInt(1) : -1;
+                    }
+                }
+            });
+        } catch (SQLException ex) {
+            throw duplicateOr(ex, e);
         }
     }
 
+    private static SQLException duplicateOr(SQLException ex, Event e) {
+        return DuplicateEventException.isDuplicateKey(ex)
+                ? new DuplicateEventException(e.getName(), e.getVenue(), e.getDate(), ex)
+                : ex;
+    }
+
 }
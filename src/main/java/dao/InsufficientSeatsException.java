@@ -0,0 +1,27 @@
+package dao;
+
+import java.sql.SQLException;
+
+/**
+ * Raised by {@link CheckoutDao#checkout} when the database rejects a seat
+ * decrement, so the caller can tell the user exactly which line failed.
+ */
+public class InsufficientSeatsException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    private final int lineIndex;
+    private final int eventId;
+    private final int requested;
+
+    public InsufficientSeatsException(int lineIndex, int eventId, int requested) {
+        super("Not enough seats left for event " + eventId + " (requested " + requested + ")");
+        this.lineIndex = lineIndex;
+        this.eventId = eventId;
+        this.requested = requested;
+    }
+
+    /** Position of the failing line in the order's item list. */
+    public int getLineIndex() { return lineIndex; }
+    public int getEventId()   { return eventId; }
+    public int getRequested() { return requested; }
+}
@@ -0,0 +1,51 @@
+package dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * One step of the schema history, applied by {@link SchemaMigrator}.
+ * <p>
+ * Once a migration has shipped it must never be edited: the checksum of its
+ * SQL is stored when it runs, and startup refuses a database whose recorded
+ * checksum no longer matches. Change the schema by appending a new version.
+ *
+ * @param version     position in the history, starting at 1 with no gaps
+ * @param description shown in the log and stored in {@code schema_version}
+ * @param skipIf      optional query; if it returns a row, the statements are
+ *                    not run (the change is already there) but the version is
+ *                    still recorded. For changes SQLite has no
+ *                    {@code IF NOT EXISTS} form for, like ADD COLUMN.
+ * @param statements  run in order, in one transaction together with the
+ *                    {@code schema_version} row
+ */
+public record Migration(int version, String description, String skipIf, List<String> statements) {
+
+    public Migration {
+        if (version < 1) throw new IllegalArgumentException("Migration versions start at 1: " + version);
+        statements = List.copyOf(statements);
+    }
+
+    public static Migration of(int version, String description, String... statements) {
+        return new Migration(version, description, null, List.of(statements));
+    }
+
+    /** A migration that is skipped when {@code skipIf} finds a row. */
+    public static Migration unless(int version, String description, String skipIf, String... statements) {
+        return new Migration(version, description, skipIf, List.of(statements));
+    }
+
+    /** CRC32 of the guard and the statements, as stored in {@code schema_version}. */
+    public long checksum() {
+        CRC32 crc = new CRC32();
+        if (skipIf != null) update(crc, skipIf);
+        for (String s : statements) update(crc, s);
+        return crc.getValue();
+    }
+
+    private static void update(CRC32 crc, String sql) {
+        crc.update(sql.strip().getBytes(StandardCharsets.UTF_8));
+        crc.update('\n');
+    }
+}
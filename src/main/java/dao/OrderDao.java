@@ -1,20 +1,81 @@
 package dao;
 
 import model.Order;
+import model.OrderSummary;
+import model.UserOrderSummary;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * DAO for persisting and loading order history.
+ * <p>
+ * The {@code ...Async} variants run the blocking call on a virtual thread
+ * (see {@link DaoExecutor}) and complete with its result or exception.
  */
 public interface OrderDao {
-    /** Create tables if they don’t already exist. */
-    void setup() throws SQLException, IOException;
-
-    /** Save a single order (and its items) to the database. */
+    /**
+     * Save a single order (and its items) to the database, and add it to its
+     * user's summary.
+     */
     void saveOrder(Order order) throws SQLException;
 
     /** Load all orders (with their items) in reverse‐chronological order. */
     List<Order> getAllOrders() throws SQLException;
+
+    /**
+     * One page of order history, newest first, with item names and seat
+     * counts aggregated per order. Pages are keyed on the last order shown,
+     * so each page costs the same however deep into the history it is.
+     *
+     * @param username only this user's orders, read through the user's own
+     *                 index; null for every order
+     * @param beforeId id of the last order of the previous page; only older
+     *                 orders are returned. 0 for the first page
+     * @param limit    page size
+     * @param from     earliest timestamp (inclusive), or null
+     * @param to       latest timestamp (exclusive), or null
+     */
+    List<OrderSummary> getOrderPage(String username, int beforeId, int limit,
+                                    LocalDateTime from, LocalDateTime to)
+            throws SQLException;
+
+    /**
+     * Walk orders and their items, newest first, on one open cursor.
+     * Rows are handed to the visitor as they are read, so memory use does
+     * not depend on how many orders there are.
+     *
+     * @param username only this user's orders; null for every order
+     */
+    void streamOrders(String username, OrderVisitor visitor) throws SQLException, IOException;
+
+    /** Number of orders of one user (or all, for null), for progress reporting. */
+    int countOrders(String username) throws SQLException;
+
+    /** A user's totals, one primary-key read; {@link UserOrderSummary#EMPTY} if they have no orders. */
+    UserOrderSummary getUserSummary(String username) throws SQLException;
+
+    /** Number of the most recently saved order, or 0 if there are none. */
+    int getLatestOrderNumber() throws SQLException;
+
+    // ─── Async variants ───────────────────────────────────────────────────────
+
+    default CompletableFuture<Void> saveOrderAsync(Order order) {
+        return DaoExecutor.submitUninterruptibly(() -> { saveOrder(order); return null; });
+    }
+
+    default CompletableFuture<List<Order>> getAllOrdersAsync() {
+        return DaoExecutor.submit(this::getAllOrders);
+    }
+
+    default CompletableFuture<List<OrderSummary>> getOrderPageAsync(
+            String username, int beforeId, int limit, LocalDateTime from, LocalDateTime to) {
+        return DaoExecutor.submit(() -> getOrderPage(username, beforeId, limit, from, to));
+    }
+
+    default CompletableFuture<UserOrderSummary> getUserSummaryAsync(String username) {
+        return DaoExecutor.submit(() -> getUserSummary(username));
+    }
 }
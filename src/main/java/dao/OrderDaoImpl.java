@@ -3,13 +3,17 @@ package dao;
 import model.CartItem;
 import model.Event;
 import model.Order;
+import model.OrderSummary;
+import model.UserOrderSummary;
 
 import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class OrderDaoImpl implements OrderDao {
     private static final String ORDERS_TABLE = "orders";
@@ -17,43 +21,40 @@ public class OrderDaoImpl implements OrderDao {
     // ISO format for storing timestamps
     private static final DateTimeFormatter FMT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
-    @Override
-    public void setup() throws SQLException, IOException {
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement()) {
-
-            // create orders table
-            stmt.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS orders (
-                  id            INTEGER PRIMARY KEY AUTOINCREMENT,
-                  order_number  TEXT    NOT NULL,
-                  timestamp     TEXT    NOT NULL,
-                  total         REAL    NOT NULL
-                )
-            """);
-
-            // create order_items table
-            stmt.executeUpdate("""
-                CREATE TABLE IF NOT EXISTS order_items (
-                  order_id    INTEGER NOT NULL REFERENCES orders(id),
-                  event_id    INTEGER NOT NULL REFERENCES events(id),
-                  quantity    INTEGER NOT NULL,
-                  PRIMARY KEY (order_id, event_id)
-                )
-            """);
-        }
-    }
+    // one order more on the user's totals; the first order creates the row
+    private static final String ADD_TO_SUMMARY_SQL = """
+        INSERT INTO user_order_summary(user_id, order_count, total_spent, seats_booked)
+        VALUES(?, 1, ?, ?)
+        ON CONFLICT(user_id) DO UPDATE SET
+          order_count  = order_count + 1,
+          total_spent  = total_spent + excluded.total_spent,
+          seats_booked = seats_booked + excluded.seats_booked
+        """;
 
     @Override
     public void saveOrder(Order order) throws SQLException {
-        String insertOrderSql = "INSERT INTO orders(order_number, timestamp, total) VALUES(?,?,?)";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pst = conn.prepareStatement(insertOrderSql, Statement.RETURN_GENERATED_KEYS)) {
+        Database.write(conn -> {
+            insertOrder(conn, order);
+            return null;
+        });
+    }
+
+    /**
+     * Insert an order row and its items on the caller's connection, so it can
+     * share a transaction with other writes (see {@link CheckoutDaoImpl}).
+     * The user's summary row and the sales totals are updated in the same
+     * transaction, so they never disagree with the orders table.
+     */
+    static void insertOrder(Connection conn, Order order) throws SQLException {
+        String insertOrderSql =
+                "INSERT INTO orders(order_number, timestamp, total, user_id) VALUES(?,?,?,?)";
+        try (PreparedStatement pst = conn.prepareStatement(insertOrderSql, Statement.RETURN_GENERATED_KEYS)) {
 
             // order_number e.g. "0001"
             pst.setString(1, String.format("%04d", order.getOrderNumber()));
             pst.setString(2, order.getTimestamp().format(FMT));
             pst.setDouble(3, order.getTotal());
+            pst.setString(4, order.getUsername());
             pst.executeUpdate();
 
             // grab the generated PK
@@ -65,73 +66,77 @@ public class OrderDaoImpl implements OrderDao {
 
                 // now insert each item
                 String insertItemSql =
-                        "INSERT INTO order_items(order_id, event_id, quantity) VALUES(?,?,?)";
+                        "INSERT INTO order_items(order_id, event_id, quantity, price) VALUES(?,?,?,?)";
                 try (PreparedStatement ipst = conn.prepareStatement(insertItemSql)) {
                     for (CartItem ci : order.getItems()) {
                         ipst.setInt(1, orderId);
                         ipst.setInt(2, ci.getEvent().getId());
                         ipst.setInt(3, ci.getQuantity());
+                        ipst.setDouble(4, ci.getEvent().getPrice());
                         ipst.addBatch();
                     }
                     ipst.executeBatch();
                 }
             }
         }
+
+        if (order.getUsername() != null) {
+            int seats = 0;
+            for (CartItem ci : order.getItems()) seats += ci.getQuantity();
+            try (PreparedStatement pst = conn.prepareStatement(ADD_TO_SUMMARY_SQL)) {
+                pst.setString(1, order.getUsername());
+                pst.setDouble(2, order.getTotal());
+                pst.setInt(3, seats);
+                pst.executeUpdate();
+            }
+        }
+
+        SalesDaoImpl.addOrder(conn, order);
     }
 
     @Override
     public List<Order> getAllOrders() throws SQLException {
         List<Order> orders = new ArrayList<>();
+        // PK -> Order, so each joined row finds its parent in O(1)
+        Map<Integer, Order> byId = new HashMap<>();
+        // one Event instance per event id, shared by every item that references it
+        Map<Integer, Event> events = new HashMap<>();
 
-        // 1) load orders themselves, newest first
-        String loadOrdersSql =
-                "SELECT id, order_number, timestamp, total\n" +
-                        "  FROM orders\n" +
-                        " ORDER BY id DESC";
+        // one streamed pass: each order row repeats once per item, newest first;
+        // the LEFT JOINs keep orders whose items or events are gone
+        String sql = """
+            SELECT o.id, o.order_number, o.timestamp, o.total, o.user_id,
+                   oi.event_id, oi.quantity,
+                   e.id AS e_id, e.name, e.date, e.venue, e.price, e.remainingSeats
+              FROM orders o
+              LEFT JOIN order_items oi ON oi.order_id = o.id
+              LEFT JOIN events e       ON e.id = oi.event_id
+             ORDER BY o.id DESC
+            """;
         try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(loadOrdersSql)) {
-
-            while (rs.next()) {
-                int    num = Integer.parseInt(rs.getString("order_number"));
-                LocalDateTime ts =
-                        LocalDateTime.parse(rs.getString("timestamp"), FMT);
-                double tot = rs.getDouble("total");
-                orders.add(new Order(num, ts, new ArrayList<>(), tot));
-            }
-        }
+             Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(500);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    Order o = byId.get(id);
+                    if (o == null) {
+                        int    num = Integer.parseInt(rs.getString("order_number"));
+                        LocalDateTime ts =
+                                LocalDateTime.parse(rs.getString("timestamp"), FMT);
+                        double tot = rs.getDouble("total");
+                        o = new Order(num, ts, rs.getString("user_id"), new ArrayList<>(), tot);
+                        byId.put(id, o);
+                        orders.add(o);
+                    }
 
-        if (orders.isEmpty()) {
-            return orders;
-        }
+                    // no item on this row, or its event was deleted
+                    int eventId = rs.getInt("e_id");
+                    if (rs.wasNull()) continue;
 
-        // 2) load all items for these orders
-        String loadItemsSql = """
-            SELECT oi.order_id, oi.event_id, oi.quantity,
-                   e.name, e.date, e.venue, e.price, e.remainingSeats
-              FROM order_items oi
-              JOIN events e ON oi.event_id = e.id
-             ORDER BY oi.order_id DESC
-            """;
-        try (Connection conn = Database.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(loadItemsSql)) {
-
-            while (rs.next()) {
-                int orderId  = rs.getInt("order_id");
-                int eventId  = rs.getInt("event_id");
-                int quantity = rs.getInt("quantity");
-
-                // find the matching Order in our list (by insertion order == DB id DESC)
-                for (Order o : orders) {
-                    // order.getOrderNumber() was the formatted 4‐digit code, not the PK,
-                    // so we pull the PK via helper if needed:
-                    int oNum = o.getOrderNumber();
-                    // we stored string‐formatted 4‐digits in DB
-                    String dbNum = String.format("%04d", oNum);
-                    if (dbNum.equals(getOrderNumberById(conn, orderId))) {
-                        // reconstitute Event
-                        Event e = new Event(
+                    Event e = events.get(eventId);
+                    if (e == null) {
+                        e = new Event(
                                 eventId,
                                 rs.getString("name"),
                                 rs.getString("date"),
@@ -139,9 +144,9 @@ public class OrderDaoImpl implements OrderDao {
                                 rs.getDouble("price"),
                                 rs.getInt("remainingSeats")
                         );
-                        o.getItems().add(new CartItem(e, quantity));
-                        break;
+                        events.put(eventId, e);
                     }
+                    o.getItems().add(new CartItem(e, rs.getInt("quantity")));
                 }
             }
         }
@@ -149,15 +154,144 @@ public class OrderDaoImpl implements OrderDao {
         return orders;
     }
 
-    /** Helper to look up the 4‐digit order_number by the PK id. */
-    private String getOrderNumberById(Connection conn, int id) throws SQLException {
-        try (PreparedStatement pst = conn.prepareStatement(
-                "SELECT order_number FROM orders WHERE id = ?")) {
-            pst.setInt(1, id);
+    @Override
+    public List<OrderSummary> getOrderPage(String username, int beforeId, int limit,
+                                           LocalDateTime from, LocalDateTime to)
+            throws SQLException {
+        // walk the orders_timestamp index newest first (its entries end in the
+        // id, which breaks ties) and stop after one page, so a date range
+        // narrows the walk instead of adding a sort. The cursor row's own
+        // timestamp is looked up by id. Each row's names and seat count are
+        // two index lookups on order_items. Items whose event was deleted
+        // don't count, as in getAllOrders. Timestamps are ISO strings, so
+        // text comparison is time order. For one user the walk is over
+        // orders_user instead, which holds only their orders.
+        StringBuilder sql = new StringBuilder("""
+            SELECT o.id, o.order_number, o.timestamp, o.total,
+                   (SELECT GROUP_CONCAT(e.name, ', ' ORDER BY oi.event_id)
+                      FROM order_items oi JOIN events e ON e.id = oi.event_id
+                     WHERE oi.order_id = o.id) AS names,
+                   (SELECT COALESCE(SUM(oi.quantity), 0)
+                      FROM order_items oi JOIN events e ON e.id = oi.event_id
+                     WHERE oi.order_id = o.id) AS seats
+              FROM orders o
+             WHERE 1 = 1
+            """);
+        if (username != null) sql.append(" AND o.user_id = ?");
+        if (beforeId > 0) {
+            sql.append(" AND (o.timestamp, o.id) < (SELECT timestamp, id FROM orders WHERE id = ?)");
+        }
+        if (from != null) sql.append(" AND o.timestamp >= ?");
+        if (to != null)   sql.append(" AND o.timestamp < ?");
+        sql.append(" ORDER BY o.timestamp DESC, o.id DESC LIMIT ?");
+
+        List<OrderSummary> rows = new ArrayList<>(limit);
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pst = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            if (username != null) pst.setString(i++, username);
+            if (beforeId > 0) pst.setInt(i++, beforeId);
+            if (from != null) pst.setString(i++, from.format(FMT));
+            if (to != null)   pst.setString(i++, to.format(FMT));
+            pst.setInt(i, limit);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    String names = rs.getString("names");
+                    rows.add(new OrderSummary(
+                            rs.getInt("id"),
+                            rs.getString("order_number"),
+                            LocalDateTime.parse(rs.getString("timestamp"), FMT),
+                            names == null ? "" : names,
+                            rs.getInt("seats"),
+                            rs.getDouble("total")
+                    ));
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public void streamOrders(String username, OrderVisitor visitor) throws SQLException, IOException {
+        // same join as getAllOrders, but only the columns an export needs;
+        // orders are read newest first by rowid (or, for one user, down
+        // orders_user) and items by their primary key, so SQLite steps
+        // through it without sorting or buffering
+        String sql = username == null ? """
+            SELECT o.id, o.order_number, o.timestamp, o.total,
+                   e.name, oi.quantity
+              FROM orders o
+              LEFT JOIN order_items oi ON oi.order_id = o.id
+              LEFT JOIN events e       ON e.id = oi.event_id
+             ORDER BY o.id DESC
+            """ : """
+            SELECT o.id, o.order_number, o.timestamp, o.total,
+                   e.name, oi.quantity
+              FROM orders o
+              LEFT JOIN order_items oi ON oi.order_id = o.id
+              LEFT JOIN events e       ON e.id = oi.event_id
+             WHERE o.user_id = ?
+             ORDER BY o.timestamp DESC, o.id DESC
+            """;
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pst = conn.prepareStatement(sql)) {
+            if (username != null) pst.setString(1, username);
+            pst.setFetchSize(500);
             try (ResultSet rs = pst.executeQuery()) {
-                if (rs.next()) return rs.getString("order_number");
-                else throw new SQLException("No order_number for id " + id);
+                int current = 0;   // ids start at 1
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    if (id != current) {
+                        if (current != 0) visitor.endOrder();
+                        current = id;
+                        visitor.beginOrder(rs.getString(2), rs.getString(3), rs.getDouble(4));
+                    }
+                    // no item on this row, or its event was deleted
+                    String name = rs.getString(5);
+                    if (name != null) visitor.item(name, rs.getInt(6));
+                }
+                if (current != 0) visitor.endOrder();
             }
         }
     }
+
+    @Override
+    public int countOrders(String username) throws SQLException {
+        String sql = username == null
+                ? "SELECT COUNT(*) FROM " + ORDERS_TABLE
+                : "SELECT COUNT(*) FROM " + ORDERS_TABLE + " WHERE user_id = ?";
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pst = conn.prepareStatement(sql)) {
+            if (username != null) pst.setString(1, username);
+            try (ResultSet rs = pst.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    @Override
+    public UserOrderSummary getUserSummary(String username) throws SQLException {
+        String sql = "SELECT order_count, total_spent, seats_booked"
+                + " FROM user_order_summary WHERE user_id = ?";
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pst = conn.prepareStatement(sql)) {
+            pst.setString(1, username);
+            try (ResultSet rs = pst.executeQuery()) {
+                return rs.next()
+                        ? new UserOrderSummary(rs.getInt(1), rs.getDouble(2), rs.getInt(3))
+                        : UserOrderSummary.EMPTY;
+            }
+        }
+    }
+
+    @Override
+    public int getLatestOrderNumber() throws SQLException {
+        // newest row by primary key: an index seek, not a scan
+        try (Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT order_number FROM " + ORDERS_TABLE + " ORDER BY id DESC LIMIT 1")) {
+            return rs.next() ? Integer.parseInt(rs.getString(1)) : 0;
+        }
+    }
 }
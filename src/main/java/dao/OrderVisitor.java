@@ -0,0 +1,25 @@
+package dao;
+
+import java.io.IOException;
+
+/**
+ * Receives the order history one row at a time from
+ * {@link OrderDao#streamOrders}, without building Order objects.
+ * Values are passed as stored, so nothing is parsed that the caller
+ * doesn't need.
+ */
+public interface OrderVisitor {
+    /**
+     * A new order starts; its items follow.
+     *
+     * @param orderNumber zero-padded, e.g. "0001"
+     * @param timestamp   ISO local date-time, e.g. "2025-05-01T14:03:22.123"
+     */
+    void beginOrder(String orderNumber, String timestamp, double total) throws IOException;
+
+    /** One line of the current order. */
+    void item(String eventName, int quantity) throws IOException;
+
+    /** The current order has no more items. */
+    void endOrder() throws IOException;
+}
@@ -0,0 +1,63 @@
+package dao;
+
+import model.SalesTotal;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sales totals per event, show, venue and day.
+ * <p>
+ * Checkout adds each order to the {@code sales_summary} rows it touches in
+ * its own transaction (see {@link OrderDaoImpl#insertOrder}), so reading
+ * them costs the same however long the order history is. The history
+ * remains the source of truth: {@link #rebuild} recomputes the table from
+ * it, and {@link #computeTotals} aggregates any past range on demand.
+ */
+public interface SalesDao {
+    /**
+     * The {@code limit} rows of one breakdown with the highest revenue,
+     * highest first. Reads only those rows, through an index.
+     */
+    List<SalesTotal> getTotals(SalesTotal.Dimension by, int limit) throws SQLException;
+
+    /** Every sale together; one primary-key read. {@link SalesTotal#EMPTY} before the first order. */
+    SalesTotal getGrandTotal() throws SQLException;
+
+    /**
+     * The same breakdown computed from the orders placed in a time range,
+     * highest revenue first. Reads every order item in the range.
+     *
+     * @param from earliest timestamp (inclusive), or null
+     * @param to   latest timestamp (exclusive), or null
+     */
+    List<SalesTotal> computeTotals(SalesTotal.Dimension by, LocalDateTime from, LocalDateTime to,
+                                   int limit) throws SQLException;
+
+    /**
+     * Recompute every total from the order history, in one write
+     * transaction; checkouts wait for it. For repairs and backfills.
+     */
+    void rebuild() throws SQLException;
+
+    // ─── Async variants ───────────────────────────────────────────────────────
+
+    default CompletableFuture<List<SalesTotal>> getTotalsAsync(SalesTotal.Dimension by, int limit) {
+        return DaoExecutor.submit(() -> getTotals(by, limit));
+    }
+
+    default CompletableFuture<SalesTotal> getGrandTotalAsync() {
+        return DaoExecutor.submit(this::getGrandTotal);
+    }
+
+    default CompletableFuture<List<SalesTotal>> computeTotalsAsync(
+            SalesTotal.Dimension by, LocalDateTime from, LocalDateTime to, int limit) {
+        return DaoExecutor.submit(() -> computeTotals(by, from, to, limit));
+    }
+
+    default CompletableFuture<Void> rebuildAsync() {
+        return DaoExecutor.submitUninterruptibly(() -> { rebuild(); return null; });
+    }
+}
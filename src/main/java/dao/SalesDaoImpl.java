@@ -0,0 +1,174 @@
+package dao;
+
+import model.CartItem;
+import model.Event;
+import model.Order;
+import model.SalesTotal;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class SalesDaoImpl implements SalesDao {
+    private static final DateTimeFormatter FMT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    // one order more on a row; its first sale creates it
+    private static final String ADD_SQL = """
+        INSERT INTO sales_summary(dimension, key, revenue, seats, orders)
+        VALUES(?, ?, ?, ?, 1)
+        ON CONFLICT(dimension, key) DO UPDATE SET
+          revenue = revenue + excluded.revenue,
+          seats   = seats + excluded.seats,
+          orders  = orders + 1
+        """;
+
+    // an event's row is labelled with what it is now; deleted events by id
+    private static final String LABEL =
+            "CASE WHEN s.dimension = 'event'"
+                    + " THEN COALESCE((SELECT e.name || ' – ' || e.date || ' – ' || e.venue"
+                    + "                  FROM events e WHERE e.id = CAST(s.key AS INTEGER)),"
+                    + "               'Event #' || s.key)"
+                    + " ELSE s.key END";
+
+    /**
+     * Add an order to its rows of every breakdown, on the caller's
+     * connection and transaction. An order counts once per row however
+     * many of its lines fall in it. Revenue is price times seats per line.
+     */
+    static void addOrder(Connection conn, Order order) throws SQLException {
+        // (dimension, key) -> {revenue, seats}, in first-seen order
+        Map<List<String>, double[]> rows = new LinkedHashMap<>();
+        for (CartItem ci : order.getItems()) {
+            Event e = ci.getEvent();
+            double revenue = e.getPrice() * ci.getQuantity();
+            add(rows, SalesTotal.Dimension.ALL,   "",                          revenue, ci.getQuantity());
+            add(rows, SalesTotal.Dimension.EVENT, Integer.toString(e.getId()), revenue, ci.getQuantity());
+            add(rows, SalesTotal.Dimension.SHOW,  e.getName(),                 revenue, ci.getQuantity());
+            add(rows, SalesTotal.Dimension.VENUE, e.getVenue(),                revenue, ci.getQuantity());
+            add(rows, SalesTotal.Dimension.DAY,   e.getDate(),                 revenue, ci.getQuantity());
+        }
+        if (rows.isEmpty()) return;
+
+        try (PreparedStatement pst = conn.prepareStatement(ADD_SQL)) {
+            for (Map.Entry<List<String>, double[]> row : rows.entrySet()) {
+                pst.setString(1, row.getKey().get(0));
+                pst.setString(2, row.getKey().get(1));
+                pst.setDouble(3, row.getValue()[0]);
+                pst.setInt(4, (int) row.getValue()[1]);
+                pst.addBatch();
+            }
+            pst.executeBatch();
+        }
+    }
+
+    private static void add(Map<List<String>, double[]> rows, SalesTotal.Dimension by, String key,
+                            double revenue, int seats) {
+        double[] sums = rows.computeIfAbsent(List.of(code(by), key), k -> new double[2]);
+        sums[0] += revenue;
+        sums[1] += seats;
+    }
+
+    // the dimension column's value: "all", "event", ...
+    private static String code(SalesTotal.Dimension by) {
+        return by.name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public List<SalesTotal> getTotals(SalesTotal.Dimension by, int limit) throws SQLException {
+        // a backward walk of sales_summary_revenue within one dimension
+        String sql = "SELECT s.key, " + LABEL + ", s.revenue, s.seats, s.orders"
+                + "  FROM sales_summary s"
+                + " WHERE s.dimension = ?"
+                + " ORDER BY s.revenue DESC LIMIT ?";
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pst = conn.prepareStatement(sql)) {
+            pst.setString(1, code(by));
+            pst.setInt(2, limit);
+            return read(pst);
+        }
+    }
+
+    @Override
+    public SalesTotal getGrandTotal() throws SQLException {
+        List<SalesTotal> all = getTotals(SalesTotal.Dimension.ALL, 1);
+        return all.isEmpty() ? SalesTotal.EMPTY : all.get(0);
+    }
+
+    @Override
+    public List<SalesTotal> computeTotals(SalesTotal.Dimension by, LocalDateTime from,
+                                          LocalDateTime to, int limit) throws SQLException {
+        // the range is a walk of orders_timestamp; each order's items are
+        // found by the order_items primary key
+        StringBuilder sql = new StringBuilder("SELECT s.key, " + LABEL + ", s.revenue, s.seats, s.orders FROM (")
+                .append(aggregate(by))
+                .append(from != null ? " AND o.timestamp >= ?" : "")
+                .append(to != null ? " AND o.timestamp < ?" : "")
+                .append(" GROUP BY 2) s ORDER BY s.revenue DESC LIMIT ?");
+        try (Connection conn = Database.getConnection();
+             PreparedStatement pst = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            if (from != null) pst.setString(i++, from.format(FMT));
+            if (to != null)   pst.setString(i++, to.format(FMT));
+            pst.setInt(i, limit);
+            return read(pst);
+        }
+    }
+
+    @Override
+    public void rebuild() throws SQLException {
+        Database.write(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM sales_summary");
+                for (SalesTotal.Dimension by : SalesTotal.Dimension.values()) {
+                    stmt.executeUpdate("INSERT INTO sales_summary(dimension, key, revenue, seats, orders) "
+                            + aggregate(by) + " GROUP BY 2");
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * dimension, key, revenue, seats, orders for one breakdown, from the
+     * order history; the caller appends conditions on {@code o} and the
+     * GROUP BY. Lines sold before order_items kept the price are valued at
+     * the event's current one. Shows, venues and days come from the events
+     * table, so lines of deleted events count only in ALL and EVENT.
+     */
+    private static String aggregate(SalesTotal.Dimension by) {
+        String key = switch (by) {
+            case ALL   -> "''";
+            case EVENT -> "CAST(oi.event_id AS TEXT)";
+            case SHOW  -> "e.name";
+            case VENUE -> "e.venue";
+            case DAY   -> "e.date";
+        };
+        return "SELECT '" + code(by) + "' AS dimension, " + key + " AS key,"
+                + " SUM(oi.quantity * COALESCE(oi.price, e.price, 0)) AS revenue,"
+                + " SUM(oi.quantity) AS seats, COUNT(DISTINCT oi.order_id) AS orders"
+                + "  FROM orders o"
+                + "  JOIN order_items oi ON oi.order_id = o.id"
+                + "  LEFT JOIN events e ON e.id = oi.event_id"
+                + " WHERE " + key + " IS NOT NULL";
+    }
+
+    private static List<SalesTotal> read(PreparedStatement pst) throws SQLException {
+        List<SalesTotal> rows = new ArrayList<>();
+        try (ResultSet rs = pst.executeQuery()) {
+            while (rs.next()) {
+                rows.add(new SalesTotal(rs.getString(1), rs.getString(2),
+                        rs.getDouble(3), rs.getInt(4), rs.getInt(5)));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,243 @@
+package dao;
+
+import java.util.List;
+
+/**
+ * The database schema, as the ordered list of migrations that builds it.
+ * <p>
+ * Append new versions at the end; never edit or reorder a shipped one (see
+ * {@link Migration}). Version 1 uses {@code IF NOT EXISTS} throughout, so
+ * databases created before migrations existed adopt the history without
+ * losing data.
+ */
+public final class Schema {
+    private Schema() {}
+
+    public static final List<Migration> MIGRATIONS = List.of(
+
+            Migration.of(1, "Base tables", """
+                CREATE TABLE IF NOT EXISTS users (
+                  username       TEXT    PRIMARY KEY,
+                  password       TEXT    NOT NULL,
+                  preferred_name TEXT    NOT NULL
+                )
+            """, """
+                CREATE TABLE IF NOT EXISTS events (
+                  id              INTEGER PRIMARY KEY,
+                  name            TEXT    NOT NULL,
+                  date            TEXT    NOT NULL,
+                  venue           TEXT    NOT NULL,
+                  price           REAL    NOT NULL,
+                  remainingSeats  INTEGER NOT NULL,
+                  disabled        INTEGER NOT NULL DEFAULT 0
+                )
+            """, """
+                CREATE TABLE IF NOT EXISTS orders (
+                  id            INTEGER PRIMARY KEY AUTOINCREMENT,
+                  order_number  TEXT    NOT NULL,
+                  timestamp     TEXT    NOT NULL,
+                  total         REAL    NOT NULL
+                )
+            """, """
+                CREATE TABLE IF NOT EXISTS order_items (
+                  order_id    INTEGER NOT NULL REFERENCES orders(id),
+                  event_id    INTEGER NOT NULL REFERENCES events(id),
+                  quantity    INTEGER NOT NULL,
+                  PRIMARY KEY (order_id, event_id)
+                )
+            """, """
+                CREATE TABLE IF NOT EXISTS sequences (
+                  name        TEXT    PRIMARY KEY,
+                  next_value  INTEGER NOT NULL
+                )
+            """),
+
+            // events tables from before the admin screen lack the flag
+            Migration.unless(2, "events.disabled column",
+                    "SELECT 1 FROM pragma_table_info('events') WHERE name = 'disabled'",
+                    "ALTER TABLE events ADD COLUMN disabled INTEGER NOT NULL DEFAULT 0"),
+
+            // per-event sales, deleting an event; the primary key leads with order_id
+            Migration.of(3, "Index order_items by event",
+                    "CREATE INDEX IF NOT EXISTS order_items_event ON order_items(event_id)"),
+
+            // Older seeding could insert a show twice. Keep the copy orders
+            // refer to, else the lowest id; if orders refer to two copies the
+            // index fails and the migration stops for a manual merge.
+            Migration.of(4, "Unique events by name, venue and day", """
+                DELETE FROM events
+                 WHERE id NOT IN (SELECT event_id FROM order_items)
+                   AND EXISTS (SELECT 1 FROM events k
+                                WHERE k.name = events.name AND k.venue = events.venue
+                                  AND k.date = events.date AND k.id <> events.id
+                                  AND (k.id < events.id
+                                       OR k.id IN (SELECT event_id FROM order_items)))
+            """,
+                    "CREATE UNIQUE INDEX IF NOT EXISTS events_key ON events(name, venue, date)"),
+
+            // date filters on the history page and the export
+            Migration.of(5, "Index orders by timestamp",
+                    "CREATE INDEX IF NOT EXISTS orders_timestamp ON orders(timestamp)"),
+
+            // Orders used to have no owner. Only a single-user database can
+            // say whose they were; elsewhere they stay unowned and appear in
+            // no one's history.
+            Migration.unless(6, "orders.user_id column",
+                    "SELECT 1 FROM pragma_table_info('orders') WHERE name = 'user_id'",
+                    "ALTER TABLE orders ADD COLUMN user_id TEXT REFERENCES users(username)",
+                    """
+                UPDATE orders SET user_id = (SELECT username FROM users)
+                 WHERE user_id IS NULL AND (SELECT COUNT(*) FROM users) = 1
+            """),
+
+            // one user's history, newest first, is a walk of this index
+            Migration.of(7, "Index orders by user and timestamp",
+                    "CREATE INDEX IF NOT EXISTS orders_user ON orders(user_id, timestamp)"),
+
+            // per-user totals, maintained by checkout in the same transaction
+            Migration.of(8, "Per-user order summary", """
+                CREATE TABLE IF NOT EXISTS user_order_summary (
+                  user_id       TEXT    PRIMARY KEY REFERENCES users(username),
+                  order_count   INTEGER NOT NULL,
+                  total_spent   REAL    NOT NULL,
+                  seats_booked  INTEGER NOT NULL
+                )
+            """, """
+                INSERT OR REPLACE INTO user_order_summary(user_id, order_count, total_spent, seats_booked)
+                SELECT o.user_id, COUNT(*), SUM(o.total),
+                       COALESCE(SUM((SELECT SUM(oi.quantity) FROM order_items oi
+                                      WHERE oi.order_id = o.id)), 0)
+                  FROM orders o
+                 WHERE o.user_id IS NOT NULL
+                 GROUP BY o.user_id
+            """),
+
+            // Every change to an event stamps it with the next catalog
+            // version, and deletions leave a tombstone, so a cache can fetch
+            // just what changed since the version it holds. Triggers catch
+            // every writer: checkout, the admin screen, feeds, other processes.
+            Migration.unless(9, "Catalog versions and change triggers",
+                    "SELECT 1 FROM pragma_table_info('events') WHERE name = 'version'",
+                    """
+                CREATE TABLE IF NOT EXISTS catalog_clock (
+                  id       INTEGER PRIMARY KEY CHECK (id = 1),
+                  version  INTEGER NOT NULL
+                )
+            """,
+                    // rows already there count as changed at version 1
+                    "INSERT OR IGNORE INTO catalog_clock(id, version) VALUES (1, 1)",
+                    "ALTER TABLE events ADD COLUMN version INTEGER NOT NULL DEFAULT 0",
+                    "UPDATE events SET version = 1",
+                    "CREATE INDEX IF NOT EXISTS events_version ON events(version)",
+                    """
+                CREATE TABLE IF NOT EXISTS event_tombstones (
+                  event_id  INTEGER PRIMARY KEY,
+                  version   INTEGER NOT NULL
+                )
+            """,
+                    "CREATE INDEX IF NOT EXISTS event_tombstones_version ON event_tombstones(version)",
+                    """
+                CREATE TRIGGER IF NOT EXISTS events_versioned_insert AFTER INSERT ON events
+                BEGIN
+                  UPDATE catalog_clock SET version = version + 1;
+                  UPDATE events SET version = (SELECT version FROM catalog_clock) WHERE id = NEW.id;
+                  DELETE FROM event_tombstones WHERE event_id = NEW.id;
+                END
+            """, """
+                CREATE TRIGGER IF NOT EXISTS events_versioned_update
+                AFTER UPDATE OF name, date, venue, price, remainingSeats, disabled ON events
+                BEGIN
+                  UPDATE catalog_clock SET version = version + 1;
+                  UPDATE events SET version = (SELECT version FROM catalog_clock) WHERE id = NEW.id;
+                END
+            """, """
+                CREATE TRIGGER IF NOT EXISTS events_versioned_delete AFTER DELETE ON events
+                BEGIN
+                  UPDATE catalog_clock SET version = version + 1;
+                  INSERT OR REPLACE INTO event_tombstones(event_id, version)
+                  VALUES (OLD.id, (SELECT version FROM catalog_clock));
+                END
+            """),
+
+            // the price each line was sold at; events can be repriced later
+            Migration.unless(10, "order_items.price column",
+                    "SELECT 1 FROM pragma_table_info('order_items') WHERE name = 'price'",
+                    "ALTER TABLE order_items ADD COLUMN price REAL"),
+
+            // Revenue, seats and orders per event, show, venue and day, plus
+            // one 'all' row, maintained by checkout in the same transaction.
+            // The backfill values older lines at the event's current price.
+            Migration.of(11, "Sales totals", """
+                CREATE TABLE IF NOT EXISTS sales_summary (
+                  dimension  TEXT    NOT NULL,
+                  key        TEXT    NOT NULL,
+                  revenue    REAL    NOT NULL,
+                  seats      INTEGER NOT NULL,
+                  orders     INTEGER NOT NULL,
+                  PRIMARY KEY (dimension, key)
+                )
+            """,
+                    // top sellers of one dimension: a backward walk
+                    "CREATE INDEX IF NOT EXISTS sales_summary_revenue ON sales_summary(dimension, revenue)",
+                    // The backfill: a frozen copy of SalesDaoImpl.aggregate() for
+                    // each dimension. Show, venue and day need the event row, so
+                    // lines of deleted events count only in 'all' and 'event'.
+                    """
+                INSERT OR REPLACE INTO sales_summary(dimension, key, revenue, seats, orders)
+                SELECT 'all', '', SUM(oi.quantity * COALESCE(oi.price, e.price, 0)),
+                       SUM(oi.quantity), COUNT(DISTINCT oi.order_id)
+                  FROM order_items oi LEFT JOIN events e ON e.id = oi.event_id
+                HAVING COUNT(*) > 0
+            """, """
+                INSERT OR REPLACE INTO sales_summary(dimension, key, revenue, seats, orders)
+                SELECT 'event', CAST(oi.event_id AS TEXT), SUM(oi.quantity * COALESCE(oi.price, e.price, 0)),
+                       SUM(oi.quantity), COUNT(DISTINCT oi.order_id)
+                  FROM order_items oi LEFT JOIN events e ON e.id = oi.event_id
+                 GROUP BY oi.event_id
+            """, """
+                INSERT OR REPLACE INTO sales_summary(dimension, key, revenue, seats, orders)
+                SELECT 'show', e.name, SUM(oi.quantity * COALESCE(oi.price, e.price, 0)),
+                       SUM(oi.quantity), COUNT(DISTINCT oi.order_id)
+                  FROM order_items oi LEFT JOIN events e ON e.id = oi.event_id
+                 WHERE e.name IS NOT NULL
+                 GROUP BY e.name
+            """, """
+                INSERT OR REPLACE INTO sales_summary(dimension, key, revenue, seats, orders)
+                SELECT 'venue', e.venue, SUM(oi.quantity * COALESCE(oi.price, e.price, 0)),
+                       SUM(oi.quantity), COUNT(DISTINCT oi.order_id)
+                  FROM order_items oi LEFT JOIN events e ON e.id = oi.event_id
+                 WHERE e.venue IS NOT NULL
+                 GROUP BY e.venue
+            """, """
+                INSERT OR REPLACE INTO sales_summary(dimension, key, revenue, seats, orders)
+                SELECT 'day', e.date, SUM(oi.quantity * COALESCE(oi.price, e.price, 0)),
+                       SUM(oi.quantity), COUNT(DISTINCT oi.order_id)
+                  FROM order_items oi LEFT JOIN events e ON e.id = oi.event_id
+                 WHERE e.date IS NOT NULL
+                 GROUP BY e.date
+            """),
+
+            // Each user's unfinished cart, so it survives logout and restarts.
+            // Written behind the session (see engine.CartStore); lines keep
+            // the rowid of their first insert, which orders them by addition.
+            Migration.of(12, "Saved carts", """
+                CREATE TABLE IF NOT EXISTS cart_items (
+                  user_id   TEXT    NOT NULL REFERENCES users(username),
+                  event_id  INTEGER NOT NULL,
+                  quantity  INTEGER NOT NULL,
+                  PRIMARY KEY (user_id, event_id)
+                )
+            """),
+
+            // A random id fixed when the file is created, so files kept
+            // beside it (engine.CatalogSnapshot) can tell it from a replaced
+            // or recreated database whose versions happen to line up.
+            Migration.of(13, "Database instance id", """
+                CREATE TABLE IF NOT EXISTS database_info (
+                  id        INTEGER PRIMARY KEY CHECK (id = 1),
+                  instance  TEXT    NOT NULL
+                )
+            """,
+                    "INSERT OR IGNORE INTO database_info(id, instance) VALUES (1, lower(hex(randomblob(16))))")
+    );
+}
@@ -0,0 +1,142 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+/**
+ * Brings a database up to the latest {@link Migration} and checks that the
+ * ones it already has are the ones this code ships.
+ * <p>
+ * Applied versions are recorded in {@code schema_version} with the checksum
+ * of their SQL. On every start the recorded rows are validated first:
+ * a changed checksum, a version this code doesn't know, or a database newer
+ * than the code stops startup with an SQLException rather than running on
+ * a schema nobody tested. Pending migrations then run in version order, each
+ * as one write task, so a failure leaves the database at the previous
+ * version.
+ */
+public class SchemaMigrator {
+    private static final Logger LOG = Logger.getLogger(SchemaMigrator.class.getName());
+    private static final DateTimeFormatter FMT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(List<Migration> migrations) {
+        for (int i = 0; i < migrations.size(); i++) {
+            if (migrations.get(i).version() != i + 1) {
+                throw new IllegalArgumentException("Migration versions must run 1, 2, 3...; found "
+                        + migrations.get(i).version() + " at position " + (i + 1));
+            }
+        }
+        this.migrations = List.copyOf(migrations);
+    }
+
+    /**
+     * Validate the recorded history, then apply what is missing.
+     *
+     * @return the number of migrations applied
+     */
+    public int migrate() throws SQLException {
+        createVersionTable();
+        Map<Integer, Long> applied = applied();
+        validate(applied);
+
+        int count = 0;
+        for (Migration m : migrations) {
+            if (applied.containsKey(m.version())) continue;
+            long start = System.nanoTime();
+            boolean skipped = Database.write(conn -> apply(conn, m, start));
+            LOG.info(String.format("Schema migration %d (%s) %s in %d ms", m.version(), m.description(),
+                    skipped ? "already present" : "applied", (System.nanoTime() - start) / 1_000_000));
+            count++;
+        }
+        return count;
+    }
+
+    private void validate(Map<Integer, Long> applied) throws SQLException {
+        for (Map.Entry<Integer, Long> row : applied.entrySet()) {
+            int version = row.getKey();
+            if (version > migrations.size()) {
+                throw new SQLException("Database schema is at version " + version
+                        + " but this application only knows up to " + migrations.size()
+                        + "; it was written by a newer release");
+            }
+            Migration m = migrations.get(version - 1);
+            if (m.checksum() != row.getValue()) {
+                throw new SQLException("Schema migration " + version + " (" + m.description()
+                        + ") was changed after it was applied: recorded checksum " + row.getValue()
+                        + ", code has " + m.checksum());
+            }
+        }
+    }
+
+    /** @return true if the statements were skipped because the change was already there */
+    private static boolean apply(Connection conn, Migration m, long start) throws SQLException {
+        boolean skip = false;
+        try (Statement stmt = conn.createStatement()) {
+            if (m.skipIf() != null) {
+                try (ResultSet rs = stmt.executeQuery(m.skipIf())) {
+                    skip = rs.next();
+                }
+            }
+            if (!skip) {
+                for (String sql : m.statements()) {
+                    try {
+                        stmt.executeUpdate(sql);
+                    } catch (SQLException ex) {
+                        throw new SQLException("Schema migration " + m.version() + " ("
+                                + m.description() + ") failed: " + ex.getMessage(), ex);
+                    }
+                }
+            }
+        }
+        try (PreparedStatement pst = conn.prepareStatement(
+                "INSERT INTO schema_version(version, description, checksum, installed_on, execution_ms)"
+                        + " VALUES (?,?,?,?,?)")) {
+            pst.setInt(1, m.version());
+            pst.setString(2, m.description());
+            pst.setLong(3, m.checksum());
+            pst.setString(4, LocalDateTime.now().format(FMT));
+            pst.setLong(5, (System.nanoTime() - start) / 1_000_000);
+            pst.executeUpdate();
+        }
+        return skip;
+    }
+
+    private static void createVersionTable() throws SQLException {
+        Database.write(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                return stmt.executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                      version       INTEGER PRIMARY KEY,
+                      description   TEXT    NOT NULL,
+                      checksum      INTEGER NOT NULL,
+                      installed_on  TEXT    NOT NULL,
+                      execution_ms  INTEGER NOT NULL
+                    )
+                """);
+            }
+        });
+    }
+
+    private static Map<Integer, Long> applied() throws SQLException {
+        Map<Integer, Long> rows = new TreeMap<>();
+        try (Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                rows.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,74 @@
+package dao;
+
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out values from a {@link SequenceDao} counter, reserving them from
+ * the database a block at a time so most calls never touch the database.
+ * <p>
+ * Values are unique and increasing within a process. Values left in a
+ * block when the process exits are skipped, so the sequence can have gaps.
+ */
+public class Sequence {
+    private final SequenceDao dao;
+    private final String name;
+    private final int blockSize;
+
+    // not synchronized: a virtual thread waiting on the write queue inside a
+    // monitor would pin its carrier, and callers queue up behind the refill
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long limit;   // exclusive end of the current block
+    private long floor;   // what the database counter is known to have reached
+
+    public Sequence(SequenceDao dao, String name, int blockSize) {
+        if (blockSize < 1) throw new IllegalArgumentException("blockSize must be >= 1");
+        this.dao = dao;
+        this.name = name;
+        this.blockSize = blockSize;
+    }
+
+    /** Create the counter in the database, starting at {@code firstValue}, unless it exists. */
+    public void register(long firstValue) throws SQLException {
+        dao.register(name, firstValue);
+        assume(firstValue);
+    }
+
+    /**
+     * Take it that the counter exists and has reached {@code value},
+     * without asking the database: for a {@link #floor()} saved by an
+     * earlier run against the same database.
+     */
+    public void assume(long value) {
+        lock.lock();
+        try {
+            floor = Math.max(floor, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** No value handed out from now on, by this process or another, is below this. */
+    public long floor() {
+        lock.lock();
+        try {
+            return next < limit ? next : Math.max(floor, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long next() throws SQLException {
+        lock.lock();
+        try {
+            if (next >= limit) {
+                next = dao.allocate(name, blockSize);
+                limit = next + blockSize;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package dao;
+
+import java.sql.SQLException;
+
+/**
+ * Named counters kept in the database, shared by every process that opens
+ * the same file.
+ */
+public interface SequenceDao {
+    /** Create the named counter starting at {@code firstValue}; no-op if it already exists. */
+    void register(String name, long firstValue) throws SQLException;
+
+    /**
+     * Atomically reserve {@code blockSize} consecutive values.
+     *
+     * @return the first value of the reserved block
+     */
+    long allocate(String name, int blockSize) throws SQLException;
+}
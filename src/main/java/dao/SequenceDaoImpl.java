@@ -0,0 +1,41 @@
+package dao;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public class SequenceDaoImpl implements SequenceDao {
+    private static final String TABLE = "sequences";
+
+    @Override
+    public void register(String name, long firstValue) throws SQLException {
+        Database.write(conn -> {
+            try (PreparedStatement pst = conn.prepareStatement(
+                    "INSERT OR IGNORE INTO " + TABLE + "(name, next_value) VALUES (?, ?)")) {
+                pst.setString(1, name);
+                pst.setLong(2, firstValue);
+                return pst.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public long allocate(String name, int blockSize) throws SQLException {
+        if (blockSize < 1) throw new IllegalArgumentException("blockSize must be >= 1");
+        // a single write statement, so SQLite's write lock makes it atomic
+        // across connections and across processes sharing the file
+        return Database.write(conn -> {
+            try (PreparedStatement pst = conn.prepareStatement(
+                    "UPDATE " + TABLE + " SET next_value = next_value + ?"
+                            + " WHERE name = ? RETURNING next_value - ?")) {
+                pst.setInt(1, blockSize);
+                pst.setString(2, name);
+                pst.setInt(3, blockSize);
+                try (ResultSet rs = pst.executeQuery()) {
+                    if (!rs.next()) throw new SQLException("Unknown sequence " + name);
+                    return rs.getLong(1);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * How the SQLite file is opened: journal mode, fsync policy and lock waits.
+ * <p>
+ * The store always runs in WAL mode so readers never block behind the
+ * writer. The durability profile only decides when SQLite fsyncs.
+ */
+public class StorageConfig {
+    /** Trade-off between commit latency and what survives a power cut. */
+    public enum Durability {
+        /** fsync on every commit; nothing committed is ever lost. */
+        STRICT("FULL"),
+        /** fsync at checkpoints only; an OS crash may lose the last commits, never corrupts. */
+        BALANCED("NORMAL"),
+        /** never fsync; for benchmarks and throwaway databases. */
+        RELAXED("OFF");
+
+        private final String synchronous;
+
+        Durability(String synchronous) {
+            this.synchronous = synchronous;
+        }
+
+        public String synchronous() { return synchronous; }
+    }
+
+    /** System property used to pick a profile, e.g. {@code -Ddb.durability=strict}. */
+    public static final String DURABILITY_PROPERTY = "db.durability";
+
+    private final Durability durability;
+    private final int busyTimeoutMillis;
+    private final int walAutocheckpointPages;
+
+    public StorageConfig(Durability durability, int busyTimeoutMillis, int walAutocheckpointPages) {
+        this.durability = durability;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+        this.walAutocheckpointPages = walAutocheckpointPages;
+    }
+
+    /** BALANCED unless overridden by {@value #DURABILITY_PROPERTY}. */
+    public static StorageConfig fromSystemProperties() {
+        String value = System.getProperty(DURABILITY_PROPERTY, Durability.BALANCED.name());
+        return new StorageConfig(
+                Durability.valueOf(value.trim().toUpperCase(Locale.ROOT)), 5000, 1000);
+    }
+
+    public Durability getDurability() { return durability; }
+
+    /** PRAGMA statements for every new physical connection. */
+    public List<String> pragmas() {
+        List<String> pragmas = new ArrayList<>();
+        pragmas.add("journal_mode = WAL");
+        pragmas.add("synchronous = " + durability.synchronous());
+        pragmas.add("busy_timeout = " + busyTimeoutMillis);
+        pragmas.add("wal_autocheckpoint = " + walAutocheckpointPages);
+        pragmas.add("temp_store = MEMORY");
+        return pragmas;
+    }
+}
@@ -1,6 +1,7 @@
 package dao;
 
 import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 import model.User;
 
@@ -9,10 +10,38 @@ import model.User;
  * to a database or other persistence mechanism. 
  * the DAO maps application calls to the persistence layer and provides some specific data operations 
  * without exposing details of the database. 
+ * The {@code ...Async} variants run the blocking call on a virtual thread
+ * (see {@link DaoExecutor}).
  */
 public interface UserDao {
-	void setup() throws SQLException;
-	User getUser(String username, String password) throws SQLException;
-	User createUser(String username, String password, String preferredName)
+	/**
+	 * Look a user up by name. The password is not checked here: the returned
+	 * user carries the stored hash (or legacy plaintext) for
+	 * {@link engine.Credentials} to verify.
+	 *
+	 * @return the user, or null if there is none by that name
+	 */
+	User findUser(String username) throws SQLException;
+
+	/** Insert a user; {@code passwordHash} is stored as given. */
+	User createUser(String username, String passwordHash, String preferredName)
+			throws SQLException;
+
+	/**
+	 * Swap a stored password for a new one, only if it still equals
+	 * {@code expected}.
+	 *
+	 * @return false if the row changed (or vanished) in the meantime
+	 */
+	boolean replacePassword(String username, String expected, String replacement)
 			throws SQLException;
+
+	default CompletableFuture<User> findUserAsync(String username) {
+		return DaoExecutor.submit(() -> findUser(username));
+	}
+
+	default CompletableFuture<User> createUserAsync(String username, String passwordHash,
+													String preferredName) {
+		return DaoExecutor.submitUninterruptibly(() -> createUser(username, passwordHash, preferredName));
+	}
 }
@@ -4,7 +4,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 import model.User;
 
@@ -15,27 +14,14 @@ public class UserDaoImpl implements UserDao {
 	}
 
 	@Override
-	public void setup() throws SQLException {
-		try (Connection connection = Database.getConnection();
-			 Statement stmt = connection.createStatement()) {
-			String sql = "CREATE TABLE IF NOT EXISTS " + TABLE_NAME + " ("
-					+ "username       TEXT    PRIMARY KEY,"
-					+ "password       TEXT    NOT NULL,"
-					+ "preferred_name TEXT    NOT NULL"
-					+ ")";
-			stmt.executeUpdate(sql);
-		}
-	}
-
-	@Override
-	public User getUser(String username, String password) throws SQLException {
+	public User findUser(String username) throws SQLException {
+		// a primary-key lookup; the password is checked by the caller
 		String sql = "SELECT username, password, preferred_name "
 				+ "FROM " + TABLE_NAME + " "
-				+ "WHERE username = ? AND password = ?";
+				+ "WHERE username = ?";
 		try (Connection conn = Database.getConnection();
 			 PreparedStatement stmt = conn.prepareStatement(sql)) {
 			stmt.setString(1, username);
-			stmt.setString(2, password);
 
 			try (ResultSet rs = stmt.executeQuery()) {
 				if (rs.next()) {
@@ -51,22 +37,39 @@ public class UserDaoImpl implements UserDao {
 	}
 
 	@Override
-	public User createUser(String username, String password, String preferredName) throws SQLException {
+	public User createUser(String username, String passwordHash, String preferredName) throws SQLException {
 		String sql = "INSERT INTO " + TABLE_NAME
 				+ " (username, password, preferred_name) VALUES (?, ?, ?)";
-		try (Connection conn = Database.getConnection();
-			 PreparedStatement stmt = conn.prepareStatement(sql)) {
-			stmt.setString(1, username);
-			stmt.setString(2, password);
-			stmt.setString(3, preferredName);
-			stmt.executeUpdate();
+		Database.write(conn -> {
+			try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+				stmt.setString(1, username);
+				stmt.setString(2, passwordHash);
+				stmt.setString(3, preferredName);
+				return stmt.executeUpdate();
+			}
+		});
 
-			// return the newly created User object
-			User user = new User();
-			user.setUsername(username);
-			user.setPassword(password);
-			user.setPreferredName(preferredName);
-			return user;
-		}
+		// return the newly created User object
+		User user = new User();
+		user.setUsername(username);
+		user.setPassword(passwordHash);
+		user.setPreferredName(preferredName);
+		return user;
+	}
+
+	@Override
+	public boolean replacePassword(String username, String expected, String replacement)
+			throws SQLException {
+		String sql = "UPDATE " + TABLE_NAME + " SET password = ?"
+				+ " WHERE username = ? AND password = ?";
+		int rows = Database.write(conn -> {
+			try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+				stmt.setString(1, replacement);
+				stmt.setString(2, username);
+				stmt.setString(3, expected);
+				return stmt.executeUpdate();
+			}
+		});
+		return rows == 1;
 	}
 }
@@ -0,0 +1,195 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Funnels every write through one dedicated thread.
+ * <p>
+ * SQLite allows one writer at a time, so concurrent writers only queue on
+ * the file lock anyway. Here they queue in memory instead. The writer then
+ * drains whatever is pending and commits it as one transaction (group
+ * commit), paying for one commit and fsync per batch. Each task runs
+ * inside its own SAVEPOINT. A failing task is rolled back alone and the
+ * rest of the batch still commits. Reads don't use the queue; with WAL
+ * they keep running on pooled connections.
+ */
+public class WriteQueue implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(WriteQueue.class.getName());
+
+    /** Point-in-time view of the queue counters. */
+    public record Metrics(long tasks, long batches, long failedTasks, int pending) {
+        public double averageBatchSize() {
+            return batches == 0 ? 0 : (double) tasks / batches;
+        }
+    }
+
+    private final ConnectionPool pool;
+    private final int maxBatch;
+    private final BlockingQueue<Pending<?>> queue = new LinkedBlockingQueue<>();
+    // queued by close() to wake the writer; an interrupt could instead land
+    // in a connection borrow or a write and fail the batch it should finish
+    private final Pending<Void> wake = new Pending<>(null);
+    private final Thread writer;
+
+    private final AtomicLong tasks   = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failed  = new AtomicLong();
+    private volatile boolean closed;
+
+    public WriteQueue(ConnectionPool pool, int maxBatch) {
+        this.pool = pool;
+        this.maxBatch = maxBatch;
+        this.writer = new Thread(this::runLoop, "db-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Queue a write; the future completes once its batch has committed. */
+    public <T> CompletableFuture<T> submit(WriteTask<T> task) {
+        if (Thread.currentThread() == writer) {
+            // the writer would wait on itself
+            throw new IllegalStateException("WriteTask may not submit further writes");
+        }
+        if (closed) {
+            return CompletableFuture.failedFuture(new SQLException("Write queue is closed"));
+        }
+        Pending<T> p = new Pending<>(task);
+        queue.add(p);
+        // closed meanwhile: the writer may have made its last poll before the
+        // add. If the task is still queued, nobody will run it; fail it here
+        if (closed && queue.remove(p)) {
+            p.future.completeExceptionally(new SQLException("Write queue is closed"));
+        }
+        return p.future;
+    }
+
+    /** Queue a write and wait for it to commit, rethrowing its SQLException. */
+    public <T> T execute(WriteTask<T> task) throws SQLException {
+        try {
+            return submit(task).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for write", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof SQLException sql) throw sql;
+            if (cause instanceof RuntimeException rt) throw rt;
+            if (cause instanceof Error err) throw err;
+            throw new SQLException(cause);
+        }
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(tasks.get(), batches.get(), failed.get(), queue.size());
+    }
+
+    /** Finish everything already queued, then stop the writer thread. */
+    @Override
+    public void close() {
+        closed = true;
+        queue.add(wake);
+        try {
+            writer.join(10_000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ─── writer thread ────────────────────────────────────────────────────────
+
+    private void runLoop() {
+        List<Pending<?>> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                if (closed) {
+                    // drain what's left before exiting
+                    Pending<?> p = queue.poll();
+                    if (p == null) return;
+                    batch.add(p);
+                } else {
+                    batch.add(queue.take());
+                }
+            } catch (InterruptedException ex) {
+                continue;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            batch.remove(wake);
+            if (!batch.isEmpty()) commitBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void commitBatch(List<Pending<?>> batch) {
+        List<Object> results = new ArrayList<>(batch.size());
+        List<Throwable> errors = new ArrayList<>(batch.size());
+
+        try (Connection conn = pool.borrow()) {
+            conn.setAutoCommit(false);
+            try (Statement sp = conn.createStatement()) {
+                for (Pending<?> p : batch) {
+                    sp.execute("SAVEPOINT task");
+                    try {
+                        results.add(p.task.run(conn));
+                        errors.add(null);
+                        sp.execute("RELEASE task");
+                    } catch (SQLException | RuntimeException ex) {
+                        sp.execute("ROLLBACK TO task");
+                        sp.execute("RELEASE task");
+                        results.add(null);
+                        errors.add(ex);
+                    }
+                }
+                conn.commit();
+            } catch (Throwable ex) {
+                conn.rollback();
+                throw ex;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (Throwable ex) {
+            // nothing in this batch was committed. An Error from a task lands
+            // here too: it fails the whole batch, and the writer keeps going
+            LOG.log(Level.WARNING, "Write batch of " + batch.size() + " failed", ex);
+            failed.addAndGet(batch.size());
+            batch.forEach(p -> p.future.completeExceptionally(ex));
+            return;
+        }
+
+        batches.incrementAndGet();
+        tasks.addAndGet(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Throwable error = errors.get(i);
+            if (error != null) {
+                failed.incrementAndGet();
+                batch.get(i).future.completeExceptionally(error);
+            } else {
+                batch.get(i).complete(results.get(i));
+            }
+        }
+    }
+
+    private static final class Pending<T> {
+        final WriteTask<T> task;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Pending(WriteTask<T> task) {
+            this.task = task;
+        }
+
+        @SuppressWarnings("unchecked")
+        void complete(Object result) {
+            future.complete((T) result);
+        }
+    }
+}
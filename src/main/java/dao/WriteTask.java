@@ -0,0 +1,15 @@
+package dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A unit of work run by the {@link WriteQueue} on its connection.
+ * <p>
+ * The queue owns the transaction: a task must not commit, roll back or
+ * change auto-commit, and must not submit further writes itself.
+ */
+@FunctionalInterface
+public interface WriteTask<T> {
+    T run(Connection conn) throws SQLException;
+}
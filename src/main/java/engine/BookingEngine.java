@@ -0,0 +1,461 @@
+package engine;
+
+import dao.CartDao;
+import dao.CartDaoImpl;
+import dao.CatalogLoadReport;
+import dao.Database;
+import dao.DuplicateEventException;
+import dao.CheckoutDao;
+import dao.CheckoutDaoImpl;
+import dao.DaoExecutor;
+import dao.EventDao;
+import dao.EventDaoImpl;
+import dao.OrderDao;
+import dao.OrderDaoImpl;
+import dao.SalesDao;
+import dao.SalesDaoImpl;
+import dao.Sequence;
+import dao.SequenceDao;
+import dao.SequenceDaoImpl;
+import dao.UserDao;
+import dao.UserDaoImpl;
+import metrics.Metrics;
+import model.Event;
+import model.Order;
+import model.OrderSummary;
+import model.SalesTotal;
+import model.User;
+import model.UserOrderSummary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The booking logic with no JavaFX dependency beyond the value classes.
+ * <p>
+ * One engine is shared by everyone using the same database: it owns the DAOs
+ * and the in-memory catalog. Each logged-in user gets a {@link Session} with
+ * their own cart. {@link model.Model} adapts an engine and one session for
+ * the JavaFX screens; load tests and batch jobs can use the engine directly.
+ * <p>
+ * Operations that touch the database have {@code ...Async} variants that run
+ * on a virtual thread (see {@link DaoExecutor}), for callers such as the UI
+ * thread that must not block.
+ */
+public class BookingEngine implements AutoCloseable {
+    private static final String ORDER_NUMBER_SEQUENCE = "order_number";
+    private static final int    ORDER_NUMBER_BLOCK    = 16;
+
+    /** System property: how long cart seats stay held, in seconds (default 10 minutes). */
+    public static final String HOLD_TTL_PROPERTY = "hold.ttl.seconds";
+    private static final Duration HOLD_TTL  = Duration.ofSeconds(Long.getLong(HOLD_TTL_PROPERTY, 600));
+    private static final Duration HOLD_TICK = Duration.ofSeconds(1);
+
+    /** System property: how often cart edits are written to the saved carts, in milliseconds (default 1000). */
+    public static final String CART_FLUSH_PROPERTY = "cart.flush.millis";
+
+    // every DAO call is timed per method; see Metrics
+    private final UserDao     userDao     = Metrics.instrument(UserDao.class, new UserDaoImpl());
+    private final EventDao    eventDao    = Metrics.instrument(EventDao.class, new EventDaoImpl());
+    private final OrderDao    orderDao    = Metrics.instrument(OrderDao.class, new OrderDaoImpl());
+    private final CheckoutDao checkoutDao = Metrics.instrument(CheckoutDao.class, new CheckoutDaoImpl());
+    private final SequenceDao sequenceDao = Metrics.instrument(SequenceDao.class, new SequenceDaoImpl());
+    private final SalesDao    salesDao    = Metrics.instrument(SalesDao.class, new SalesDaoImpl());
+    private final CartDao     cartDao     = Metrics.instrument(CartDao.class, new CartDaoImpl());
+
+    // password hashing runs on its own bounded pool
+    private final Credentials credentials = Credentials.fromSystemProperties(userDao);
+
+    // order numbers (1 -> "0001", etc.), reserved from the DB in blocks
+    private final Sequence orderNumbers =
+            new Sequence(sequenceDao, ORDER_NUMBER_SEQUENCE, ORDER_NUMBER_BLOCK);
+
+    // read by every session; seats change on checkout, the rest only by admin operations
+    private final EventInventory inventory = new EventInventory();
+
+    // seats in carts; counters start from the inventory's seat counts
+    private final SeatHolds seatHolds = new SeatHolds(HOLD_TTL, HOLD_TICK, inventory::getRemainingSeats);
+
+    // keeps the inventory in step with the database by catalog version
+    private final CatalogCache catalog = new CatalogCache(eventDao, inventory, seatHolds);
+
+    // name/venue, day and price index over the catalog; follows its changes
+    private final EventSearch search = new EventSearch(inventory);
+
+    // cart edits on their way to the saved carts, written in batches
+    private final CartStore carts = new CartStore(cartDao, Long.getLong(CART_FLUSH_PROPERTY, 1000));
+
+    // the catalog and the order-number floor, saved beside the database for the next start
+    private final CatalogSnapshot snapshot = new CatalogSnapshot(catalog, inventory);
+
+    /**
+     * Migrate the schema, seed events, load the catalog (from the snapshot
+     * when it is usable), register the order-number sequence, and start the
+     * cart and snapshot writers, the search index build and the metrics
+     * log reporter
+     */
+    public void setup() throws SQLException, IOException {
+        Database.init();
+        eventDao.setup();
+
+        // ALL events (including disabled): the snapshot plus the rows changed
+        // since it, else the whole table; then follow changes by other writers
+        CatalogSnapshot.Contents saved = snapshot.read(Database.getInstanceId());
+        boolean fromSnapshot = saved != null && catalog.load(saved);
+        if (!fromSnapshot) {
+            catalog.load();
+            snapshot.changed();
+        }
+        catalog.addListener(search);
+        catalog.addListener(snapshot);
+        catalog.startRefreshing();
+
+        // first run only: continue numbering after the newest existing order.
+        // A snapshot of this database was written after that, so it's done.
+        Long orderNumber = fromSnapshot ? saved.counters().get(ORDER_NUMBER_SEQUENCE) : null;
+        if (orderNumber != null) {
+            orderNumbers.assume(orderNumber);
+        } else {
+            orderNumbers.register(orderDao.getLatestOrderNumber() + 1);
+        }
+        snapshot.counter(ORDER_NUMBER_SEQUENCE, orderNumbers::floor);
+
+        carts.start();
+        snapshot.start();
+        search.buildInBackground();
+        Metrics.startReporter();
+    }
+
+    // ─── Users & sessions ─────────────────────────────────────────────────────
+
+    public UserDao getUserDao() { return userDao; }
+
+    public Credentials getCredentials() { return credentials; }
+
+    /**
+     * Check the password off the calling thread; see {@link Credentials#authenticate}.
+     *
+     * @return completes with a session for the user holding the cart they
+     *         left (see {@link #resumeSession}), or null if the credentials
+     *         don't match
+     */
+    public CompletableFuture<Session> login(String username, String password) {
+        return credentials.authenticate(username, password)
+                .thenCompose(user -> user == null
+                        ? CompletableFuture.completedFuture(null)
+                        : resumeSessionAsync(user));
+    }
+
+    /** Start a session (with an empty cart) for an already authenticated user. */
+    public Session openSession(User user) {
+        return new Session(this, user);
+    }
+
+    /**
+     * Start a session for an already authenticated user with the cart they
+     * left, as far as its seats are still free; see {@link Session#restoreCart()}.
+     */
+    public Session resumeSession(User user) throws SQLException {
+        Session s = new Session(this, user);
+        s.restoreCart();
+        return s;
+    }
+
+    public CompletableFuture<Session> resumeSessionAsync(User user) {
+        return DaoExecutor.submit(() -> resumeSession(user));
+    }
+
+    // ─── Catalog ──────────────────────────────────────────────────────────────
+
+    /** For normal users: only _enabled_ events */
+    public List<Event> getEvents() {
+        return inventory.getEnabled();
+    }
+
+    /** For admin: all events, including disabled ones */
+    public List<Event> getAllEventsIncludingDisabled() {
+        return inventory.getAll();
+    }
+
+    /** The catalog itself, for callers that want primitive access by id. */
+    public EventInventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Enabled events by name or venue prefix, day and price range; blocks
+     * until the search index is built, see {@link #isSearchReady}.
+     */
+    public EventSearch.Result searchEvents(EventSearch.Query query, int limit) {
+        return search.search(query, limit);
+    }
+
+    /** Is the search index built, so that searching won't block? */
+    public boolean isSearchReady() {
+        return search.isReady();
+    }
+
+    /** Completes once the search index is built. */
+    public CompletableFuture<Void> whenSearchReady() {
+        return search.whenReady();
+    }
+
+    /** Version tracking and change notifications for the catalog. */
+    public CatalogCache getCatalog() {
+        return catalog;
+    }
+
+    /** Seats of this event that are neither sold nor in someone's cart. */
+    public int getAvailableSeats(Event e) {
+        return seatHolds.available(e.getId());
+    }
+
+    /**
+     * Apply a catalog feed (events.dat format) to the database, then pull
+     * just the rows it changed into memory. Seats already held in carts stay
+     * held.
+     */
+    public CatalogLoadReport importCatalog(Path feed) throws SQLException, IOException {
+        CatalogLoadReport report = eventDao.importCatalog(feed);
+        catalog.refresh();
+        return report;
+    }
+
+    // ─── Orders ───────────────────────────────────────────────────────────────
+
+    /** Return all past orders (newest first). */
+    public List<Order> getOrders() throws SQLException {
+        return orderDao.getAllOrders();
+    }
+
+    /**
+     * One page of history, newest first; see {@link OrderDao#getOrderPage}.
+     *
+     * @param username only this user's orders; null for every order
+     */
+    public List<OrderSummary> getOrderPage(String username, int beforeId, int limit,
+                                           LocalDateTime from, LocalDateTime to)
+            throws SQLException {
+        return orderDao.getOrderPage(username, beforeId, limit, from, to);
+    }
+
+    public CompletableFuture<List<OrderSummary>> getOrderPageAsync(
+            String username, int beforeId, int limit, LocalDateTime from, LocalDateTime to) {
+        return orderDao.getOrderPageAsync(username, beforeId, limit, from, to);
+    }
+
+    /** A user's order count, spend and seats, without reading their orders. */
+    public UserOrderSummary getUserSummary(String username) throws SQLException {
+        return orderDao.getUserSummary(username);
+    }
+
+    public CompletableFuture<UserOrderSummary> getUserSummaryAsync(String username) {
+        return orderDao.getUserSummaryAsync(username);
+    }
+
+    // ─── Sales ────────────────────────────────────────────────────────────────
+
+    /** Top rows of one sales breakdown, kept by checkout; see {@link SalesDao#getTotals}. */
+    public List<SalesTotal> getSalesTotals(SalesTotal.Dimension by, int limit) throws SQLException {
+        return salesDao.getTotals(by, limit);
+    }
+
+    public CompletableFuture<List<SalesTotal>> getSalesTotalsAsync(SalesTotal.Dimension by, int limit) {
+        return salesDao.getTotalsAsync(by, limit);
+    }
+
+    public CompletableFuture<SalesTotal> getSalesGrandTotalAsync() {
+        return salesDao.getGrandTotalAsync();
+    }
+
+    /** A breakdown of the orders placed in [from, to), computed from the history. */
+    public CompletableFuture<List<SalesTotal>> computeSalesTotalsAsync(
+            SalesTotal.Dimension by, LocalDateTime from, LocalDateTime to, int limit) {
+        return salesDao.computeTotalsAsync(by, from, to, limit);
+    }
+
+    /** Recompute the sales totals from the order history; checkouts wait meanwhile. */
+    public CompletableFuture<Void> rebuildSalesAsync() {
+        return salesDao.rebuildAsync();
+    }
+
+    /**
+     * Persist all orders to a text file.
+     */
+    public void exportOrders(File file) throws IOException {
+        exportOrders(null, file.toPath(), null);
+    }
+
+    /**
+     * Stream orders to a text file without loading them into memory.
+     *
+     * @param username only this user's orders; null for every order
+     * @param progress told how many orders are done; may be null
+     * @return the number of orders written
+     */
+    public long exportOrders(String username, Path file, OrderExport.Progress progress)
+            throws IOException {
+        try {
+            return OrderExport.write(orderDao, username, file, progress);
+        } catch (SQLException ex) {
+            throw new IOException("Failed to load orders", ex);
+        }
+    }
+
+    /**
+     * {@link #exportOrders(String, Path, OrderExport.Progress)} on a virtual
+     * thread. Cancelling the future stops the export at the next order; the
+     * file is then left incomplete.
+     */
+    public CompletableFuture<Long> exportOrdersAsync(String username, Path file,
+                                                     OrderExport.Progress progress) {
+        return DaoExecutor.submit(() -> exportOrders(username, file, progress));
+    }
+
+    /** Next order number; package-private for {@link Session#checkout()}. */
+    int nextOrderNumber() throws SQLException {
+        return (int) orderNumbers.next();
+    }
+
+    CheckoutDao checkoutDao() {
+        return checkoutDao;
+    }
+
+    SeatHolds seatHolds() {
+        return seatHolds;
+    }
+
+    CatalogCache catalog() {
+        return catalog;
+    }
+
+    CartStore carts() {
+        return carts;
+    }
+
+    /** Record a committed seat count; package-private for {@link Session#checkout()}. */
+    void seatsSold(int eventId, int remainingSeats) {
+        catalog.seatsSold(eventId, remainingSeats);
+    }
+
+    // ─── Admin-only methods ───────────────────────────────────────────────────
+
+    /**
+     * Toggle a specific event’s disabled flag and persist to the DB immediately.
+     */
+    public void setEventDisabled(Event e, boolean disabled) {
+        catalog.beginLocalChange();
+        try {
+            eventDao.updateDisabled(e.getId(), disabled);
+            e.setDisabled(disabled);
+            catalog.disabledChanged(e.getId(), disabled);
+        } catch (SQLException ex) {
+            throw new RuntimeException("Failed to persist disabled flag", ex);
+        } finally {
+            catalog.endLocalChange();
+        }
+    }
+
+    /** Add a brand-new event (check for dupes first). */
+    public void addEvent(Event e) {
+        // duplicate check: same name/venue/date? The events_key index backs this up.
+        if (inventory.containsKey(e.getName(), e.getVenue(), e.getDate(), 0)) {
+            throw new IllegalArgumentException("That event already exists");
+        }
+        catalog.beginLocalChange();
+        try {
+            eventDao.insertEvent(e);
+            catalog.added(e);
+        } catch (DuplicateEventException ex) {
+            throw new IllegalArgumentException("That event already exists", ex);
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            catalog.endLocalChange();
+        }
+    }
+
+    /** Remove an event (will wipe historical bookings in DB!). */
+    public void deleteEvent(Event e) {
+        catalog.beginLocalChange();
+        try {
+            eventDao.deleteEvent(e.getId());
+            catalog.removed(e.getId());
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            catalog.endLocalChange();
+        }
+    }
+
+    /**
+     * Edit an existing event’s details. {@code shownSeats} is the seat count
+     * the editor started from: only the difference to it is applied, so
+     * seats sold while the dialog was open are not handed out again.
+     */
+    public void editEvent(Event updated, int shownSeats) {
+        // duplicate check against others
+        if (inventory.containsKey(updated.getName(), updated.getVenue(), updated.getDate(),
+                updated.getId())) {
+            throw new IllegalArgumentException("That event would collide with an existing one");
+        }
+        // exclusive: no sale is between its commit and memory, so the
+        // seat holds move by exactly what the database did
+        catalog.beginExclusiveChange();
+        try {
+            int seats = eventDao.updateEvent(updated, updated.getRemainingSeats() - shownSeats);
+            if (seats < 0) return;
+            // update in‐memory; keep the current disabled flag, the dialog doesn't edit it
+            updated.setRemainingSeats(seats);
+            Event current = inventory.get(updated.getId());
+            if (current != null) updated.setDisabled(current.isDisabled());
+            catalog.replaced(updated);
+        } catch (DuplicateEventException ex) {
+            throw new IllegalArgumentException("That event would collide with an existing one", ex);
+        } catch (SQLException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            catalog.endExclusiveChange();
+        }
+    }
+
+    // ─── Admin-only methods, async ────────────────────────────────────────────
+
+    public CompletableFuture<Void> setEventDisabledAsync(Event e, boolean disabled) {
+        return DaoExecutor.submitUninterruptibly(() -> { setEventDisabled(e, disabled); return null; });
+    }
+
+    /** Fails with IllegalArgumentException for a duplicate, like {@link #addEvent}. */
+    public CompletableFuture<Void> addEventAsync(Event e) {
+        return DaoExecutor.submitUninterruptibly(() -> { addEvent(e); return null; });
+    }
+
+    public CompletableFuture<Void> deleteEventAsync(Event e) {
+        return DaoExecutor.submitUninterruptibly(() -> { deleteEvent(e); return null; });
+    }
+
+    /** Fails with IllegalArgumentException for a collision, like {@link #editEvent}. */
+    public CompletableFuture<Void> editEventAsync(Event updated, int shownSeats) {
+        return DaoExecutor.submitUninterruptibly(() -> { editEvent(updated, shownSeats); return null; });
+    }
+
+    /**
+     * Stop the catalog refresh, the hold-expiry thread and the credential
+     * workers, and write the cart edits still pending and the catalog
+     * snapshot.
+     */
+    @Override
+    public void close() {
+        carts.close();
+        catalog.close();
+        snapshot.close();
+        seatHolds.close();
+        credentials.close();
+    }
+}
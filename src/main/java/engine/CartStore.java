@@ -0,0 +1,196 @@
+package engine;
+
+import dao.CartDao;
+import metrics.Counter;
+import metrics.Metrics;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind buffer between sessions and the saved carts in the
+ * database.
+ * <p>
+ * A cart edit only records the line's new quantity here, per user and
+ * event; a later edit of the same line overwrites it. One flusher thread
+ * writes whatever has piled up, for every user, in a single
+ * {@link CartDao#saveLines} call every period, or sooner when woken (a
+ * session closing). Rapid edits (+1, +1, +1, remove) so cost at most one
+ * row write per line and period, and never a database round trip on the
+ * caller's thread.
+ * <p>
+ * Flushing and {@link #load loading} are serialized, so a load sees every
+ * edit, written or not, and edits taken out for a checkout
+ * ({@link #take}) can't be written after the checkout cleared the rows.
+ * A failed flush puts its edits back unless newer ones arrived meanwhile;
+ * the next round retries them.
+ */
+public class CartStore implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(CartStore.class.getName());
+
+    private static final Counter EDITS        = Metrics.counter("cart.edits");
+    private static final Counter ROWS_WRITTEN = Metrics.counter("cart.rows.written");
+
+    private final CartDao dao;
+    private final long periodNanos;
+
+    // user -> (event id -> latest quantity, 0 = removed). The inner maps are
+    // only touched inside compute() on the outer one, or after being removed.
+    private final ConcurrentHashMap<String, Map<Integer, Integer>> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private volatile Thread flusher;
+
+    public CartStore(CartDao dao, long periodMillis) {
+        this.dao = dao;
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, periodMillis));
+    }
+
+    /** Record a line's new quantity; zero or less removes it. Doesn't block. */
+    public void put(String username, int eventId, int quantity) {
+        pending.compute(username, (u, lines) -> {
+            if (lines == null) lines = new HashMap<>();
+            lines.put(eventId, Math.max(0, quantity));
+            return lines;
+        });
+        EDITS.increment();
+    }
+
+    /**
+     * The user's cart as the database will have it once everything
+     * pending is written: the saved lines, with the pending edits applied.
+     */
+    public Map<Integer, Integer> load(String username) throws SQLException {
+        flushLock.lock();
+        try {
+            Map<Integer, Integer> lines = new LinkedHashMap<>(dao.getCart(username));
+            // copied inside compute, as put() writes inside it
+            Map<Integer, Integer> edits = new HashMap<>();
+            pending.computeIfPresent(username, (u, m) -> {
+                edits.putAll(m);
+                return m;
+            });
+            edits.forEach((id, qty) -> {
+                if (qty > 0) lines.put(id, qty);
+                else lines.remove(id);
+            });
+            return lines;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Take the user's unwritten edits out of the buffer, for a checkout
+     * that replaces the saved cart itself. Waits for a flush in progress,
+     * so none of them reach the database after this returns. Hand them
+     * back with {@link #putBack} if the checkout fails.
+     */
+    public Map<Integer, Integer> take(String username) {
+        flushLock.lock();
+        try {
+            Map<Integer, Integer> edits = pending.remove(username);
+            return edits == null ? Map.of() : edits;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /** Return edits taken out by {@link #take} or a failed flush; newer edits of a line win. */
+    public void putBack(String username, Map<Integer, Integer> edits) {
+        if (edits.isEmpty()) return;
+        pending.compute(username, (u, lines) -> {
+            if (lines == null) lines = new HashMap<>();
+            for (Map.Entry<Integer, Integer> e : edits.entrySet()) {
+                lines.putIfAbsent(e.getKey(), e.getValue());
+            }
+            return lines;
+        });
+    }
+
+    /** Write everything pending now, on the calling thread. */
+    public void flush() throws SQLException {
+        flushLock.lock();
+        try {
+            Map<String, Map<Integer, Integer>> batch = new HashMap<>();
+            for (String user : pending.keySet()) {
+                Map<Integer, Integer> edits = pending.remove(user);
+                if (edits != null) batch.put(user, edits);
+            }
+            if (batch.isEmpty()) return;
+
+            List<CartDao.Line> lines = new ArrayList<>();
+            batch.forEach((user, edits) ->
+                    edits.forEach((id, qty) -> lines.add(new CartDao.Line(user, id, qty))));
+            try {
+                dao.saveLines(lines);
+                ROWS_WRITTEN.add(lines.size());
+            } catch (SQLException | RuntimeException ex) {
+                batch.forEach(this::putBack);
+                throw ex;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /** Ask the flusher to write what is pending without waiting for its next round. */
+    public void flushSoon() {
+        Thread t = flusher;
+        if (t != null) LockSupport.unpark(t);
+    }
+
+    /** Start the flusher thread. Until then, edits wait for {@link #flush()}. */
+    public synchronized void start() {
+        if (flusher != null) return;
+        Thread t = new Thread(this::runFlusher, "cart-flush");
+        t.setDaemon(true);
+        flusher = t;
+        t.start();
+    }
+
+    private void runFlusher() {
+        while (!Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(this, periodNanos);
+            if (Thread.currentThread().isInterrupted()) return;
+            try {
+                flush();
+            } catch (SQLException | RuntimeException ex) {
+                LOG.log(Level.WARNING, "Saving carts failed; will retry", ex);
+            }
+        }
+    }
+
+    /** Stop the flusher and write what is left. */
+    @Override
+    public void close() {
+        Thread t;
+        synchronized (this) {
+            t = flusher;
+            flusher = null;
+        }
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join(10_000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } catch (SQLException | RuntimeException ex) {
+            LOG.log(Level.WARNING, "Saving carts on shutdown failed", ex);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package engine;
+
+import dao.CatalogChanges;
+import dao.EventDao;
+import model.Event;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the in-memory {@link EventInventory} current with the database, and
+ * tells listeners what changed.
+ * <p>
+ * The database stamps every event change with a catalog version (see schema
+ * migration 9). The cache remembers the version it has applied and
+ * {@link #refresh()} fetches only the rows changed after it, plus the ids
+ * deleted since, so changes made by other processes or feeds arrive without
+ * reloading the catalog. A background thread refreshes every
+ * {@value #REFRESH_PROPERTY} milliseconds.
+ * <p>
+ * Changes made through this engine are applied right after their commit.
+ * Each writer holds the shared side of a lock from before its write until
+ * the inventory shows it; a refresh takes the exclusive side, so it never
+ * reads a commit whose in-memory update is still pending and mistakes it
+ * for someone else's. The refresh then sees those rows again and, finding
+ * them equal, reports nothing.
+ * <p>
+ * Listeners receive each batch as a list of fine-grained {@link Change}s.
+ * They are called on the thread that applied the batch, which may be any
+ * thread, and must not block.
+ */
+public class CatalogCache implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(CatalogCache.class.getName());
+
+    /** System property: refresh period in milliseconds; 0 turns the background refresh off. */
+    public static final String REFRESH_PROPERTY = "catalog.refresh.millis";
+    private static final long DEFAULT_REFRESH_MILLIS = 2000;
+
+    public enum Kind {
+        /** A new event. */
+        ADDED,
+        /** Name, date, venue or price changed; {@link Change#event()} is the new instance. */
+        UPDATED,
+        /** Deleted; {@link Change#event()} is the last instance there was. */
+        REMOVED,
+        /** Only the remaining seats changed, in place. */
+        SEATS,
+        /** Only the disabled flag changed, in place. */
+        DISABLED
+    }
+
+    /** One event's change; the event is the cached instance. */
+    public record Change(Kind kind, Event event) {}
+
+    @FunctionalInterface
+    public interface Listener {
+        /** @param version the catalog version the cache had applied when this batch was made */
+        void catalogChanged(long version, List<Change> changes);
+    }
+
+    private final EventDao eventDao;
+    private final EventInventory inventory;
+    private final SeatHolds seatHolds;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // shared: local writes in flight; exclusive: a load or refresh
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long version;
+
+    private Thread refresher;
+
+    public CatalogCache(EventDao eventDao, EventInventory inventory, SeatHolds seatHolds) {
+        this.eventDao = eventDao;
+        this.inventory = inventory;
+        this.seatHolds = seatHolds;
+    }
+
+    // ─── reading the database ─────────────────────────────────────────────────
+
+    /** Replace the inventory with the whole catalog; listeners aren't told. */
+    public void load() throws SQLException {
+        lock.writeLock().lock();
+        try {
+            CatalogChanges all = eventDao.getChangesSince(0);
+            inventory.load(all.changed());
+            version = all.version();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the inventory with a saved snapshot's catalog, then apply the
+     * rows changed in the database since the snapshot's version. Listeners
+     * aren't told.
+     *
+     * @return false, leaving the inventory alone, if the database is behind
+     *         the snapshot (restored from a backup, say); {@link #load()} then
+     */
+    boolean load(CatalogSnapshot.Contents saved) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            CatalogChanges delta = eventDao.getChangesSince(saved.version());
+            if (delta.version() < saved.version()) {
+                LOG.info("Catalog snapshot is at version " + saved.version() + ", the database at "
+                        + delta.version() + "; loading the catalog in full");
+                return false;
+            }
+            inventory.loadSnapshot(saved.columns());
+            applyDelta(delta, new ArrayList<>());
+            version = delta.version();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply the rows changed in the database since the last load or refresh.
+     *
+     * @return the changes applied, already passed to the listeners
+     */
+    public List<Change> refresh() throws SQLException {
+        List<Change> out = new ArrayList<>();
+        long now;
+        lock.writeLock().lock();
+        try {
+            CatalogChanges delta = eventDao.getChangesSince(version);
+            if (delta.version() == version) return out;
+            applyDelta(delta, out);
+            now = version = delta.version();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publish(now, out);
+        return out;
+    }
+
+    // caller has the write lock
+    private void applyDelta(CatalogChanges delta, List<Change> out) {
+        for (int id : delta.removedIds()) {
+            Event gone = inventory.get(id);
+            if (gone != null && inventory.remove(id)) {
+                seatHolds.forget(id);
+                out.add(new Change(Kind.REMOVED, gone));
+            }
+        }
+        for (Event row : delta.changed()) {
+            apply(row, out);
+        }
+    }
+
+    // one changed row against what the inventory holds; caller has the write lock
+    private void apply(Event row, List<Change> out) {
+        int id = row.getId();
+        Event cur = inventory.get(id);
+        if (cur == null) {
+            inventory.add(row);
+            out.add(new Change(Kind.ADDED, row));
+            return;
+        }
+        // the inventory's count, not cur's: a sale may still be writing to cur
+        int seatDelta = row.getRemainingSeats() - inventory.getRemainingSeats(id);
+        if (!sameDetails(cur, row)) {
+            seatHolds.seatsChanged(id, seatDelta);
+            inventory.replace(row);
+            out.add(new Change(Kind.UPDATED, row));
+            return;
+        }
+        if (seatDelta != 0) {
+            // sold elsewhere, or restocked by a feed: carts here see it too
+            seatHolds.seatsChanged(id, seatDelta);
+            inventory.setRemainingSeats(id, row.getRemainingSeats());
+            out.add(new Change(Kind.SEATS, cur));
+        }
+        if (row.isDisabled() != cur.isDisabled()) {
+            inventory.setDisabled(id, row.isDisabled());
+            out.add(new Change(Kind.DISABLED, cur));
+        }
+    }
+
+    private static boolean sameDetails(Event a, Event b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getDate(), b.getDate())
+                && Objects.equals(a.getVenue(), b.getVenue())
+                && Double.compare(a.getPrice(), b.getPrice()) == 0;
+    }
+
+    /** The catalog version the inventory reflects. */
+    public long getVersion() {
+        return version;
+    }
+
+    // ─── changes made by this engine ──────────────────────────────────────────
+
+    /** Hold from before a catalog write until it has been applied here. */
+    void beginLocalChange() {
+        lock.readLock().lock();
+    }
+
+    void endLocalChange() {
+        lock.readLock().unlock();
+    }
+
+    /**
+     * Like {@link #beginLocalChange()}, but also waits for local writes in
+     * flight to be applied, and keeps new ones out until
+     * {@link #endExclusiveChange()}.
+     */
+    void beginExclusiveChange() {
+        lock.writeLock().lock();
+    }
+
+    void endExclusiveChange() {
+        lock.writeLock().unlock();
+    }
+
+    /**
+     * A committed sale. Seats only go down through sales, so a count higher
+     * than the one held is an older sale finishing late and is ignored.
+     */
+    void seatsSold(int eventId, int remainingSeats) {
+        if (!inventory.lowerRemainingSeats(eventId, remainingSeats)) return;
+        publishLocal(Kind.SEATS, inventory.get(eventId));
+    }
+
+    void added(Event e) {
+        inventory.add(e);
+        publishLocal(Kind.ADDED, e);
+    }
+
+    void replaced(Event updated) {
+        int current = inventory.getRemainingSeats(updated.getId());
+        if (current >= 0) {
+            seatHolds.seatsChanged(updated.getId(), updated.getRemainingSeats() - current);
+        }
+        inventory.replace(updated);
+        publishLocal(Kind.UPDATED, updated);
+    }
+
+    void removed(int eventId) {
+        Event gone = inventory.get(eventId);
+        if (gone == null || !inventory.remove(eventId)) return;
+        seatHolds.forget(eventId);
+        publishLocal(Kind.REMOVED, gone);
+    }
+
+    void disabledChanged(int eventId, boolean disabled) {
+        inventory.setDisabled(eventId, disabled);
+        Event e = inventory.get(eventId);
+        if (e != null) publishLocal(Kind.DISABLED, e);
+    }
+
+    // ─── listeners ────────────────────────────────────────────────────────────
+
+    public void addListener(Listener l) {
+        listeners.add(l);
+    }
+
+    public void removeListener(Listener l) {
+        listeners.remove(l);
+    }
+
+    private void publishLocal(Kind kind, Event e) {
+        publish(version, List.of(new Change(kind, e)));
+    }
+
+    private void publish(long at, List<Change> changes) {
+        if (changes.isEmpty()) return;
+        for (Listener l : listeners) {
+            try {
+                l.catalogChanged(at, changes);
+            } catch (RuntimeException ex) {
+                LOG.log(Level.WARNING, "Catalog listener failed", ex);
+            }
+        }
+    }
+
+    // ─── background refresh ───────────────────────────────────────────────────
+
+    /** Start refreshing every {@value #REFRESH_PROPERTY} ms, unless that is 0. */
+    public synchronized void startRefreshing() {
+        long period = Long.getLong(REFRESH_PROPERTY, DEFAULT_REFRESH_MILLIS);
+        if (period <= 0 || refresher != null) return;
+        refresher = new Thread(() -> runRefresher(period), "catalog-refresh");
+        refresher.setDaemon(true);
+        refresher.start();
+    }
+
+    private void runRefresher(long periodMillis) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(periodMillis);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            try {
+                refresh();
+            } catch (SQLException | RuntimeException ex) {
+                // the next round retries from the same version
+                LOG.log(Level.WARNING, "Catalog refresh failed", ex);
+            }
+        }
+    }
+
+    /** Stop the background refresh. */
+    @Override
+    public synchronized void close() {
+        if (refresher != null) refresher.interrupt();
+    }
+}
@@ -0,0 +1,317 @@
+package engine;
+
+import dao.Database;
+import metrics.Counter;
+import metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * The event catalog and a few counters, saved in a file beside the
+ * database so that startup doesn't have to read the events table.
+ * <p>
+ * The file starts with a header: the database's instance id (schema
+ * migration 13), the catalog version the columns reflect, the counters,
+ * and the body's length and CRC. The body is the {@link EventInventory}
+ * columns as one block. At startup the file is read in one pass, and the
+ * numeric columns are copied out in bulk. Names, venues and dates are
+ * copied as raw bytes and decoded only as events are materialized.
+ * <p>
+ * The file is read, not mapped. A mapping lasts until the buffer is
+ * garbage collected, and on Windows a mapped file cannot be replaced, so
+ * the first rewrite would fail. The CRC reads every byte anyway.
+ * <p>
+ * A snapshot that belongs to another database, fails its CRC, or is ahead
+ * of the database (a restored backup) is ignored, and the catalog is read
+ * in full. A snapshot that is behind catches up from the rows changed
+ * since its version; see {@link CatalogCache#load(Contents)}.
+ * <p>
+ * After a catalog change, a background thread rewrites the file within
+ * {@value #DELAY_PROPERTY} milliseconds; {@link #close()} writes it once
+ * more. Each write goes to a temporary file, which is forced to disk and
+ * then moved over the old one. A reader sees either the old snapshot or
+ * the new one, never part of either.
+ */
+public class CatalogSnapshot implements CatalogCache.Listener, AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(CatalogSnapshot.class.getName());
+
+    /**
+     * System property: the snapshot file, or {@code off} for none. By
+     * default the database file's path plus {@value #SUFFIX}; in-memory
+     * databases get none.
+     */
+    public static final String FILE_PROPERTY = "catalog.snapshot";
+
+    /** System property: how soon after a change the file is rewritten, in milliseconds (default 5000). */
+    public static final String DELAY_PROPERTY = "catalog.snapshot.millis";
+
+    private static final String SUFFIX = ".catalog";
+    private static final int MAGIC  = 0x54414353;   // "SCAT" as little-endian bytes
+    private static final int FORMAT = 1;
+    private static final int PREFIX = 4 * Integer.BYTES;   // magic, format, header length, header CRC
+
+    private static final Counter WRITES = Metrics.counter("catalog.snapshot.writes");
+
+    /**
+     * A snapshot read from disk.
+     *
+     * @param columns the inventory block, read from the file
+     */
+    record Contents(long version, Map<String, Long> counters, ByteBuffer columns) {}
+
+    private final CatalogCache catalog;
+    private final EventInventory inventory;
+    private final long delayNanos;
+    private final Map<String, LongSupplier> counters = new ConcurrentHashMap<>();
+
+    // both set by read(); nothing is written before it
+    private volatile Path file;
+    private volatile String databaseId;
+
+    private volatile boolean dirty;
+    private final ReentrantLock saveLock = new ReentrantLock();
+    private volatile Thread writer;
+
+    public CatalogSnapshot(CatalogCache catalog, EventInventory inventory) {
+        this.catalog = catalog;
+        this.inventory = inventory;
+        this.delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, Long.getLong(DELAY_PROPERTY, 5000)));
+    }
+
+    /**
+     * The default snapshot file for a database URL, or null for an
+     * in-memory database.
+     */
+    public static Path fileFor(String jdbcUrl) {
+        String path = jdbcUrl.startsWith("jdbc:sqlite:") ? jdbcUrl.substring("jdbc:sqlite:".length()) : jdbcUrl;
+        if (path.startsWith("file:")) path = path.substring("file:".length());
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            if (path.substring(query).contains("mode=memory")) return null;
+            path = path.substring(0, query);
+        }
+        if (path.isEmpty() || path.equals(":memory:")) return null;
+        return Path.of(path + SUFFIX);
+    }
+
+    /** Save a counter with every snapshot; {@code value} is read on the writing thread. */
+    public void counter(String name, LongSupplier value) {
+        counters.put(name, value);
+    }
+
+    // ─── reading ──────────────────────────────────────────────────────────────
+
+    /**
+     * Read the snapshot of the database with this instance id. Later writes
+     * go to the same file, tagged with the same id.
+     *
+     * @return null if snapshots are off, or there is no usable one
+     */
+    Contents read(String databaseId) {
+        String setting = System.getProperty(FILE_PROPERTY);
+        Path f = setting == null ? fileFor(Database.getUrl())
+                : setting.equalsIgnoreCase("off") ? null : Path.of(setting);
+        this.databaseId = databaseId;
+        this.file = f;
+        if (f == null || !Files.isRegularFile(f)) return null;
+
+        try (FileChannel ch = FileChannel.open(f, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < PREFIX || size > Integer.MAX_VALUE) return ignore(f, "bad size");
+            ByteBuffer in = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+            while (in.hasRemaining() && ch.read(in) >= 0) {
+                // until full, or the file turns out shorter than it was
+            }
+            if (in.hasRemaining()) return ignore(f, "truncated");
+            in.flip();
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT) return ignore(f, "not a snapshot of this format");
+            int headerLength = in.getInt();
+            int headerCrc = in.getInt();
+            if (headerLength < PREFIX || headerLength > size) return ignore(f, "bad header length");
+            if (crc(in.slice(PREFIX, headerLength - PREFIX)) != headerCrc) return ignore(f, "header CRC mismatch");
+
+            if (!getString(in).equals(databaseId)) return ignore(f, "written for another database");
+            long version = in.getLong();
+            int n = in.getInt();
+            Map<String, Long> values = new LinkedHashMap<>();
+            for (int i = 0; i < n; i++) {
+                String name = getString(in);
+                values.put(name, in.getLong());
+            }
+            long bodyLength = in.getLong();
+            int bodyCrc = in.getInt();
+            if (headerLength + bodyLength != size) return ignore(f, "truncated");
+
+            ByteBuffer body = in.slice(headerLength, (int) bodyLength).order(ByteOrder.LITTLE_ENDIAN);
+            if (crc(body) != bodyCrc) return ignore(f, "body CRC mismatch");
+            return new Contents(version, Map.copyOf(values), body);
+        } catch (IOException | RuntimeException ex) {
+            LOG.log(Level.WARNING, "Cannot read catalog snapshot " + f + "; loading the catalog in full", ex);
+            return null;
+        }
+    }
+
+    private static Contents ignore(Path f, String why) {
+        LOG.info("Ignoring catalog snapshot " + f + " (" + why + "); loading the catalog in full");
+        return null;
+    }
+
+    // ─── writing ──────────────────────────────────────────────────────────────
+
+    @Override
+    public void catalogChanged(long version, List<CatalogCache.Change> changes) {
+        dirty = true;
+    }
+
+    /** The inventory was replaced without listeners being told, e.g. by a full load. */
+    void changed() {
+        dirty = true;
+    }
+
+    /** Write the snapshot now, on the calling thread, if the catalog changed since the last write. */
+    public void save() throws IOException {
+        Path f = file;
+        String id = databaseId;
+        if (f == null || id == null || !dirty) return;
+        saveLock.lock();
+        try {
+            if (!dirty) return;
+            // cleared first: a change during the copy marks it again
+            dirty = false;
+            long version;
+            ByteBuffer columns;
+            // shared side: no refresh moves the version while the columns are copied
+            catalog.beginLocalChange();
+            try {
+                version = catalog.getVersion();
+                columns = inventory.toSnapshot();
+            } finally {
+                catalog.endLocalChange();
+            }
+            Map<String, Long> values = new LinkedHashMap<>();
+            counters.forEach((name, value) -> values.put(name, value.getAsLong()));
+            try {
+                write(f, id, version, values, columns);
+                WRITES.increment();
+            } catch (IOException | RuntimeException ex) {
+                dirty = true;
+                throw ex;
+            }
+        } finally {
+            saveLock.unlock();
+        }
+    }
+
+    private static void write(Path file, String databaseId, long version,
+                              Map<String, Long> counters, ByteBuffer columns) throws IOException {
+        byte[] id = databaseId.getBytes(StandardCharsets.UTF_8);
+        int length = PREFIX + Integer.BYTES + id.length + Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+        for (String name : counters.keySet()) {
+            length += Integer.BYTES + name.getBytes(StandardCharsets.UTF_8).length + Long.BYTES;
+        }
+        ByteBuffer head = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        head.putInt(MAGIC).putInt(FORMAT).putInt(length).putInt(0);
+        head.putInt(id.length).put(id);
+        head.putLong(version);
+        head.putInt(counters.size());
+        for (Map.Entry<String, Long> c : counters.entrySet()) {
+            byte[] name = c.getKey().getBytes(StandardCharsets.UTF_8);
+            head.putInt(name.length).put(name).putLong(c.getValue());
+        }
+        head.putLong(columns.remaining());
+        head.putInt(crc(columns));
+        head.putInt(3 * Integer.BYTES, crc(head.slice(PREFIX, length - PREFIX)));
+        head.flip();
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] parts = {head, columns.duplicate()};
+            while (parts[1].hasRemaining()) ch.write(parts);
+            ch.force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static int crc(ByteBuffer bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] b = new byte[in.getInt()];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // ─── background writer ────────────────────────────────────────────────────
+
+    /** Start rewriting the file after changes. No-op if snapshots are off. */
+    public synchronized void start() {
+        if (writer != null || file == null) return;
+        Thread t = new Thread(this::runWriter, "catalog-snapshot");
+        t.setDaemon(true);
+        writer = t;
+        t.start();
+    }
+
+    private void runWriter() {
+        while (!Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(this, delayNanos);
+            if (Thread.currentThread().isInterrupted()) return;
+            try {
+                save();
+            } catch (IOException | RuntimeException ex) {
+                LOG.log(Level.WARNING, "Writing the catalog snapshot failed; will retry", ex);
+            }
+        }
+    }
+
+    /** Stop the writer and save what changed since its last round. */
+    @Override
+    public void close() {
+        Thread t;
+        synchronized (this) {
+            t = writer;
+            writer = null;
+        }
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join(10_000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            save();
+        } catch (IOException | RuntimeException ex) {
+            LOG.log(Level.WARNING, "Writing the catalog snapshot on shutdown failed", ex);
+        }
+    }
+}
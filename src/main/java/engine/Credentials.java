@@ -0,0 +1,135 @@
+package engine;
+
+import dao.UserDao;
+import model.User;
+
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Password checks and sign-ups, run on a small pool of worker threads.
+ * <p>
+ * A hash costs tens of milliseconds of CPU by design, so it must never run
+ * on the JavaFX thread, and running one per caller thread would let a burst
+ * of logins starve everything else. The pool has one thread per core and a
+ * bounded queue. When the queue is full the returned future fails at once
+ * with {@link RejectedExecutionException} instead of piling up more work.
+ * <p>
+ * Unknown usernames get a dummy verification at full cost, so the response
+ * time doesn't tell which names exist. Legacy plaintext rows, and hashes
+ * made at a lower cost, are re-hashed on the first successful login.
+ */
+public class Credentials implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(Credentials.class.getName());
+
+    /** System property: worker threads (default: available processors). */
+    public static final String THREADS_PROPERTY = "login.threads";
+    /** System property: checks allowed to wait for a worker (default 64). */
+    public static final String QUEUE_PROPERTY   = "login.queue";
+
+    private final UserDao userDao;
+    private final PasswordHasher hasher;
+    private final ThreadPoolExecutor workers;
+
+    public Credentials(UserDao userDao, PasswordHasher hasher, int threads, int queueCapacity) {
+        this.userDao = userDao;
+        this.hasher = hasher;
+        AtomicInteger n = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "credentials-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /** Sized from {@value #THREADS_PROPERTY} and {@value #QUEUE_PROPERTY}. */
+    public static Credentials fromSystemProperties(UserDao userDao) {
+        return new Credentials(userDao, PasswordHasher.fromSystemProperties(),
+                Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger(QUEUE_PROPERTY, 64));
+    }
+
+    public PasswordHasher getHasher() { return hasher; }
+
+    /**
+     * Check a username and password on a worker.
+     *
+     * @return completes with the user, or null if the credentials don't match;
+     *         fails with {@link RejectedExecutionException} when too many
+     *         checks are already waiting, or with the {@link SQLException}
+     */
+    public CompletableFuture<User> authenticate(String username, String password) {
+        return submit(() -> verify(username, password));
+    }
+
+    /**
+     * Hash the password on a worker, then create the user.
+     *
+     * @return fails like {@link #authenticate}, or with the {@link SQLException}
+     *         of the insert (e.g. a taken username)
+     */
+    public CompletableFuture<User> register(String username, String password, String preferredName) {
+        return submit(() -> userDao.createUser(username, hasher.hash(password), preferredName));
+    }
+
+    /** The check itself, on the calling thread; for benchmarks and batch jobs. */
+    public User verify(String username, String password) throws SQLException {
+        User user = userDao.findUser(username);
+        if (user == null) {
+            hasher.dummyVerify(password);
+            return null;
+        }
+        String stored = user.getPassword();
+        boolean legacy = !PasswordHasher.isHash(stored);
+        if (!hasher.verify(password, stored)) {
+            // a plaintext mismatch must take as long as a hash mismatch
+            if (legacy) hasher.dummyVerify(password);
+            return null;
+        }
+        if (hasher.needsRehash(stored)) {
+            String upgraded = hasher.hash(password);
+            // only if nobody changed it meanwhile; otherwise the next login retries
+            if (userDao.replacePassword(username, stored, upgraded)) {
+                user.setPassword(upgraded);
+            }
+        }
+        return user;
+    }
+
+    /** Stop the workers; checks still queued are abandoned. */
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        User run() throws SQLException;
+    }
+
+    private CompletableFuture<User> submit(Check check) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return check.run();
+                } catch (SQLException ex) {
+                    LOG.log(Level.WARNING, "Credential check failed", ex);
+                    throw new CompletionException(ex);
+                }
+            }, workers);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+}
@@ -0,0 +1,844 @@
+package engine;
+
+import model.Event;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+/**
+ * The event catalog as parallel primitive arrays.
+ * <p>
+ * Each event occupies one slot. Its id, price, seats and disabled bit sit
+ * in primitive arrays. Name, venue and date are interned into small
+ * dictionaries and stored as int codes. Lookup by id goes through an
+ * open-addressing int-to-slot table, and the duplicate check through a
+ * hash of (name, venue, date) codes to id. The enabled and disabled id lists are
+ * kept sorted and are patched on every change, so listing events never
+ * re-filters the catalog.
+ * <p>
+ * {@link Event} objects are only materialized when a caller asks for them.
+ * They are then cached per slot, so a cart and a table row refer to the
+ * same instance. Seat and disabled changes made through this class are
+ * applied to the cached instance too.
+ * <p>
+ * The arrays can be saved as one byte block and loaded back from it (see
+ * {@link CatalogSnapshot}). Loading copies the numeric columns in bulk and
+ * keeps the strings as UTF-8 bytes until an event is materialized.
+ * <p>
+ * Thread-safe: reads, including those that materialize Events, share a read
+ * lock; mutations take the write lock. Readers racing to materialize the
+ * same slot publish it with a CAS, so they all end up with one instance.
+ */
+public class EventInventory {
+    private static final int INITIAL_CAPACITY = 16;
+
+    // cache slots and view entries filled in by readers: release on store,
+    // acquire on load, so an Event is seen fully built
+    private static final VarHandle EVENTS = MethodHandles.arrayElementVarHandle(Event[].class);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int size;
+    private int[]    ids       = new int[INITIAL_CAPACITY];
+    private double[] prices    = new double[INITIAL_CAPACITY];
+    private int[]    seats     = new int[INITIAL_CAPACITY];
+    private long[]   disabled  = new long[(INITIAL_CAPACITY + 63) >>> 6];
+    private int[]    nameCode  = new int[INITIAL_CAPACITY];
+    private int[]    venueCode = new int[INITIAL_CAPACITY];
+    private int[]    dateCode  = new int[INITIAL_CAPACITY];
+    private Event[]  cache     = new Event[INITIAL_CAPACITY];
+
+    private final Dictionary names  = new Dictionary();
+    private final Dictionary venues = new Dictionary();
+    private final Dictionary dates  = new Dictionary();
+    private final IdIndex    index  = new IdIndex();
+    // (name, venue, date) codes -> id; null after a snapshot load until
+    // the first duplicate check needs it
+    private Map<Key, Integer> keys = new HashMap<>();
+
+    private final View enabledIds  = new View();
+    private final View disabledIds = new View();
+
+    // ─── bulk load ────────────────────────────────────────────────────────────
+
+    /** Replace the whole catalog, keeping the given Event instances. */
+    public void load(List<Event> events) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Event e : events) {
+                insert(e);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ─── snapshot ─────────────────────────────────────────────────────────────
+    //
+    // Layout, little-endian: size; ids, prices, seats, name, venue and date
+    // codes (size entries each); the disabled bits; the enabled and the
+    // disabled view (count, ids); the id index (capacity, count, keys,
+    // values); the name, venue and date dictionaries.
+
+    /** The whole catalog as one block for {@link #loadSnapshot}, positioned at 0. */
+    ByteBuffer toSnapshot() {
+        // write lock: packing may decode strings still left in a loaded block
+        lock.writeLock().lock();
+        try {
+            Dictionary.Packed n = names.pack(), v = venues.pack(), d = dates.pack();
+            int words = (size + 63) >>> 6;
+            long bytes = Integer.BYTES
+                    + (long) size * (Integer.BYTES * 5 + Double.BYTES)
+                    + (long) words * Long.BYTES
+                    + enabledIds.byteSize() + disabledIds.byteSize()
+                    + index.byteSize()
+                    + n.byteSize() + v.byteSize() + d.byteSize();
+            if (bytes > Integer.MAX_VALUE) throw new IllegalStateException("Catalog too large to snapshot");
+
+            ByteBuffer out = ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(size);
+            putInts(out, ids, size);
+            out.asDoubleBuffer().put(prices, 0, size);
+            out.position(out.position() + size * Double.BYTES);
+            putInts(out, seats, size);
+            putInts(out, nameCode, size);
+            putInts(out, venueCode, size);
+            putInts(out, dateCode, size);
+            out.asLongBuffer().put(disabled, 0, words);
+            out.position(out.position() + words * Long.BYTES);
+            enabledIds.writeTo(out);
+            disabledIds.writeTo(out);
+            index.writeTo(out);
+            n.writeTo(out);
+            v.writeTo(out);
+            d.writeTo(out);
+            return out.flip();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole catalog with a block made by {@link #toSnapshot}.
+     * Nothing refers to the block afterwards: the strings are copied out
+     * as bytes and decoded as events are materialized.
+     */
+    void loadSnapshot(ByteBuffer block) {
+        ByteBuffer in = block.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        lock.writeLock().lock();
+        try {
+            clear();
+            int n = in.getInt();
+            int cap = Math.max(INITIAL_CAPACITY, n);
+            ids = getInts(in, n, cap);
+            prices = new double[cap];
+            in.asDoubleBuffer().get(prices, 0, n);
+            in.position(in.position() + n * Double.BYTES);
+            seats     = getInts(in, n, cap);
+            nameCode  = getInts(in, n, cap);
+            venueCode = getInts(in, n, cap);
+            dateCode  = getInts(in, n, cap);
+            int words = (n + 63) >>> 6;
+            disabled = new long[(cap + 63) >>> 6];
+            in.asLongBuffer().get(disabled, 0, words);
+            in.position(in.position() + words * Long.BYTES);
+            cache = new Event[cap];
+            enabledIds.readFrom(in);
+            disabledIds.readFrom(in);
+            index.readFrom(in);
+            names.readFrom(in);
+            venues.readFrom(in);
+            dates.readFrom(in);
+            size = n;
+            keys = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void putInts(ByteBuffer out, int[] a, int n) {
+        out.asIntBuffer().put(a, 0, n);
+        out.position(out.position() + n * Integer.BYTES);
+    }
+
+    private static int[] getInts(ByteBuffer in, int n, int capacity) {
+        int[] a = new int[capacity];
+        in.asIntBuffer().get(a, 0, n);
+        in.position(in.position() + n * Integer.BYTES);
+        return a;
+    }
+
+    // ─── queries ──────────────────────────────────────────────────────────────
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int enabledCount() {
+        lock.readLock().lock();
+        try {
+            return enabledIds.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Enabled events in id order, as an unmodifiable snapshot. The snapshot
+     * is built once and reused until the enabled set next changes.
+     */
+    public List<Event> getEnabled() {
+        return materialize(enabledIds);
+    }
+
+    /** Disabled events in id order, as an unmodifiable snapshot. */
+    public List<Event> getDisabled() {
+        return materialize(disabledIds);
+    }
+
+    /** Every event in id order. */
+    public List<Event> getAll() {
+        lock.readLock().lock();
+        try {
+            int[] all = new int[size];
+            System.arraycopy(ids, 0, all, 0, size);
+            Arrays.sort(all);
+            List<Event> out = new ArrayList<>(size);
+            for (int id : all) {
+                out.add(eventAt(index.get(id)));
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the event with this id, or null */
+    public Event get(int id) {
+        lock.readLock().lock();
+        try {
+            int slot = index.get(id);
+            return slot < 0 ? null : eventAt(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return remaining seats for the id, or -1 if there is no such event */
+    public int getRemainingSeats(int id) {
+        lock.readLock().lock();
+        try {
+            int slot = index.get(id);
+            return slot < 0 ? -1 : seats[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the price for the id, or NaN if there is no such event */
+    public double getPrice(int id) {
+        lock.readLock().lock();
+        try {
+            int slot = index.get(id);
+            return slot < 0 ? Double.NaN : prices[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Visit enabled event ids without materializing any Event. */
+    public void forEachEnabledId(IntConsumer action) {
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < enabledIds.size; i++) {
+                action.accept(enabledIds.ids[i]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** One event's columns, as {@link #forEachColumns} hands them out. */
+    @FunctionalInterface
+    interface ColumnVisitor {
+        void visit(int id, double price, boolean disabled, String name, String venue, String date);
+    }
+
+    /**
+     * Visit every event's columns, in no particular order, without
+     * materializing any Event. Strings come from the dictionaries, so each
+     * distinct one is decoded once however many events share it. Holds the
+     * read lock: the visitor must not change the inventory.
+     */
+    void forEachColumns(ColumnVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < size; slot++) {
+                visitor.visit(ids[slot], prices[slot], isDisabledSlot(slot),
+                        names.get(nameCode[slot]),
+                        venues.get(venueCode[slot]),
+                        dates.get(dateCode[slot]));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Is there another event with this name, venue and date? Three
+     * dictionary lookups and one hash lookup, under the read lock.
+     *
+     * @param exceptId id to ignore (the event being edited), or 0
+     */
+    public boolean containsKey(String name, String venue, String date, int exceptId) {
+        lock.readLock().lock();
+        try {
+            if (keys != null && names.indexed() && venues.indexed() && dates.indexed()) {
+                return findKey(name, venue, date, exceptId);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // the first check after a snapshot load builds the maps, once
+        lock.writeLock().lock();
+        try {
+            if (keys == null) {
+                Map<Key, Integer> map = new HashMap<>(size * 4 / 3 + 1);
+                for (int slot = 0; slot < size; slot++) map.put(keyAt(slot), ids[slot]);
+                keys = map;
+            }
+            return findKey(name, venue, date, exceptId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean findKey(String name, String venue, String date, int exceptId) {
+        int n = names.find(name), v = venues.find(venue), d = dates.find(date);
+        if (n < 0 || v < 0 || d < 0) return false;
+        Integer id = keys.get(new Key(n, v, d));
+        return id != null && id != exceptId;
+    }
+
+    // ─── mutations ────────────────────────────────────────────────────────────
+
+    /** Add an event (its id must already be assigned). */
+    public void add(Event e) {
+        lock.writeLock().lock();
+        try {
+            if (index.get(e.getId()) >= 0) {
+                throw new IllegalArgumentException("Duplicate event id " + e.getId());
+            }
+            insert(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Replace an event's details; the new instance becomes the cached one. */
+    public void replace(Event updated) {
+        lock.writeLock().lock();
+        try {
+            int slot = index.get(updated.getId());
+            if (slot < 0) throw new IllegalArgumentException("Unknown event id " + updated.getId());
+            boolean wasDisabled = isDisabledSlot(slot);
+            unkey(slot);
+            write(slot, updated);
+            key(slot);
+            if (wasDisabled == updated.isDisabled()) {
+                (wasDisabled ? disabledIds : enabledIds).set(updated.getId(), updated);
+            } else {
+                moveBetweenViews(slot, wasDisabled, updated.isDisabled());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Remove an event; returns false if it wasn't there. */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            int slot = index.get(id);
+            if (slot < 0) return false;
+            (isDisabledSlot(slot) ? disabledIds : enabledIds).remove(id);
+            index.remove(id);
+            unkey(slot);
+
+            // move the last slot into the hole so the arrays stay dense
+            int last = --size;
+            if (slot != last) {
+                ids[slot]       = ids[last];
+                prices[slot]    = prices[last];
+                seats[slot]     = seats[last];
+                nameCode[slot]  = nameCode[last];
+                venueCode[slot] = venueCode[last];
+                dateCode[slot]  = dateCode[last];
+                cache[slot]     = cache[last];
+                setDisabledBit(slot, isDisabledSlot(last));
+                index.put(ids[slot], slot);
+            }
+            cache[last] = null;
+            setDisabledBit(last, false);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void setDisabled(int id, boolean value) {
+        lock.writeLock().lock();
+        try {
+            int slot = index.get(id);
+            if (slot < 0) return;
+            boolean was = isDisabledSlot(slot);
+            setDisabledBit(slot, value);
+            if (cache[slot] != null) cache[slot].setDisabled(value);
+            moveBetweenViews(slot, was, value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Set the remaining seats only if that lowers them, atomically.
+     *
+     * @return false if there is no such event or it already had as few
+     */
+    public boolean lowerRemainingSeats(int id, int value) {
+        lock.writeLock().lock();
+        try {
+            int slot = index.get(id);
+            if (slot < 0 || value >= seats[slot]) return false;
+            seats[slot] = value;
+            if (cache[slot] != null) cache[slot].setRemainingSeats(value);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void setRemainingSeats(int id, int value) {
+        lock.writeLock().lock();
+        try {
+            int slot = index.get(id);
+            if (slot < 0) return;
+            seats[slot] = value;
+            if (cache[slot] != null) cache[slot].setRemainingSeats(value);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ─── internals (callers hold the write lock unless noted) ─────────────────
+
+    private void clear() {
+        for (int i = 0; i < size; i++) cache[i] = null;
+        Arrays.fill(disabled, 0L);
+        size = 0;
+        index.clear();
+        enabledIds.clear();
+        disabledIds.clear();
+        keys = new HashMap<>();
+    }
+
+    private void insert(Event e) {
+        if (e.getId() <= 0) throw new IllegalArgumentException("Event has no id yet");
+        ensureCapacity(size + 1);
+        int slot = size++;
+        write(slot, e);
+        key(slot);
+        index.put(e.getId(), slot);
+        (e.isDisabled() ? disabledIds : enabledIds).add(e.getId(), e);
+    }
+
+    private void write(int slot, Event e) {
+        ids[slot]       = e.getId();
+        prices[slot]    = e.getPrice();
+        seats[slot]     = e.getRemainingSeats();
+        nameCode[slot]  = names.intern(e.getName());
+        venueCode[slot] = venues.intern(e.getVenue());
+        dateCode[slot]  = dates.intern(e.getDate());
+        setDisabledBit(slot, e.isDisabled());
+        cache[slot]     = e;
+    }
+
+    private Key keyAt(int slot) {
+        return new Key(nameCode[slot], venueCode[slot], dateCode[slot]);
+    }
+
+    private void key(int slot) {
+        if (keys != null) keys.put(keyAt(slot), ids[slot]);
+    }
+
+    // only if it is still this event's: a refresh applying another writer's
+    // edits one at a time can briefly give two events the same key
+    private void unkey(int slot) {
+        if (keys != null) keys.remove(keyAt(slot), ids[slot]);
+    }
+
+    private void moveBetweenViews(int slot, boolean wasDisabled, boolean nowDisabled) {
+        if (wasDisabled == nowDisabled) return;
+        (wasDisabled ? disabledIds : enabledIds).remove(ids[slot]);
+        (nowDisabled ? disabledIds : enabledIds).add(ids[slot], cache[slot]);
+    }
+
+    // callers hold either lock; under the read lock the first reader to
+    // publish the slot wins, and the others return its instance
+    private Event eventAt(int slot) {
+        Event e = (Event) EVENTS.getAcquire(cache, slot);
+        if (e == null) {
+            e = new Event(ids[slot],
+                    names.get(nameCode[slot]),
+                    dates.get(dateCode[slot]),
+                    venues.get(venueCode[slot]),
+                    prices[slot],
+                    seats[slot],
+                    isDisabledSlot(slot));
+            Event won = (Event) EVENTS.compareAndExchangeRelease(cache, slot, null, e);
+            if (won != null) e = won;
+        }
+        return e;
+    }
+
+    private List<Event> materialize(View view) {
+        List<Event> snapshot = view.snapshot;
+        if (snapshot != null) return snapshot;
+        lock.readLock().lock();
+        try {
+            snapshot = view.snapshot;
+            if (snapshot == null) {
+                // concurrent readers may both build one; the lists are equal
+                Event[] out = new Event[view.size];
+                for (int i = 0; i < view.size; i++) {
+                    Event e = (Event) EVENTS.getAcquire(view.events, i);
+                    if (e == null) {
+                        e = eventAt(index.get(view.ids[i]));
+                        EVENTS.setRelease(view.events, i, e);
+                    }
+                    out[i] = e;
+                }
+                snapshot = Collections.unmodifiableList(Arrays.asList(out));
+                view.snapshot = snapshot;
+            }
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isDisabledSlot(int slot) {
+        return (disabled[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private void setDisabledBit(int slot, boolean value) {
+        if (value) disabled[slot >>> 6] |=  (1L << slot);
+        else       disabled[slot >>> 6] &= ~(1L << slot);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= ids.length) return;
+        int cap = Math.max(needed, ids.length * 2);
+        ids       = Arrays.copyOf(ids, cap);
+        prices    = Arrays.copyOf(prices, cap);
+        seats     = Arrays.copyOf(seats, cap);
+        nameCode  = Arrays.copyOf(nameCode, cap);
+        venueCode = Arrays.copyOf(venueCode, cap);
+        dateCode  = Arrays.copyOf(dateCode, cap);
+        cache     = Arrays.copyOf(cache, cap);
+        disabled  = Arrays.copyOf(disabled, (cap + 63) >>> 6);
+    }
+
+    /**
+     * Interns strings to dense int codes. After a snapshot load the strings
+     * stay UTF-8, copied out of the block: {@link #get} decodes one when it
+     * is first asked for, and the string-to-code map is only built by the
+     * first {@link #intern} or {@link #find}.
+     */
+    private static final class Dictionary {
+        private Map<String, Integer> codes = new HashMap<>();   // null until needed after a load
+        private String[] values = new String[INITIAL_CAPACITY];
+        private int count;
+
+        // a loaded block's strings, back to back, and where each starts
+        // (count + 1 entries); dropped once everything is decoded
+        private byte[] packed;
+        private int[] offsets;
+
+        int intern(String s) {
+            Map<String, Integer> map = codes();
+            Integer code = map.get(s);
+            if (code == null) {
+                code = count;
+                if (count == values.length) values = Arrays.copyOf(values, count * 2);
+                values[count++] = s;
+                map.put(s, code);
+            }
+            return code;
+        }
+
+        int find(String s) {
+            Integer code = codes().get(s);
+            return code == null ? -1 : code;
+        }
+
+        /** True once {@link #find} no longer builds anything. */
+        boolean indexed() {
+            return codes != null;
+        }
+
+        // under the read lock two readers may decode the same string; either copy will do
+        String get(int code) {
+            String s = values[code];
+            if (s == null) {
+                s = new String(bytes(code), StandardCharsets.UTF_8);
+                values[code] = s;
+            }
+            return s;
+        }
+
+        private Map<String, Integer> codes() {
+            if (codes == null) {
+                Map<String, Integer> map = new HashMap<>(count * 4 / 3 + 1);
+                for (int i = 0; i < count; i++) map.put(get(i), i);
+                codes = map;
+                packed = null;
+                offsets = null;
+            }
+            return codes;
+        }
+
+        private byte[] bytes(int code) {
+            return Arrays.copyOfRange(packed, offsets[code], offsets[code + 1]);
+        }
+
+        /** Every string as UTF-8; ones not decoded yet are copied as they are. */
+        Packed pack() {
+            int[] at = new int[count + 1];
+            byte[][] parts = new byte[count][];
+            int total = 0;
+            for (int i = 0; i < count; i++) {
+                parts[i] = values[i] != null ? values[i].getBytes(StandardCharsets.UTF_8) : bytes(i);
+                at[i] = total;
+                total += parts[i].length;
+            }
+            at[count] = total;
+            byte[] all = new byte[total];
+            for (int i = 0; i < count; i++) {
+                System.arraycopy(parts[i], 0, all, at[i], parts[i].length);
+            }
+            return new Packed(at, all);
+        }
+
+        void readFrom(ByteBuffer in) {
+            int n = in.getInt();
+            int bytes = in.getInt();
+            offsets = getInts(in, n + 1, n + 1);
+            packed = new byte[bytes];
+            in.get(packed);
+            values = new String[Math.max(INITIAL_CAPACITY, n)];
+            count = n;
+            codes = null;
+        }
+
+        /** count, byte length, offsets, bytes */
+        record Packed(int[] offsets, byte[] bytes) {
+            long byteSize() {
+                return 2L * Integer.BYTES + (long) offsets.length * Integer.BYTES + bytes.length;
+            }
+
+            void writeTo(ByteBuffer out) {
+                out.putInt(offsets.length - 1);
+                out.putInt(bytes.length);
+                putInts(out, offsets, offsets.length);
+                out.put(bytes);
+            }
+        }
+    }
+
+    /** An event's name, venue and date codes; unique per event, like the events_key index. */
+    private record Key(int name, int venue, int date) {}
+
+    /**
+     * Event ids sorted ascending, with the matching Event instances alongside
+     * (null until materialized). Rebuilding the list after a change is then
+     * one array copy rather than an id lookup per element.
+     */
+    private static final class View {
+        int[]   ids    = new int[INITIAL_CAPACITY];
+        Event[] events = new Event[INITIAL_CAPACITY];
+        int size;
+        // the list handed out, dropped whenever the view changes
+        volatile List<Event> snapshot;
+
+        void add(int id, Event e) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) return;
+            snapshot = null;
+            pos = -pos - 1;
+            if (size == ids.length) {
+                ids    = Arrays.copyOf(ids, size * 2);
+                events = Arrays.copyOf(events, size * 2);
+            }
+            // new events get the highest id, so this is usually an append
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            System.arraycopy(events, pos, events, pos + 1, size - pos);
+            ids[pos] = id;
+            events[pos] = e;
+            size++;
+        }
+
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return;
+            snapshot = null;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            System.arraycopy(events, pos + 1, events, pos, size - pos - 1);
+            events[--size] = null;
+        }
+
+        void set(int id, Event e) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return;
+            snapshot = null;
+            events[pos] = e;
+        }
+
+        void clear() {
+            Arrays.fill(events, 0, size, null);
+            size = 0;
+            snapshot = null;
+        }
+
+        long byteSize() {
+            return Integer.BYTES + (long) size * Integer.BYTES;
+        }
+
+        void writeTo(ByteBuffer out) {
+            out.putInt(size);
+            putInts(out, ids, size);
+        }
+
+        // events start out null, like the slots they come from
+        void readFrom(ByteBuffer in) {
+            int n = in.getInt();
+            ids = getInts(in, n, Math.max(INITIAL_CAPACITY, n));
+            events = new Event[ids.length];
+            size = n;
+            snapshot = null;
+        }
+    }
+
+    /** Open-addressing int id -> slot table with linear probing. */
+    private static final class IdIndex {
+        private static final int EMPTY = 0;   // event ids start at 1
+        private int[] keys   = new int[INITIAL_CAPACITY * 2];
+        private int[] values = new int[INITIAL_CAPACITY * 2];
+        private int count;
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == key) return values[i];
+                if (k == EMPTY) return -1;
+            }
+        }
+
+        void put(int key, int value) {
+            if ((count + 1) * 2 > keys.length) rehash(keys.length * 2);
+            int mask = keys.length - 1;
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                if (keys[i] == EMPTY) {
+                    keys[i] = key;
+                    values[i] = value;
+                    count++;
+                    return;
+                }
+            }
+        }
+
+        void remove(int key) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) return;
+                i = (i + 1) & mask;
+            }
+            // backward-shift deletion keeps probe chains intact without tombstones
+            int hole = i;
+            for (int j = (hole + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = mix(keys[j]) & mask;
+                boolean movable = hole <= j ? (home <= hole || home > j) : (home <= hole && home > j);
+                if (movable) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+            }
+            keys[hole] = EMPTY;
+            count--;
+        }
+
+        void clear() {
+            Arrays.fill(keys, EMPTY);
+            count = 0;
+        }
+
+        // the table as it is, so loading it back needs no rehashing
+        long byteSize() {
+            return 2L * Integer.BYTES + 2L * keys.length * Integer.BYTES;
+        }
+
+        void writeTo(ByteBuffer out) {
+            out.putInt(keys.length);
+            out.putInt(count);
+            putInts(out, keys, keys.length);
+            putInts(out, values, values.length);
+        }
+
+        void readFrom(ByteBuffer in) {
+            int capacity = in.getInt();
+            if (Integer.bitCount(capacity) != 1) throw new IllegalStateException("Bad id index capacity " + capacity);
+            count = in.getInt();
+            keys = getInts(in, capacity, capacity);
+            values = getInts(in, capacity, capacity);
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys, oldValues = values;
+            keys = new int[capacity];
+            values = new int[capacity];
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
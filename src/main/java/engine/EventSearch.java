@@ -0,0 +1,413 @@
+package engine;
+
+import model.Event;
+
+import java.time.DayOfWeek;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Search over the enabled events: words of the name or venue by prefix,
+ * days of the week, and a price range.
+ * <p>
+ * Every indexed event gets a document number, and each filter is kept in
+ * the form that makes it cheapest:
+ * <ul>
+ *   <li>words of names and venues in a sorted term dictionary. A prefix
+ *       is one contiguous range of it, like a subtree of a trie, and each
+ *       term lists its documents;</li>
+ *   <li>one bitset per day of the week, plus bitsets of live and enabled
+ *       documents;</li>
+ *   <li>documents by price in a sorted map, so a range is one sub-map.</li>
+ * </ul>
+ * A query turns its most selective part into a bitset, ANDs the bitsets
+ * of the rest 64 documents at a time, and checks the price per hit. Cost
+ * follows the number of matching documents, not the size of the catalog.
+ * <p>
+ * The index is built from the inventory's columns, so no Event is
+ * materialized for it, on a background thread started after setup
+ * ({@link #buildInBackground}); a search that comes first builds it or
+ * waits for it, so callers that mustn't block check {@link #isReady}.
+ * From then on it follows the catalog as a {@link CatalogCache.Listener}. An edited
+ * event gets a new document and the old one is dropped from the live set;
+ * the index is rebuilt once half its documents are dead.
+ * Thread-safe: queries share a read lock, changes take the write lock.
+ */
+public class EventSearch implements CatalogCache.Listener {
+    private static final Logger LOG = Logger.getLogger(EventSearch.class.getName());
+    private static final int MIN_COMPACT_DOCS = 1024;
+    // terms with this many documents also keep them as a bitset, so common
+    // words ("show", "venue") are ORed in a word at a time
+    private static final int DENSE_TERM = 4096;
+
+    /**
+     * What to look for; every part is optional.
+     *
+     * @param text     words that must each start a word of the name or venue
+     * @param days     any of these days; empty for every day
+     * @param minPrice lowest price, inclusive
+     * @param maxPrice highest price, inclusive; below {@code minPrice}, or
+     *                 either bound NaN, and nothing matches
+     */
+    public record Query(String text, Set<DayOfWeek> days, double minPrice, double maxPrice) {
+        public static Query text(String text) {
+            return new Query(text, Set.of(), 0, Double.POSITIVE_INFINITY);
+        }
+
+        boolean hasPriceRange() {
+            return minPrice > 0 || maxPrice < Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * @param events matches in id order, at most the limit asked for; once
+     *               events have been edited, not necessarily the lowest ids
+     * @param total  how many events match in all
+     */
+    public record Result(List<Event> events, int total) {}
+
+    private final EventInventory inventory;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // per document
+    private int docs;
+    private int dead;
+    private int[]    docId    = new int[1024];
+    private double[] docPrice = new double[1024];
+    private long[]   live     = new long[16];
+    private long[]   enabled  = new long[16];
+    private final long[][] dayBits = new long[7][16];
+
+    // event id -> document + 1 (0: not indexed); ids are dense, so an array
+    private int[] docOfId = new int[1024];
+
+    private final TreeMap<String, IntList> terms  = new TreeMap<>();
+    private final TreeMap<Double, IntList> prices = new TreeMap<>();
+
+    // until the first build, changes are ignored; it indexes the catalog as it is then
+    private volatile boolean built;
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    public EventSearch(EventInventory inventory) {
+        this.inventory = inventory;
+    }
+
+    // ─── building ─────────────────────────────────────────────────────────────
+
+    /** Index the whole inventory from scratch. */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            // read under the lock: a change published meanwhile waits and is re-applied
+            clear();
+            inventory.forEachColumns(this::index);
+            built = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready.complete(null);
+    }
+
+    /** Build the index on a daemon thread, unless it is built already. */
+    public void buildInBackground() {
+        if (built) return;
+        Thread t = new Thread(() -> {
+            try {
+                buildOnce();
+            } catch (RuntimeException ex) {
+                // the next search tries again, on its own thread
+                LOG.log(Level.WARNING, "Search index build failed", ex);
+                ready.completeExceptionally(ex);
+            }
+        }, "search-index");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** Is the index built, so that {@link #search} won't block on building it? */
+    public boolean isReady() {
+        return built;
+    }
+
+    /**
+     * Completes once the index is built; a copy, so cancelling it only
+     * detaches the caller.
+     */
+    public CompletableFuture<Void> whenReady() {
+        return ready.copy();
+    }
+
+    @Override
+    public void catalogChanged(long version, List<CatalogCache.Change> changes) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (!built) return;
+            for (CatalogCache.Change c : changes) {
+                Event e = c.event();
+                switch (c.kind()) {
+                    case REMOVED  -> retire(e.getId());
+                    case DISABLED -> setEnabled(e);
+                    case ADDED, UPDATED -> {
+                        retire(e.getId());
+                        index(e.getId(), e.getPrice(), e.isDisabled(), e.getName(), e.getVenue(), e.getDate());
+                    }
+                    case SEATS -> { }
+                }
+            }
+            compact = docs >= MIN_COMPACT_DOCS && dead * 2 > docs;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) rebuild();
+    }
+
+    private void clear() {
+        docs = 0;
+        dead = 0;
+        Arrays.fill(live, 0);
+        Arrays.fill(enabled, 0);
+        for (long[] d : dayBits) Arrays.fill(d, 0);
+        Arrays.fill(docOfId, 0);
+        terms.clear();
+        prices.clear();
+    }
+
+    private void index(int id, double price, boolean disabled, String name, String venue, String date) {
+        int doc = docs++;
+        ensureDocCapacity(docs);
+        docId[doc] = id;
+        docPrice[doc] = price;
+        set(live, doc);
+        if (!disabled) set(enabled, doc);
+        int day = dayIndex(date);
+        if (day >= 0) set(dayBits[day], doc);
+
+        for (String t : tokenize(name)) {
+            terms.computeIfAbsent(t, k -> new IntList()).add(doc);
+        }
+        for (String t : tokenize(venue)) {
+            terms.computeIfAbsent(t, k -> new IntList()).add(doc);
+        }
+        prices.computeIfAbsent(price, k -> new IntList()).add(doc);
+
+        if (id >= docOfId.length) docOfId = Arrays.copyOf(docOfId, Math.max(id + 1, docOfId.length * 2));
+        docOfId[id] = doc + 1;
+    }
+
+    // the document stays in the term and price lists, but is no longer live
+    private void retire(int id) {
+        int doc = docOf(id);
+        if (doc < 0) return;
+        clearBit(live, doc);
+        clearBit(enabled, doc);
+        docOfId[id] = 0;
+        dead++;
+    }
+
+    private void setEnabled(Event e) {
+        int doc = docOf(e.getId());
+        if (doc < 0) return;
+        if (e.isDisabled()) clearBit(enabled, doc);
+        else set(enabled, doc);
+    }
+
+    private int docOf(int id) {
+        return id >= 0 && id < docOfId.length ? docOfId[id] - 1 : -1;
+    }
+
+    private void ensureDocCapacity(int n) {
+        if (n > docId.length) {
+            int cap = Math.max(n, docId.length * 2);
+            docId = Arrays.copyOf(docId, cap);
+            docPrice = Arrays.copyOf(docPrice, cap);
+        }
+        int words = (n + 63) >>> 6;
+        if (words > live.length) {
+            int cap = Math.max(words, live.length * 2);
+            live = Arrays.copyOf(live, cap);
+            enabled = Arrays.copyOf(enabled, cap);
+            for (int d = 0; d < 7; d++) {
+                dayBits[d] = Arrays.copyOf(dayBits[d], cap);
+            }
+        }
+    }
+
+    // ─── searching ────────────────────────────────────────────────────────────
+
+    /**
+     * The enabled events matching {@code q}; at most {@code limit} of them
+     * materialized. Before the index is ready this builds it, or waits for
+     * the build under way.
+     */
+    public Result search(Query q, int limit) {
+        // an empty price range; also keeps subMap from refusing it
+        if (!(q.minPrice() <= q.maxPrice())) return new Result(List.of(), 0);
+        if (!built) buildOnce();
+        int[] ids = new int[Math.max(0, limit)];
+        int found = 0;
+        int total = 0;
+        lock.readLock().lock();
+        try {
+            int words = (docs + 63) >>> 6;
+            long[] bits = null;   // null: no candidate set yet, i.e. every document
+
+            List<String> text = tokenize(q.text());
+            for (String w : text) {
+                long[] hits = prefixBits(w, words);
+                if (bits == null) {
+                    bits = hits;
+                } else {
+                    for (int i = 0; i < words; i++) bits[i] &= hits[i];
+                }
+            }
+
+            boolean checkPrice = false;
+            if (q.hasPriceRange()) {
+                if (bits == null) bits = priceBits(q.minPrice(), q.maxPrice(), words);
+                else checkPrice = true;
+            }
+
+            long[][] days = new long[q.days() == null ? 0 : q.days().size()][];
+            int n = 0;
+            if (q.days() != null) {
+                for (DayOfWeek d : q.days()) days[n++] = dayBits[d.getValue() - 1];
+            }
+
+            for (int i = 0; i < words; i++) {
+                long w = live[i] & enabled[i];
+                if (bits != null) w &= bits[i];
+                if (days.length > 0 && w != 0) {
+                    long any = 0;
+                    for (long[] d : days) any |= d[i];
+                    w &= any;
+                }
+                while (w != 0) {
+                    int doc = (i << 6) + Long.numberOfTrailingZeros(w);
+                    w &= w - 1;
+                    if (!checkPrice && found == ids.length) {
+                        // page full: only the count is left
+                        total += Long.bitCount(w) + 1;
+                        break;
+                    }
+                    if (checkPrice && (docPrice[doc] < q.minPrice() || docPrice[doc] > q.maxPrice())) continue;
+                    total++;
+                    if (found < ids.length) ids[found++] = docId[doc];
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // documents are numbered as events arrive, not by id
+        Arrays.sort(ids, 0, found);
+        List<Event> events = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            Event e = inventory.get(ids[i]);
+            if (e != null) events.add(e);
+        }
+        return new Result(events, total);
+    }
+
+    private void buildOnce() {
+        lock.writeLock().lock();
+        try {
+            if (!built) rebuild();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // documents with a word starting with prefix: one range of the sorted terms
+    private long[] prefixBits(String prefix, int words) {
+        long[] bits = new long[words];
+        for (IntList l : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            l.setBits(bits);
+        }
+        return bits;
+    }
+
+    private long[] priceBits(double min, double max, int words) {
+        long[] bits = new long[words];
+        NavigableMap<Double, IntList> range = prices.subMap(min, true, max, true);
+        for (Map.Entry<Double, IntList> en : range.entrySet()) {
+            en.getValue().setBits(bits);
+        }
+        return bits;
+    }
+
+    /** Lower-case words of letters and digits. */
+    static List<String> tokenize(String s) {
+        List<String> out = new ArrayList<>();
+        if (s == null) return out;
+        int start = -1;
+        for (int i = 0; i <= s.length(); i++) {
+            boolean word = i < s.length() && Character.isLetterOrDigit(s.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                out.add(s.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    // "Mon" -> 0 ... "Sun" -> 6; -1 if the date isn't a day name
+    private static int dayIndex(String date) {
+        if (date == null) return -1;
+        for (DayOfWeek d : DayOfWeek.values()) {
+            if (d.getDisplayName(TextStyle.SHORT, Locale.ENGLISH).equalsIgnoreCase(date)
+                    || d.name().equalsIgnoreCase(date)) {
+                return d.getValue() - 1;
+            }
+        }
+        return -1;
+    }
+
+    private static void set(long[] bits, int i)      { bits[i >>> 6] |= 1L << i; }
+    private static void clearBit(long[] bits, int i) { bits[i >>> 6] &= ~(1L << i); }
+
+    // a growable list of document numbers; a bitset too once it is long
+    private static final class IntList {
+        private int[] a = new int[4];
+        private int size;
+        private long[] dense;
+
+        void add(int v) {
+            if (size == a.length) a = Arrays.copyOf(a, size * 2);
+            a[size++] = v;
+            if (dense != null) {
+                if ((v >>> 6) >= dense.length) dense = Arrays.copyOf(dense, Math.max((v >>> 6) + 1, dense.length * 2));
+                dense[v >>> 6] |= 1L << v;
+            } else if (size == DENSE_TERM) {
+                long[] bits = new long[(v >>> 6) + 1];
+                setBits(bits);
+                dense = bits;
+            }
+        }
+
+        void setBits(long[] bits) {
+            if (dense != null) {
+                int n = Math.min(bits.length, dense.length);
+                for (int i = 0; i < n; i++) bits[i] |= dense[i];
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                int d = a[i];
+                bits[d >>> 6] |= 1L << d;
+            }
+        }
+    }
+}
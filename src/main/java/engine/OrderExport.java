@@ -0,0 +1,120 @@
+package engine;
+
+import dao.OrderDao;
+import dao.OrderVisitor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes the order history as a text report, straight from a database cursor.
+ * <p>
+ * No Order objects are built. Each order is formatted into one reusable
+ * buffer and written through a buffered writer, so memory stays flat
+ * however long the history is. The text is the same as the old
+ * List&lt;Order&gt;-based export.
+ */
+public final class OrderExport implements OrderVisitor {
+
+    /** Reports how far an export has got; called from the exporting thread. */
+    @FunctionalInterface
+    public interface Progress {
+        void update(long done, long total);
+    }
+
+    private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // how often Progress hears about it; a UI only needs a few updates
+    private static final int PROGRESS_EVERY = 500;
+
+    private final Writer out;
+    private final Progress progress;
+    private final long total;
+    private long done;
+    private double orderTotal;
+
+    // reused for every order
+    private final StringBuilder text = new StringBuilder(512);
+    private char[] chars = new char[512];
+
+    private OrderExport(Writer out, Progress progress, long total) {
+        this.out = out;
+        this.progress = progress;
+        this.total = total;
+    }
+
+    /**
+     * Export orders, newest first, to {@code file} (overwritten).
+     *
+     * @param username only this user's orders; null for every order
+     * @param progress may be null
+     * @return the number of orders written
+     */
+    public static long write(OrderDao dao, String username, Path file, Progress progress)
+            throws SQLException, IOException {
+        long total = progress == null ? 0 : dao.countOrders(username);
+        try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            OrderExport export = new OrderExport(w, progress, total);
+            dao.streamOrders(username, export);
+            if (progress != null) progress.update(export.done, Math.max(total, export.done));
+            return export.done;
+        }
+    }
+
+    @Override
+    public void beginOrder(String orderNumber, String timestamp, double total) throws IOException {
+        text.setLength(0);
+        text.append("Order Number: ").append(orderNumber).append('\n');
+        // stored as ISO "yyyy-MM-ddTHH:mm:ss[.fff]", shown as "yyyy-MM-dd HH:mm:ss"
+        text.append("Date & Time  : ");
+        if (timestamp.length() >= 19) {
+            text.append(timestamp, 0, 10).append(' ').append(timestamp, 11, 19);
+        } else {
+            text.append(LocalDateTime.parse(timestamp).format(TS_FMT));
+        }
+        text.append('\n');
+        text.append("Items:\n");
+        // printed after the items
+        orderTotal = total;
+    }
+
+    @Override
+    public void item(String eventName, int quantity) {
+        text.append("  • ").append(eventName)
+            .append(" — ").append(quantity).append(" seats\n");
+    }
+
+    @Override
+    public void endOrder() throws IOException {
+        // same rounding as String.format("%.2f")
+        text.append("Total        : $")
+            .append(BigDecimal.valueOf(orderTotal).setScale(2, RoundingMode.HALF_UP).toPlainString())
+            .append(System.lineSeparator()).append(System.lineSeparator());
+        flushText();
+
+        done++;
+        // a cancelled async export interrupts this thread
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Export cancelled after " + done + " orders");
+        }
+        if (progress != null && done % PROGRESS_EVERY == 0) {
+            progress.update(done, Math.max(total, done));
+        }
+    }
+
+    private void flushText() throws IOException {
+        int len = text.length();
+        if (len > chars.length) chars = new char[Math.max(len, chars.length * 2)];
+        text.getChars(0, len, chars, 0);
+        out.write(chars, 0, len);
+    }
+}
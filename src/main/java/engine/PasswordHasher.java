@@ -0,0 +1,114 @@
+package engine;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Salted PBKDF2-HMAC-SHA512 password hashes, stored as one self-describing
+ * string: {@code pbkdf2-sha512$<iterations>$<salt>$<hash>} (Base64).
+ * <p>
+ * The iteration count is the cost factor. It is recorded in every hash, so
+ * raising it leaves old hashes verifiable; {@link #needsRehash} tells the
+ * caller to upgrade them. Anything not in this format is a legacy plaintext
+ * password from before hashing. Instances are immutable and thread-safe.
+ */
+public final class PasswordHasher {
+    /** System property for the cost, e.g. {@code -Dpassword.iterations=210000}. */
+    public static final String ITERATIONS_PROPERTY = "password.iterations";
+    /** OWASP's 2023 recommendation for PBKDF2-HMAC-SHA512. */
+    public static final int DEFAULT_ITERATIONS = 210_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA512";
+    private static final String PREFIX    = "pbkdf2-sha512$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS  = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int iterations;
+
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) throw new IllegalArgumentException("iterations must be positive: " + iterations);
+        this.iterations = iterations;
+    }
+
+    /** {@value #DEFAULT_ITERATIONS} iterations unless overridden by {@value #ITERATIONS_PROPERTY}. */
+    public static PasswordHasher fromSystemProperties() {
+        return new PasswordHasher(Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS));
+    }
+
+    public int getIterations() { return iterations; }
+
+    /** A new hash of {@code password} with a fresh random salt. */
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations, HASH_BITS);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + '$' + b64.encodeToString(salt) + '$' + b64.encodeToString(hash);
+    }
+
+    /**
+     * Check {@code password} against a stored value. Hashes are recomputed
+     * at their own cost and compared in constant time. A legacy plaintext
+     * value is compared in constant time too, but costs nothing; callers
+     * that must not reveal which kind they hold should pair it with
+     * {@link #dummyVerify}.
+     */
+    public boolean verify(String password, String stored) {
+        if (!isHash(stored)) {
+            return MessageDigest.isEqual(
+                    password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        int cost = Integer.parseInt(parts[1]);
+        Base64.Decoder b64 = Base64.getDecoder();
+        byte[] salt = b64.decode(parts[2]);
+        byte[] expected = b64.decode(parts[3]);
+        byte[] actual = pbkdf2(password, salt, cost, expected.length * 8);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    /** Spend as long as verifying a current-cost hash, for a user that doesn't exist. */
+    public void dummyVerify(String password) {
+        pbkdf2(password, new byte[SALT_BYTES], iterations, HASH_BITS);
+    }
+
+    /** True for plaintext, and for hashes made at a lower cost than this hasher's. */
+    public boolean needsRehash(String stored) {
+        return !isHash(stored) || Integer.parseInt(stored.split("\\$")[1]) < iterations;
+    }
+
+    /** Whether {@code stored} is a hash in this class's format rather than plaintext. */
+    public static boolean isHash(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX)) return false;
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) return false;
+        try {
+            return Integer.parseInt(parts[1]) > 0;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations, int bits) {
+        char[] chars = password.toCharArray();
+        PBEKeySpec spec = new PBEKeySpec(chars, salt, iterations, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException ex) {
+            // every Java 8+ runtime ships this algorithm
+            throw new IllegalStateException(ALGORITHM + " unavailable", ex);
+        } finally {
+            spec.clearPassword();
+            Arrays.fill(chars, '\0');
+        }
+    }
+}
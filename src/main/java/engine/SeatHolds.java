@@ -0,0 +1,295 @@
+package engine;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Time-limited seat holds for carts.
+ * <p>
+ * Each event has one counter of seats that are neither sold nor held.
+ * Placing a hold takes seats off it with a compare-and-set loop, so sessions
+ * never wait on a lock. When two sessions race for the last seats, the loser
+ * fails at once instead of blocking. Releasing or expiring a hold gives its
+ * seats back the same way.
+ * <p>
+ * Expiry runs on one ticker thread driving a hashed timer wheel. A hold goes
+ * into the bucket for its deadline and is looked at once when the wheel
+ * reaches that bucket, so there is no thread or scheduled task per hold.
+ * <p>
+ * A hold ends in exactly one way: released by its session, claimed by
+ * checkout, or expired by the wheel. The state change is a CAS, so a hold
+ * that expires while its session checks out is counted only once.
+ */
+public final class SeatHolds implements AutoCloseable {
+    private static final int WHEEL_SIZE = 512;   // power of two
+
+    /** A number of seats of one event, reserved for one cart line. */
+    public static final class Hold {
+        private static final int ACTIVE = 0, RELEASED = 1, CLAIMED = 2, EXPIRED = 3;
+
+        private static final AtomicIntegerFieldUpdater<Hold> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Hold.class, "state");
+
+        private final int eventId;
+        private final int quantity;
+        private final long deadline;           // System.nanoTime()
+        private volatile int state = ACTIVE;
+        private long rounds;                   // ticker thread only
+
+        private Hold(int eventId, int quantity, long deadline) {
+            this.eventId = eventId;
+            this.quantity = quantity;
+            this.deadline = deadline;
+        }
+
+        public int getEventId()  { return eventId; }
+        public int getQuantity() { return quantity; }
+
+        /** False once the hold has been released, claimed or has expired. */
+        public boolean isActive() { return state == ACTIVE; }
+
+        public boolean isExpired() { return state == EXPIRED; }
+
+        private boolean end(int how) {
+            return STATE.compareAndSet(this, ACTIVE, how);
+        }
+    }
+
+    /** Point-in-time view of the hold counters. */
+    public record Metrics(long placed, long rejected, long expired, long claimed) {}
+
+    private final long ttlNanos;
+    private final long tickNanos;
+    private final IntUnaryOperator seedSeats;
+    private final ConcurrentHashMap<Integer, AtomicInteger> available = new ConcurrentHashMap<>();
+
+    // the wheel: new holds are queued here and bucketed by the ticker thread.
+    // Striped by thread so concurrent sessions don't all append to one tail.
+    private final Queue<Hold>[] incoming;
+    private final List<List<Hold>> buckets = new ArrayList<>(WHEEL_SIZE);
+    private final long startNanos = System.nanoTime();
+    private long tick;
+    private final Thread ticker;
+
+    private final LongAdder placed   = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired  = new LongAdder();
+    private final LongAdder claimed  = new LongAdder();
+
+    /**
+     * @param ttl       how long a hold lasts
+     * @param tick      timer wheel resolution; holds expire up to one tick late
+     * @param seedSeats current remaining seats of an event id, or a negative
+     *                  number for an unknown id; asked once per event, the
+     *                  first time it is held
+     */
+    public SeatHolds(Duration ttl, Duration tick, IntUnaryOperator seedSeats) {
+        this.ttlNanos = ttl.toNanos();
+        this.tickNanos = Math.max(1, tick.toNanos());
+        this.seedSeats = seedSeats;
+        int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Queue<Hold>[] queues = new Queue[stripes];
+        for (int i = 0; i < stripes; i++) {
+            queues[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.incoming = queues;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.ticker = new Thread(this::runTicker, "seat-hold-wheel");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    // ─── holds ────────────────────────────────────────────────────────────────
+
+    /** @return a new hold, or null if fewer than {@code qty} seats are free */
+    public Hold hold(int eventId, int qty) {
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be positive: " + qty);
+        if (!take(eventId, qty)) {
+            rejected.increment();
+            return null;
+        }
+        return schedule(eventId, qty);
+    }
+
+    /**
+     * Change a hold's quantity. The result is a new hold with a fresh
+     * deadline. If there aren't enough seats, this returns null and
+     * {@code h} is left exactly as it was.
+     */
+    public Hold resize(Hold h, int newQty) {
+        if (newQty <= 0) throw new IllegalArgumentException("Quantity must be positive: " + newQty);
+        int delta = newQty - h.quantity;
+        if (delta > 0 && !take(h.eventId, delta)) {
+            rejected.increment();
+            return null;
+        }
+        if (h.end(Hold.CLAIMED)) {
+            // the old hold's seats carry over to the new one
+            if (delta < 0) giveBack(h.eventId, -delta);
+        } else {
+            // it expired meanwhile and its seats went back; take them again
+            int again = delta > 0 ? h.quantity : newQty;
+            if (!take(h.eventId, again)) {
+                if (delta > 0) giveBack(h.eventId, delta);
+                rejected.increment();
+                return null;
+            }
+        }
+        return schedule(h.eventId, newQty);
+    }
+
+    /** Give a hold's seats back (removed from the cart, session ended). */
+    public void release(Hold h) {
+        if (h.end(Hold.RELEASED)) giveBack(h.eventId, h.quantity);
+    }
+
+    /**
+     * Turn a hold into seats owned by the caller, for checkout. Expiry can no
+     * longer touch them. If the sale then fails, hand them back with
+     * {@link #giveBack}.
+     *
+     * @return false if the hold had already ended (usually: expired)
+     */
+    public boolean claim(Hold h) {
+        if (!h.end(Hold.CLAIMED)) return false;
+        claimed.increment();
+        return true;
+    }
+
+    /**
+     * Hold seats the caller already owns, from {@link #take} or
+     * {@link #claim}; no seats move. A failed sale gives its cart back its
+     * holds this way.
+     */
+    public Hold holdTaken(int eventId, int qty) {
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be positive: " + qty);
+        return schedule(eventId, qty);
+    }
+
+    /** Take seats with no hold around them; false if not enough are free. */
+    public boolean take(int eventId, int qty) {
+        AtomicInteger free = counter(eventId);
+        if (free == null) return false;
+        while (true) {
+            int n = free.get();
+            if (n < qty) return false;
+            if (free.compareAndSet(n, n - qty)) return true;
+        }
+    }
+
+    /** Return seats taken with {@link #take} or {@link #claim}. */
+    public void giveBack(int eventId, int qty) {
+        AtomicInteger free = available.get(eventId);
+        if (free != null) free.addAndGet(qty);
+    }
+
+    /** Seats neither sold nor held, or -1 for an unknown event. */
+    public int available(int eventId) {
+        AtomicInteger free = counter(eventId);
+        return free == null ? -1 : free.get();
+    }
+
+    // ─── catalog changes ──────────────────────────────────────────────────────
+
+    /** An admin changed the event's seat count by {@code delta}. */
+    public void seatsChanged(int eventId, int delta) {
+        AtomicInteger free = available.get(eventId);
+        if (free != null) free.addAndGet(delta);
+    }
+
+    /** The event was deleted; outstanding holds on it become no-ops. */
+    public void forget(int eventId) {
+        available.remove(eventId);
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(placed.sum(), rejected.sum(), expired.sum(), claimed.sum());
+    }
+
+    @Override
+    public void close() {
+        ticker.interrupt();
+    }
+
+    // ─── internals ────────────────────────────────────────────────────────────
+
+    private AtomicInteger counter(int eventId) {
+        AtomicInteger free = available.get(eventId);
+        if (free != null) return free;
+        int seats = seedSeats.applyAsInt(eventId);
+        if (seats < 0) return null;
+        return available.computeIfAbsent(eventId, id -> new AtomicInteger(seats));
+    }
+
+    private Hold schedule(int eventId, int qty) {
+        Hold h = new Hold(eventId, qty, System.nanoTime() + ttlNanos);
+        incoming[(int) Thread.currentThread().threadId() & (incoming.length - 1)].add(h);
+        placed.increment();
+        return h;
+    }
+
+    private void runTicker() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long nextTick = startNanos + (tick + 1) * tickNanos;
+            long wait = nextTick - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+            tick++;
+            drainIncoming();
+            expireBucket(buckets.get((int) (tick & (WHEEL_SIZE - 1))));
+        }
+    }
+
+    private void drainIncoming() {
+        for (Queue<Hold> q : incoming) {
+            Hold h;
+            while ((h = q.poll()) != null) {
+                if (h.isActive()) bucket(h);
+            }
+        }
+    }
+
+    private void bucket(Hold h) {
+        // the tick at which the deadline has passed, never one already gone
+        long due = Math.max(tick + 1, (h.deadline - startNanos + tickNanos - 1) / tickNanos);
+        // the bucket is visited every WHEEL_SIZE ticks, starting with this one
+        h.rounds = (due - tick) / WHEEL_SIZE;
+        buckets.get((int) (due & (WHEEL_SIZE - 1))).add(h);
+    }
+
+    private void expireBucket(List<Hold> bucket) {
+        Iterator<Hold> it = bucket.iterator();
+        while (it.hasNext()) {
+            Hold h = it.next();
+            if (!h.isActive()) {
+                it.remove();
+            } else if (h.rounds > 0) {
+                h.rounds--;
+            } else {
+                it.remove();
+                if (h.end(Hold.EXPIRED)) {
+                    expired.increment();
+                    giveBack(h.eventId, h.quantity);
+                }
+            }
+        }
+    }
+}
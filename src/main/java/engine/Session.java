@@ -0,0 +1,388 @@
+package engine;
+
+import dao.DaoExecutor;
+import dao.InsufficientSeatsException;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.Timer;
+import model.CartItem;
+import model.Event;
+import model.Order;
+import model.OrderSummary;
+import model.User;
+import model.UserOrderSummary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One user's view of a {@link BookingEngine}: who they are and what is in
+ * their cart. Sessions are independent of each other; a single session is
+ * meant to be used by one thread at a time.
+ * <p>
+ * Every cart line is backed by a {@link SeatHolds.Hold}, so seats in a cart
+ * are kept away from other sessions until checkout, removal, {@link #close()}
+ * or expiry. A checkout that fails keeps them held, except for a line it
+ * reports as short of seats.
+ * <p>
+ * A logged-in user's cart is also saved: every edit is handed to the
+ * engine's {@link CartStore}, which writes it behind, and
+ * {@link #restoreCart()} brings it back in a later session.
+ * <p>
+ * The {@code ...Async} methods run on a virtual thread. While one that
+ * changes the cart is in flight, the caller must leave the cart alone.
+ */
+public class Session implements AutoCloseable {
+    private static final Timer   CHECKOUT            = Metrics.timer("Session.checkout");
+    private static final Counter CHECKOUTS           = Metrics.counter("checkouts");
+    private static final Counter SEATS_SOLD          = Metrics.counter("seats.sold");
+    // seats that couldn't be held, carts that no longer fit, sales the DB refused
+    private static final Counter VALIDATION_FAILURES = Metrics.counter("validation.failures");
+
+    private final BookingEngine engine;
+    private final User user;
+    // event id -> cart line, in the order the lines were added
+    private final Map<Integer, CartItem> lines = new LinkedHashMap<>();
+    // event id -> the hold behind that cart line
+    private final Map<Integer, SeatHolds.Hold> holds = new HashMap<>();
+    // read once from the DB, then advanced by this session's checkouts
+    private volatile UserOrderSummary summary;
+
+    Session(BookingEngine engine, User user) {
+        this.engine = engine;
+        this.user = user;
+    }
+
+    public BookingEngine getEngine() { return engine; }
+    public User getUser()            { return user; }
+
+    // --- Order history ---
+
+    /**
+     * This user's order count, spend and seats. The first call reads one row;
+     * after that checkouts keep it current without going back to the DB.
+     * A session with no user has no orders of its own.
+     */
+    public UserOrderSummary getOrderSummary() throws SQLException {
+        if (summary == null) {
+            summary = user == null
+                    ? UserOrderSummary.EMPTY
+                    : engine.getUserSummary(user.getUsername());
+        }
+        return summary;
+    }
+
+    /**
+     * One page of this user's history (everyone's, with no user), newest
+     * first; see {@link BookingEngine#getOrderPage}.
+     */
+    public List<OrderSummary> getOrderPage(int beforeId, int limit,
+                                           LocalDateTime from, LocalDateTime to)
+            throws SQLException {
+        return engine.getOrderPage(username(), beforeId, limit, from, to);
+    }
+
+    /** {@link #getOrderSummary()} without blocking; completes at once when cached. */
+    public CompletableFuture<UserOrderSummary> getOrderSummaryAsync() {
+        UserOrderSummary s = summary;
+        if (s != null) return CompletableFuture.completedFuture(s);
+        return DaoExecutor.submit(this::getOrderSummary);
+    }
+
+    public CompletableFuture<List<OrderSummary>> getOrderPageAsync(int beforeId, int limit,
+                                                                   LocalDateTime from, LocalDateTime to) {
+        return engine.getOrderPageAsync(username(), beforeId, limit, from, to);
+    }
+
+    /** Export this user's orders; see {@link BookingEngine#exportOrders(String, Path, OrderExport.Progress)}. */
+    public long exportOrders(Path file, OrderExport.Progress progress) throws IOException {
+        return engine.exportOrders(username(), file, progress);
+    }
+
+    /** See {@link BookingEngine#exportOrdersAsync}. */
+    public CompletableFuture<Long> exportOrdersAsync(Path file, OrderExport.Progress progress) {
+        return engine.exportOrdersAsync(username(), file, progress);
+    }
+
+    private String username() {
+        return user == null ? null : user.getUsername();
+    }
+
+    // --- Cart operations ---
+
+    /** The cart lines in the order they were added; a copy. */
+    public List<CartItem> getCart() { return List.copyOf(lines.values()); }
+
+    /** The cart line for an event, or null if it isn't in the cart. */
+    public CartItem getLine(int eventId) { return lines.get(eventId); }
+
+    /**
+     * Add seats to the cart, holding them for this session.
+     *
+     * @throws IllegalStateException if not enough seats are free
+     */
+    public void addToCart(Event e, int qty) {
+        // by id: an edit replaces the event instance, not the cart line
+        CartItem ci = lines.get(e.getId());
+        if (ci != null) {
+            hold(e, ci.getQuantity() + qty);
+            ci.setQuantity(ci.getQuantity() + qty);
+        } else {
+            hold(e, qty);
+            ci = new CartItem(e, qty);
+            lines.put(e.getId(), ci);
+        }
+        save(e.getId(), ci.getQuantity());
+    }
+
+    /**
+     * Change a line's quantity; zero or less removes it and releases its hold.
+     *
+     * @throws IllegalStateException if the line grows beyond the free seats
+     */
+    public void updateCart(Event e, int newQty) {
+        CartItem ci = lines.get(e.getId());
+        if (ci == null) return;
+        if (newQty <= 0) {
+            SeatHolds.Hold h = holds.remove(e.getId());
+            if (h != null) engine.seatHolds().release(h);
+            lines.remove(e.getId());
+        } else {
+            hold(e, newQty);
+            ci.setQuantity(newQty);
+        }
+        save(e.getId(), newQty);
+    }
+
+    public void removeFromCart(Event e) {
+        updateCart(e, 0);
+    }
+
+    /** True if every line is still held, or its hold expired but the seats are still free. */
+    public boolean validateCart() {
+        SeatHolds seatHolds = engine.seatHolds();
+        for (CartItem ci : lines.values()) {
+            SeatHolds.Hold h = holds.get(ci.getEvent().getId());
+            if ((h == null || !h.isActive())
+                    && seatHolds.available(ci.getEvent().getId()) < ci.getQuantity()) {
+                VALIDATION_FAILURES.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Bring back the cart this user left in an earlier session (logout,
+     * crash or restart), holding its seats again. A line whose event is
+     * gone or disabled is dropped; one with fewer seats free than it had
+     * shrinks to what is free, or is dropped if none are. Call on a new
+     * session, before anything else uses it.
+     *
+     * @return the number of lines restored
+     */
+    public int restoreCart() throws SQLException {
+        if (user == null || !lines.isEmpty()) return 0;
+        SeatHolds seatHolds = engine.seatHolds();
+        for (Map.Entry<Integer, Integer> saved : engine.carts().load(user.getUsername()).entrySet()) {
+            int id = saved.getKey();
+            int qty = saved.getValue();
+            Event e = engine.getInventory().get(id);
+            SeatHolds.Hold h = null;
+            if (e != null && !e.isDisabled()) {
+                h = seatHolds.hold(id, qty);
+                int free = seatHolds.available(id);
+                if (h == null && free > 0 && free < qty) {
+                    qty = free;
+                    h = seatHolds.hold(id, qty);
+                }
+            }
+            if (h == null) {
+                save(id, 0);
+                continue;
+            }
+            if (qty != saved.getValue()) save(id, qty);
+            holds.put(id, h);
+            lines.put(id, new CartItem(e, qty));
+        }
+        return lines.size();
+    }
+
+    /** {@link #restoreCart()} on a virtual thread; leave the cart alone until it completes. */
+    public CompletableFuture<Integer> restoreCartAsync() {
+        return DaoExecutor.submit(this::restoreCart);
+    }
+
+    /**
+     * Release every hold and empty the cart, e.g. on logout. The saved cart
+     * stays for the user's next session; its last edits are written soon.
+     */
+    @Override
+    public void close() {
+        SeatHolds seatHolds = engine.seatHolds();
+        holds.values().forEach(seatHolds::release);
+        holds.clear();
+        lines.clear();
+        if (user != null) engine.carts().flushSoon();
+    }
+
+    // hand a line's new quantity to the write-behind store; anonymous carts aren't saved
+    private void save(int eventId, int quantity) {
+        if (user != null) engine.carts().put(user.getUsername(), eventId, quantity);
+    }
+
+    // place or resize the hold behind e's cart line
+    private void hold(Event e, int qty) {
+        SeatHolds seatHolds = engine.seatHolds();
+        SeatHolds.Hold old = holds.get(e.getId());
+        SeatHolds.Hold h = old == null
+                ? seatHolds.hold(e.getId(), qty)
+                : seatHolds.resize(old, qty);
+        if (h == null) {
+            VALIDATION_FAILURES.increment();
+            int free = Math.max(0, seatHolds.available(e.getId()))
+                    + (old != null && old.isActive() ? old.getQuantity() : 0);
+            throw new IllegalStateException("Only " + free + " seats available for "
+                    + e.getName() + " (" + e.getDate() + ", " + e.getVenue() + ").");
+        }
+        holds.put(e.getId(), h);
+    }
+
+    /**
+     * Complete a checkout in one database transaction:
+     * 1) claim each line's hold (or, if it expired, seats that are still free),
+     * 2) deduct seats with conditional updates (the DB rejects oversells),
+     * 3) record the Order and its items under this user, add it to their
+     *    summary, and empty their saved cart,
+     * 4) on commit, refresh in-memory seat counts and clear the cart.
+     * Nothing is persisted if any line fails. The claimed seats are then held
+     * for the cart again, except a line the sale found short of seats.
+     *
+     * @return the order that was recorded
+     */
+    public Order checkout() {
+        long t = CHECKOUT.start();
+        try {
+            return doCheckout();
+        } catch (RuntimeException ex) {
+            CHECKOUT.failed();
+            throw ex;
+        } finally {
+            CHECKOUT.stop(t);
+        }
+    }
+
+    private Order doCheckout() {
+        // snapshot + total
+        List<CartItem> snapshot = new ArrayList<>(lines.values());
+        double total = snapshot.stream()
+                .mapToDouble(ci -> ci.getEvent().getPrice() * ci.getQuantity())
+                .sum();
+
+        claimHolds(snapshot);
+        // the sale empties the saved cart in its own transaction; edits not
+        // yet written must not land after it
+        Map<Integer, Integer> unsaved = username() == null
+                ? Map.of() : engine.carts().take(username());
+
+        Order order;
+        int[] remaining;
+        // a catalog refresh must not see the sale before memory does
+        CatalogCache catalog = engine.catalog();
+        catalog.beginLocalChange();
+        try {
+            try {
+                order = new Order(engine.nextOrderNumber(), LocalDateTime.now(), username(),
+                        snapshot, total);
+                remaining = engine.checkoutDao().checkout(order);
+            } catch (InsufficientSeatsException ex) {
+                VALIDATION_FAILURES.increment();
+                undo(snapshot, unsaved, ex.getLineIndex());
+                Event e = snapshot.get(ex.getLineIndex()).getEvent();
+                throw new IllegalStateException("Not enough seats for " + e.getName()
+                        + " (" + e.getDate() + ", " + e.getVenue() + "): requested "
+                        + ex.getRequested() + ".", ex);
+            } catch (SQLException ex) {
+                undo(snapshot, unsaved, -1);
+                throw new RuntimeException("Failed to save order", ex);
+            } catch (RuntimeException ex) {
+                undo(snapshot, unsaved, -1);
+                throw ex;
+            }
+
+            // committed: mirror the DB's seat counts in memory
+            for (int i = 0; i < snapshot.size(); i++) {
+                // through the inventory: it only ever lowers the count, so
+                // an older sale finishing late can't put seats back
+                engine.seatsSold(snapshot.get(i).getEvent().getId(), remaining[i]);
+                SEATS_SOLD.add(snapshot.get(i).getQuantity());
+            }
+            CHECKOUTS.increment();
+        } finally {
+            catalog.endLocalChange();
+        }
+
+        if (summary != null) summary = summary.plus(order);
+        holds.clear();
+        lines.clear();
+        return order;
+    }
+
+    /**
+     * {@link #checkout()} on a virtual thread. Cancelling only stops the
+     * wait: once started, the sale commits or fails as a whole.
+     */
+    public CompletableFuture<Order> checkoutAsync() {
+        return DaoExecutor.submitUninterruptibly(this::checkout);
+    }
+
+    // take ownership of every line's seats so expiry can't return them mid-sale
+    private void claimHolds(List<CartItem> lines) {
+        SeatHolds seatHolds = engine.seatHolds();
+        for (int i = 0; i < lines.size(); i++) {
+            CartItem ci = lines.get(i);
+            Event e = ci.getEvent();
+            SeatHolds.Hold h = holds.remove(e.getId());
+            boolean ok = (h != null && seatHolds.claim(h))
+                    || seatHolds.take(e.getId(), ci.getQuantity());
+            if (!ok) {
+                // this line stays in the cart unheld, and the message says why
+                VALIDATION_FAILURES.increment();
+                holdAgain(lines, i, -1);
+                throw new IllegalStateException("Your hold on " + e.getName()
+                        + " (" + e.getDate() + ", " + e.getVenue() + ") expired and only "
+                        + Math.max(0, seatHolds.available(e.getId())) + " seats are left.");
+            }
+        }
+    }
+
+    // a failed sale: the cart holds its seats again, its unsaved edits go back to the store
+    private void undo(List<CartItem> snapshot, Map<Integer, Integer> unsaved, int shortLine) {
+        holdAgain(snapshot, snapshot.size(), shortLine);
+        if (!unsaved.isEmpty()) engine.carts().putBack(username(), unsaved);
+    }
+
+    // the first n lines' claimed seats become holds again, with a fresh deadline;
+    // shortLine (or -1) is one the database had too few seats for: its seats
+    // go back to the pool and it stays in the cart unheld
+    private void holdAgain(List<CartItem> lines, int n, int shortLine) {
+        SeatHolds seatHolds = engine.seatHolds();
+        for (int i = 0; i < n; i++) {
+            CartItem ci = lines.get(i);
+            int id = ci.getEvent().getId();
+            if (i == shortLine) {
+                seatHolds.giveBack(id, ci.getQuantity());
+            } else {
+                holds.put(id, seatHolds.holdTaken(id, ci.getQuantity()));
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** A count of things that happened, cheap to bump from many threads. */
+public final class Counter implements CounterMBean {
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+
+    public void increment() {
+        if (Metrics.ENABLED) count.increment();
+    }
+
+    public void add(long n) {
+        if (Metrics.ENABLED) count.add(n);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,6 @@
+package metrics;
+
+/** JMX view of a {@link Counter}. */
+public interface CounterMBean {
+    long getCount();
+}
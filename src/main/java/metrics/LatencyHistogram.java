@@ -0,0 +1,115 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size log-linear histogram of durations in nanoseconds, in the
+ * style of HdrHistogram.
+ * <p>
+ * Values below 128 ns get a bucket each. Above that, every power of two is
+ * split into 64 equal buckets, so any recorded value is known to within
+ * 1/64 (about 1.6%) however large it is. Values up to about two hours fit;
+ * longer ones are counted in the last bucket. That is 2,432 counters, about
+ * 19 KB, whatever the number of recordings.
+ * <p>
+ * Recording is a handful of arithmetic operations and one atomic increment,
+ * with no allocation and no lock. Snapshots are taken while recording goes
+ * on and may be off by the values recorded meanwhile.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS    = 6;              // 64 buckets per power of two
+    private static final int SUB_COUNT   = 1 << SUB_BITS;
+    private static final int MAX_SHIFT   = 36;             // the last power of two starts at 2^42 ns
+    private static final int BUCKETS     = (MAX_SHIFT + 2) << SUB_BITS;
+    private static final long MAX_VALUE  = valueAt(BUCKETS - 1);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /** Record one duration; negative values count as 0. */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(Math.min(v, MAX_VALUE)));
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            n += copy[i];
+        }
+        return new Snapshot(copy, n, sum.sum(), max.get());
+    }
+
+    // v < 128: the value itself; otherwise 64 buckets per power of two
+    static int indexOf(long v) {
+        if (v < 2 * SUB_COUNT) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift << SUB_BITS) + (int) (v >>> shift);
+    }
+
+    // lowest value that lands in bucket i
+    static long valueAt(int i) {
+        if (i < 2 * SUB_COUNT) return i;
+        int shift = (i >>> SUB_BITS) - 1;
+        return (long) ((i & (SUB_COUNT - 1)) | SUB_COUNT) << shift;
+    }
+
+    // highest value that lands in bucket i
+    static long highestValueAt(int i) {
+        if (i < 2 * SUB_COUNT) return i;
+        int shift = (i >>> SUB_BITS) - 1;
+        return valueAt(i) + (1L << shift) - 1;
+    }
+
+    /** The counts at one moment, with percentiles computed from them. */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() { return count; }
+        public long getMax()   { return max; }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * The value below which {@code percentile} percent of recordings
+         * fall, reported as the top of its bucket (never below the truth).
+         */
+        public long valueAtPercentile(double percentile) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100) / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(highestValueAt(i), max);
+            }
+            return max;
+        }
+    }
+}
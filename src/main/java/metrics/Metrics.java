@@ -0,0 +1,156 @@
+package metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The registry of named {@link Timer}s and {@link Counter}s.
+ * <p>
+ * Every timer and counter is registered as a JMX MBean under
+ * {@code booking:type=Timer,name=...} or {@code booking:type=Counter,name=...}
+ * (see jconsole or VisualVM), and {@link #startReporter} logs them all
+ * periodically. Figures are totals since start or the last JMX reset.
+ * <p>
+ * {@value #ENABLED_PROPERTY}{@code =false} turns instrumentation off for the
+ * whole run: {@link #instrument} returns the object itself, and timers and
+ * counters do nothing. The flag is a static final, so the JIT drops the
+ * disabled paths entirely.
+ */
+public final class Metrics {
+    private static final Logger LOG = Logger.getLogger(Metrics.class.getName());
+
+    /** System property: {@code false} disables instrumentation. */
+    public static final String ENABLED_PROPERTY = "metrics.enabled";
+    /** System property: seconds between log reports (default 60; 0 for none). */
+    public static final String REPORT_PROPERTY  = "metrics.report.seconds";
+
+    public static final boolean ENABLED =
+            !"false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY));
+
+    private static final String DOMAIN = "booking";
+
+    private static final Map<String, Timer>   TIMERS   = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    /** SQLExceptions from any instrumented DAO call. */
+    public static final Counter DB_ERRORS = counter("db.errors");
+
+    private static Thread reporter;
+
+    private Metrics() {}
+
+    /** The timer with this name, created and registered on first use. */
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, n -> register("Timer", n, new Timer(n)));
+    }
+
+    /** The counter with this name, created and registered on first use. */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> register("Counter", n, new Counter(n)));
+    }
+
+    private static <T> T register(String type, String name, T mbean) {
+        if (!ENABLED) return mbean;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(mbean, new ObjectName(DOMAIN + ":type=" + type + ",name=" + name));
+        } catch (JMException ex) {
+            LOG.log(Level.FINE, "Could not register " + type + " " + name + " with JMX", ex);
+        }
+        return mbean;
+    }
+
+    // ─── DAO instrumentation ──────────────────────────────────────────────────
+
+    /**
+     * Wrap {@code target} so each call through {@code type} is timed, as
+     * {@code <Type>.<method>}, and each {@link SQLException} counted. The
+     * interface's default methods (the async variants) run against the
+     * wrapper, so the blocking calls they make are timed too.
+     *
+     * @return {@code target} itself when metrics are disabled
+     */
+    public static <T> T instrument(Class<T> type, T target) {
+        if (!ENABLED) return target;
+        Map<Method, Timer> timers = new ConcurrentHashMap<>();
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(target, args);
+            }
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            Timer timer = timers.computeIfAbsent(method,
+                    m -> timer(type.getSimpleName() + "." + m.getName()));
+            long t = timer.start();
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof SQLException) {
+                    timer.failed();
+                    DB_ERRORS.increment();
+                }
+                throw cause;
+            } finally {
+                timer.stop(t);
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(
+                type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    // ─── reporting ────────────────────────────────────────────────────────────
+
+    /** Every timer and counter used so far, one line each, sorted by name. */
+    public static String report() {
+        StringBuilder sb = new StringBuilder("Metrics:");
+        for (Timer t : new TreeMap<>(TIMERS).values()) {
+            LatencyHistogram.Snapshot s = t.snapshot();
+            if (s.getCount() == 0) continue;
+            sb.append(String.format("%n  %-36s n=%-9d err=%-5d mean=%s p50=%s p99=%s p99.9=%s max=%s",
+                    t.getName(), s.getCount(), t.getErrors(), millis(s.getMean()),
+                    millis(s.valueAtPercentile(50)), millis(s.valueAtPercentile(99)),
+                    millis(s.valueAtPercentile(99.9)), millis(s.getMax())));
+        }
+        for (Counter c : new TreeMap<>(COUNTERS).values()) {
+            sb.append(String.format("%n  %-36s %d", c.getName(), c.getCount()));
+        }
+        return sb.toString();
+    }
+
+    private static String millis(double nanos) {
+        return String.format("%.3fms", nanos / 1e6);
+    }
+
+    /** Log {@link #report()} every {@value #REPORT_PROPERTY} seconds; once per JVM. */
+    public static synchronized void startReporter() {
+        long period = Long.getLong(REPORT_PROPERTY, 60);
+        if (!ENABLED || period <= 0 || reporter != null) return;
+        reporter = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    TimeUnit.SECONDS.sleep(period);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                LOG.info(report());
+            }
+        }, "metrics-reporter");
+        reporter.setDaemon(true);
+        reporter.start();
+    }
+}
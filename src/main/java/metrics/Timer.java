@@ -0,0 +1,70 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and error count for one operation. Use it as
+ * <pre>{@code
+ * long t = TIMER.start();
+ * try {
+ *     ...
+ * } catch (SQLException ex) {
+ *     TIMER.failed();
+ *     throw ex;
+ * } finally {
+ *     TIMER.stop(t);
+ * }
+ * }</pre>
+ * With metrics disabled, {@link #start} and {@link #stop} don't read the
+ * clock and compile down to nothing.
+ */
+public final class Timer implements TimerMBean {
+    private final String name;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    Timer(String name) {
+        this.name = name;
+    }
+
+    public String getName() { return name; }
+
+    /** @return the start time, to pass to {@link #stop} */
+    public long start() {
+        return Metrics.ENABLED ? System.nanoTime() : 0;
+    }
+
+    public void stop(long start) {
+        if (Metrics.ENABLED) histogram.record(System.nanoTime() - start);
+    }
+
+    /** Count a failed call; it is still timed by {@link #stop}. */
+    public void failed() {
+        if (Metrics.ENABLED) errors.increment();
+    }
+
+    public LatencyHistogram.Snapshot snapshot() {
+        return histogram.snapshot();
+    }
+
+    // ─── JMX ──────────────────────────────────────────────────────────────────
+
+    @Override public long getCount()  { return histogram.snapshot().getCount(); }
+    @Override public long getErrors() { return errors.sum(); }
+
+    @Override public double getMeanMicros() { return histogram.snapshot().getMean() / 1e3; }
+    @Override public double getP50Micros()  { return percentile(50); }
+    @Override public double getP99Micros()  { return percentile(99); }
+    @Override public double getP999Micros() { return percentile(99.9); }
+    @Override public double getMaxMicros()  { return histogram.snapshot().getMax() / 1e3; }
+
+    @Override
+    public void reset() {
+        histogram.reset();
+        errors.reset();
+    }
+
+    private double percentile(double p) {
+        return histogram.snapshot().valueAtPercentile(p) / 1e3;
+    }
+}
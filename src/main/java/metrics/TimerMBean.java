@@ -0,0 +1,15 @@
+package metrics;
+
+/** JMX view of a {@link Timer}; durations in microseconds. */
+public interface TimerMBean {
+    long getCount();
+    long getErrors();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+
+    /** Start the histogram and error count over. */
+    void reset();
+}
@@ -5,11 +5,13 @@ import javafx.beans.property.SimpleIntegerProperty;
 
 public class CartItem {
     private final Event event;
-    private final IntegerProperty quantity = new SimpleIntegerProperty();
+    private int quantity;
+    // JavaFX adapter, created on first use by a table cell; holds the value from then on
+    private FxQuantity fx;
 
     public CartItem(Event event, int initialQuantity) {
         this.event = event;
-        this.quantity.set(initialQuantity);
+        this.quantity = initialQuantity;
     }
 
     public Event getEvent() {
@@ -17,14 +19,24 @@ public class CartItem {
     }
 
     public int getQuantity() {
-        return quantity.get();
+        return fx == null ? quantity : fx.quantity.get();
     }
 
     public void setQuantity(int q) {
-        quantity.set(q);
+        if (fx == null) quantity = q;
+        else            fx.quantity.set(q);
     }
 
     public IntegerProperty quantityProperty() {
-        return quantity;
+        if (fx == null) fx = new FxQuantity(this, quantity);
+        return fx.quantity;
+    }
+
+    private static final class FxQuantity {
+        final IntegerProperty quantity;
+
+        FxQuantity(CartItem owner, int initial) {
+            quantity = new SimpleIntegerProperty(owner, "quantity", initial);
+        }
     }
 }
@@ -1,25 +1,34 @@
 package model;
 
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleBooleanProperty;
-import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
-import javafx.beans.property.DoubleProperty;
+
+import java.util.concurrent.Executor;
 
 /**
  * Represents one event instance, with its own “disabled” flag for admin control.
+ * <p>
+ * Values live in plain fields. The JavaFX properties live in a separate
+ * {@link EventProperties} adapter, created the first time a view asks for
+ * one. Headless code (the booking engine, benchmarks, batch jobs) never
+ * allocates them and doesn't even need JavaFX on the class path.
  */
 public class Event {
-    private final IntegerProperty id             = new SimpleIntegerProperty();
-    private final StringProperty  name           = new SimpleStringProperty();
-    private final StringProperty  date           = new SimpleStringProperty();
-    private final StringProperty  venue          = new SimpleStringProperty();
-    private final DoubleProperty  price          = new SimpleDoubleProperty();
-    private final IntegerProperty remainingSeats = new SimpleIntegerProperty();
-    private final BooleanProperty disabled       = new SimpleBooleanProperty(false);
+    private int              id;
+    private String           name;
+    private String           date;
+    private String           venue;
+    private double           price;
+    private volatile int     remainingSeats;
+    private volatile boolean disabled;
+
+    // JavaFX adapter for TableView / TreeTableView bindings, created on demand
+    private volatile EventProperties fx;
+
+    // where seat and disabled changes reach the properties; see setPropertyUpdates
+    private static volatile Executor propertyUpdates = Runnable::run;
 
     /**
      * Full constructor including disabled state.
@@ -39,13 +48,13 @@ public class Event {
                  double price,
                  int remainingSeats,
                  boolean isDisabled) {
-        this.id.set(id);
-        this.name.set(name);
-        this.date.set(date);
-        this.venue.set(venue);
-        this.price.set(price);
-        this.remainingSeats.set(remainingSeats);
-        this.disabled.set(isDisabled);
+        this.id             = id;
+        this.name           = name;
+        this.date           = date;
+        this.venue          = venue;
+        this.price          = price;
+        this.remainingSeats = remainingSeats;
+        this.disabled       = isDisabled;
     }
 
     /**
@@ -60,28 +69,65 @@ public class Event {
         this(id, name, date, venue, price, remainingSeats, false);
     }
 
-    // ─── Properties ────────────────────────────────────────────────────────────
+    // ─── Properties (JavaFX adapter, created on demand) ───────────────────────
 
-    public IntegerProperty    idProperty()             { return id; }
-    public StringProperty     nameProperty()           { return name; }
-    public StringProperty     dateProperty()           { return date; }
-    public StringProperty     venueProperty()          { return venue; }
-    public DoubleProperty     priceProperty()          { return price; }
-    public IntegerProperty    remainingSeatsProperty() { return remainingSeats; }
-    public BooleanProperty    disabledProperty()       { return disabled; }
+    private EventProperties fx() {
+        if (fx == null) fx = new EventProperties(this);
+        return fx;
+    }
+
+    /**
+     * Where seat and disabled changes are applied to the JavaFX properties.
+     * Those change on whichever thread committed a sale or refreshed the
+     * catalog, while bound properties belong to the FX thread, so the
+     * application routes them there. By default they are applied in place.
+     */
+    public static void setPropertyUpdates(Executor executor) {
+        propertyUpdates = executor;
+    }
+
+    public IntegerProperty    idProperty()             { return fx().id; }
+    public StringProperty     nameProperty()           { return fx().name; }
+    public StringProperty     dateProperty()           { return fx().date; }
+    public StringProperty     venueProperty()          { return fx().venue; }
+    public DoubleProperty     priceProperty()          { return fx().price; }
+    public IntegerProperty    remainingSeatsProperty() { return fx().remainingSeats; }
+    public BooleanProperty    disabledProperty()       { return fx().disabled; }
 
     // ─── Raw getters and setters ──────────────────────────────────────────────
 
-    public int     getId()              { return id.get(); }
-    public String  getName()            { return name.get(); }
-    public String  getDate()            { return date.get(); }
-    public String  getVenue()           { return venue.get(); }
-    public double  getPrice()           { return price.get(); }
-    public int     getRemainingSeats()  { return remainingSeats.get(); }
+    public int     getId()              { return fx == null ? id    : fx.id.get(); }
+    public String  getName()            { return fx == null ? name  : fx.name.get(); }
+    public String  getDate()            { return fx == null ? date  : fx.date.get(); }
+    public String  getVenue()           { return fx == null ? venue : fx.venue.get(); }
+    public double  getPrice()           { return fx == null ? price : fx.price.get(); }
+    public int     getRemainingSeats()  { return remainingSeats; }
+
+    public void setId(int v) {
+        if (fx == null) id = v; else fx.id.set(v);
+    }
+
+    /**
+     * Seat counts change from whichever thread committed a sale; a bound
+     * property (if any) follows through {@link #setPropertyUpdates}.
+     */
+    public void setRemainingSeats(int v) {
+        remainingSeats = v;
+        EventProperties p = fx;
+        if (p != null) propertyUpdates.execute(() -> p.push(p.remainingSeats, v));
+    }
 
     /** @return true if this event is currently disabled by the admin */
-    public boolean isDisabled()         { return disabled.get(); }
+    public boolean isDisabled()         { return disabled; }
 
     /** Enable or disable this event */
-    public void setDisabled(boolean v)  { disabled.set(v); }
+    public void setDisabled(boolean v) {
+        disabled = v;
+        EventProperties p = fx;
+        if (p != null) propertyUpdates.execute(() -> p.push(p.disabled, v));
+    }
+
+    // written back by EventProperties when a view edits the property
+    void syncRemainingSeats(int v) { remainingSeats = v; }
+    void syncDisabled(boolean v)   { disabled = v; }
 }
@@ -0,0 +1,75 @@
+package model;
+
+import engine.CatalogCache;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * An observable list of events in id order, patched from catalog changes
+ * instead of being rebuilt.
+ * <p>
+ * Each change finds its row by binary search on the id and becomes one
+ * add, remove or replace on the list, so a table or tree listening to it
+ * only redraws that row. Seat and disabled-flag changes of an event that
+ * stays in the list need nothing: views are bound to its properties.
+ * <p>
+ * Not thread-safe; {@link Model} applies changes on the FX thread.
+ */
+public final class EventList {
+    private final Predicate<Event> filter;
+    private final ObservableList<Event> items = FXCollections.observableArrayList();
+    private final ObservableList<Event> view = FXCollections.unmodifiableObservableList(items);
+
+    /** @param filter which events belong in the list, e.g. only enabled ones */
+    public EventList(Predicate<Event> filter) {
+        this.filter = filter;
+    }
+
+    /** The list itself, read-only; sort through a {@code SortedList}, not in place. */
+    public ObservableList<Event> items() {
+        return view;
+    }
+
+    /** Replace the contents; {@code events} must be in id order. */
+    public void reset(List<Event> events) {
+        items.setAll(events.stream().filter(filter).toList());
+    }
+
+    /**
+     * Apply a batch of catalog changes. Each is checked against the event's
+     * current state, so a change seen twice, or after a {@link #reset} that
+     * already included it, does no harm.
+     */
+    public void apply(List<CatalogCache.Change> changes) {
+        for (CatalogCache.Change c : changes) {
+            Event ev = c.event();
+            int at = indexOf(ev.getId());
+            boolean show = c.kind() != CatalogCache.Kind.REMOVED && filter.test(ev);
+            if (at >= 0) {
+                if (!show) {
+                    items.remove(at);
+                } else if (items.get(at) != ev) {
+                    items.set(at, ev);
+                }
+            } else if (show) {
+                items.add(-at - 1, ev);
+            }
+        }
+    }
+
+    // binary search by id; -(insertion point) - 1 if absent, like Collections.binarySearch
+    private int indexOf(int id) {
+        int lo = 0, hi = items.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int midId = items.get(mid).getId();
+            if (midId < id) lo = mid + 1;
+            else if (midId > id) hi = mid - 1;
+            else return mid;
+        }
+        return -lo - 1;
+    }
+}
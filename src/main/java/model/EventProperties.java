@@ -0,0 +1,51 @@
+package model;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.Property;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+/**
+ * JavaFX view of an {@link Event}. Once created it holds the event's
+ * values; seats and the disabled flag are also written back to the event's
+ * plain fields so non-FX readers see edits made through a binding.
+ */
+final class EventProperties {
+    final IntegerProperty id;
+    final StringProperty  name;
+    final StringProperty  date;
+    final StringProperty  venue;
+    final DoubleProperty  price;
+    final IntegerProperty remainingSeats;
+    final BooleanProperty disabled;
+
+    private boolean pushing;
+
+    EventProperties(Event e) {
+        id             = new SimpleIntegerProperty(e, "id", e.getId());
+        name           = new SimpleStringProperty(e, "name", e.getName());
+        date           = new SimpleStringProperty(e, "date", e.getDate());
+        venue          = new SimpleStringProperty(e, "venue", e.getVenue());
+        price          = new SimpleDoubleProperty(e, "price", e.getPrice());
+        remainingSeats = new SimpleIntegerProperty(e, "remainingSeats", e.getRemainingSeats());
+        disabled       = new SimpleBooleanProperty(e, "disabled", e.isDisabled());
+
+        remainingSeats.addListener((obs, o, n) -> { if (!pushing) e.syncRemainingSeats(n.intValue()); });
+        disabled.addListener((obs, o, n) -> { if (!pushing) e.syncDisabled(n); });
+    }
+
+    // set by the event itself: the field already holds this or a newer value
+    <T> void push(Property<T> property, T value) {
+        pushing = true;
+        try {
+            property.setValue(value);
+        } finally {
+            pushing = false;
+        }
+    }
+}
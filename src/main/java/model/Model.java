@@ -1,174 +1,309 @@
 package model;
 
-import dao.EventDao;
-import dao.EventDaoImpl;
-import dao.OrderDao;
-import dao.OrderDaoImpl;
 import dao.UserDao;
-import dao.UserDaoImpl;
+import engine.BookingEngine;
+import engine.CatalogCache;
+import engine.EventSearch;
+import engine.OrderExport;
+import engine.Session;
+import javafx.beans.Observable;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
 
+/**
+ * What the JavaFX controllers talk to: a {@link BookingEngine} plus the
+ * {@link Session} of whoever is logged in at this window.
+ * <p>
+ * Everything that reaches the database has an {@code ...Async} variant
+ * running on a virtual thread; controllers use those, so the FX thread never
+ * waits on JDBC. The futures complete on that thread: hop back with
+ * {@code Platform.runLater} before touching the scene.
+ * <p>
+ * Views bind to observable lists of the catalog and the cart. They are
+ * patched one change at a time (add, remove, replace, or an update of a
+ * line's quantity) rather than rebuilt, so a screen redraws only the rows
+ * that changed.
+ */
 public class Model {
-	private final UserDao  userDao   = new UserDaoImpl();
-	private final EventDao eventDao  = new EventDaoImpl();
-	private final OrderDao orderDao  = new OrderDaoImpl();
+	private final BookingEngine engine;
+	private Session session;
 
-	private User currentUser;
-	private List<Event> events = new ArrayList<>();
-	private final List<CartItem> cart = new ArrayList<>();
+	// where list changes from other threads are applied; see setViewUpdates
+	private volatile Executor viewUpdates = Runnable::run;
 
-	// next order number (1 -> "0001", etc.), computed from existing orders
-	private int nextOrderNumber;
+	// catalog lists for the views, created on first use and patched from then on
+	private EventList events;
+	private EventList allEvents;
 
-	/** Initialize tables, seed events, and determine nextOrderNumber */
+	// the session's cart lines; quantity changes show up as list updates
+	private final ObservableList<CartItem> cartItems =
+			FXCollections.observableArrayList(ci -> new Observable[]{ci.quantityProperty()});
+	private final ObservableList<CartItem> cartView = FXCollections.unmodifiableObservableList(cartItems);
+
+	public Model() {
+		this(new BookingEngine());
+	}
+
+	public Model(BookingEngine engine) {
+		this.engine = engine;
+		this.session = engine.openSession(null);
+	}
+
+	/** Initialize tables, seed events, and register the order-number sequence */
 	public void setup() throws SQLException, IOException {
-		userDao.setup();
-		eventDao.setup();
-		orderDao.setup();
+		engine.setup();
+	}
 
-		// load ALL events (including disabled) from the database
-		events = eventDao.getAll();
+	public BookingEngine getEngine()      { return engine; }
 
-		// compute next order number
-		int maxNum = 0;
-		for (Order o : orderDao.getAllOrders()) {
-			maxNum = Math.max(maxNum, o.getOrderNumber());
-		}
-		nextOrderNumber = maxNum + 1;
+	/**
+	 * Where the observable lists are patched when a change comes from
+	 * another thread (a catalog refresh, a finished checkout). A JavaFX
+	 * application passes an executor for its FX thread; by default changes
+	 * are applied in place.
+	 */
+	public void setViewUpdates(Executor executor) {
+		this.viewUpdates = executor;
 	}
 
 	// --- User & Event accessors ---
 
-	public UserDao getUserDao()           { return userDao;      }
-	public User   getCurrentUser()        { return currentUser;  }
-	public void   setCurrentUser(User u)  { this.currentUser = u;}
+	public UserDao getUserDao()           { return engine.getUserDao(); }
+	public User   getCurrentUser()        { return session.getUser(); }
+
+	/**
+	 * Check a login on the credential workers, never on the calling thread.
+	 * Completes with the user, or null if the password is wrong; see
+	 * {@link engine.Credentials#authenticate}.
+	 */
+	public CompletableFuture<User> authenticate(String username, String password) {
+		return engine.getCredentials().authenticate(username, password);
+	}
+
+	/** Hash the password on the credential workers and create the account. */
+	public CompletableFuture<User> signUp(String username, String password, String preferredName) {
+		return engine.getCredentials().register(username, password, preferredName);
+	}
+
+	/**
+	 * Logging in starts a fresh session, so one user's cart never leaks to the
+	 * next. The previous session's seat holds are released. The new session
+	 * starts with an empty cart; see {@link #openSessionAsync} for one with
+	 * the cart the user left.
+	 */
+	public void setCurrentUser(User u) {
+		setCurrentSession(engine.openSession(u));
+	}
+
+	/**
+	 * Open a session for {@code u} with their saved cart, its seats held
+	 * again, off the calling thread; see {@link Session#restoreCart()}.
+	 * Hand the result to {@link #setCurrentSession}.
+	 */
+	public CompletableFuture<Session> openSessionAsync(User u) {
+		return engine.resumeSessionAsync(u);
+	}
+
+	/** Switch to another session; like {@link #setCurrentUser}, the previous one is closed. */
+	public void setCurrentSession(Session s) {
+		session.close();
+		this.session = s;
+		cartItems.setAll(s.getCart());
+	}
 
 	/** For normal users: only _enabled_ events */
 	public List<Event> getEvents() {
-		return events.stream()
-				.filter(e -> !e.isDisabled())
-				.collect(Collectors.toList());
+		return engine.getEvents();
 	}
 
 	/** For admin: all events, including disabled ones */
 	public List<Event> getAllEventsIncludingDisabled() {
-		return new ArrayList<>(events);
+		return engine.getAllEventsIncludingDisabled();
+	}
+
+	/**
+	 * Be told about catalog changes, whether made here or picked up from the
+	 * database; see {@link CatalogCache}. Called on any thread.
+	 */
+	public void addCatalogListener(CatalogCache.Listener l) {
+		engine.getCatalog().addListener(l);
+	}
+
+	public void removeCatalogListener(CatalogCache.Listener l) {
+		engine.getCatalog().removeListener(l);
+	}
+
+	/** Enabled events in id order, kept current; see {@link EventList}. */
+	public ObservableList<Event> getEventList() {
+		if (events == null) events = eventList(e -> !e.isDisabled(), engine.getEvents());
+		return events.items();
+	}
+
+	/** Every event in id order, kept current; for the admin screen. */
+	public ObservableList<Event> getAllEventList() {
+		if (allEvents == null) allEvents = eventList(e -> true, engine.getAllEventsIncludingDisabled());
+		return allEvents.items();
+	}
+
+	/**
+	 * Enabled events matching a search box query, at most {@code limit} of
+	 * them plus the total; fast enough to run on every keystroke once
+	 * {@link #isSearchReady()}, and until then it blocks.
+	 */
+	public EventSearch.Result searchEvents(EventSearch.Query query, int limit) {
+		return engine.searchEvents(query, limit);
+	}
+
+	/** Is the search index built? It is built in the background after startup. */
+	public boolean isSearchReady() {
+		return engine.isSearchReady();
+	}
+
+	/** Completes once the search index is built; cancelling it only stops the wait. */
+	public CompletableFuture<Void> whenSearchReady() {
+		return engine.whenSearchReady();
+	}
+
+	private EventList eventList(Predicate<Event> filter, List<Event> snapshot) {
+		EventList list = new EventList(filter);
+		// subscribe first: a change racing the snapshot is applied again, harmlessly
+		engine.getCatalog().addListener((version, changes) ->
+				viewUpdates.execute(() -> list.apply(changes)));
+		list.reset(snapshot);
+		return list;
+	}
+
+	/** Seats of this event not yet sold or held in anyone's cart. */
+	public int getAvailableSeats(Event e) {
+		return engine.getAvailableSeats(e);
 	}
 
 	// --- Cart operations ---
 
-	public List<CartItem> getCart() { return cart; }
+	public List<CartItem> getCart()               { return session.getCart(); }
+
+	/** The cart line for an event, or null; a map lookup. */
+	public CartItem getCartLine(int eventId)      { return session.getLine(eventId); }
 
+	/** The cart as an observable list for the cart table; read-only. */
+	public ObservableList<CartItem> getCartItems() { return cartView; }
+
+	/** Holds the seats; throws IllegalStateException if they're no longer free. */
 	public void addToCart(Event e, int qty) {
-		for (CartItem ci : cart) {
-			if (ci.getEvent().equals(e)) {
-				ci.setQuantity(ci.getQuantity() + qty);
-				return;
-			}
-		}
-		cart.add(new CartItem(e, qty));
+		session.addToCart(e, qty);
+		syncCartLine(e);
 	}
 
 	public void updateCart(Event e, int newQty) {
-		Iterator<CartItem> it = cart.iterator();
-		while (it.hasNext()) {
-			CartItem ci = it.next();
-			if (ci.getEvent().equals(e)) {
-				if (newQty <= 0) it.remove();
-				else            ci.setQuantity(newQty);
-				return;
-			}
-		}
+		session.updateCart(e, newQty);
+		syncCartLine(e);
 	}
 
 	public void removeFromCart(Event e) {
-		updateCart(e, 0);
+		session.removeFromCart(e);
+		syncCartLine(e);
 	}
 
-	public boolean validateCart() {
-		for (CartItem ci : cart) {
-			if (ci.getQuantity() > ci.getEvent().getRemainingSeats()) {
-				return false;
-			}
+	public boolean validateCart()                 { return session.validateCart(); }
+
+	// a line added or removed in the session is added or removed here; a new
+	// quantity needs nothing, the list watches each line's quantity property
+	private void syncCartLine(Event e) {
+		CartItem line = session.getLine(e.getId());
+		int at = -1;
+		for (int i = 0; i < cartItems.size(); i++) {
+			if (cartItems.get(i).getEvent().getId() == e.getId()) at = i;
 		}
-		return true;
+		if (line == null && at >= 0) cartItems.remove(at);
+		else if (line != null && at < 0) cartItems.add(line);
+	}
+
+	/** See {@link Session#checkout()}. */
+	public void checkout() {
+		session.checkout();
+		cartItems.clear();
 	}
 
 	/**
-	 * Complete a checkout:
-	 * 1) validate availability,
-	 * 2) deduct seats (in memory & DB),
-	 * 3) record an Order via orderDao,
-	 * 4) clear the cart.
+	 * See {@link Session#checkoutAsync()}; leave the cart alone until it
+	 * completes. The cart list is emptied (through {@link #setViewUpdates})
+	 * before the returned future's dependents run.
 	 */
-	public void checkout() {
-		if (!validateCart()) {
-			throw new IllegalStateException("Not enough seats for one or more items.");
-		}
+	public CompletableFuture<Order> checkoutAsync() {
+		return session.checkoutAsync().whenComplete((order, ex) -> {
+			if (ex == null) viewUpdates.execute(cartItems::clear);
+		});
+	}
 
-		// snapshot + total
-		List<CartItem> snapshot = new ArrayList<>(cart);
-		double total = snapshot.stream()
-				.mapToDouble(ci -> ci.getEvent().getPrice() * ci.getQuantity())
-				.sum();
-
-		// deduct seats and persist to events table
-		for (CartItem ci : snapshot) {
-			Event e = ci.getEvent();
-			int newRem = e.getRemainingSeats() - ci.getQuantity();
-			e.remainingSeatsProperty().set(newRem);
-			try {
-				eventDao.updateRemainingSeats(e.getId(), newRem);
-			} catch (SQLException ex) {
-				throw new RuntimeException("Failed to persist seat update", ex);
-			}
-		}
+	/**
+	 * Persist the current user's orders to a text file.
+	 */
+	public void exportOrders(File file) throws IOException {
+		session.exportOrders(file.toPath(), null);
+	}
 
-		// record & persist the order
-		Order order = new Order(nextOrderNumber, LocalDateTime.now(), snapshot, total);
-		try {
-			orderDao.saveOrder(order);
-		} catch (SQLException ex) {
-			throw new RuntimeException("Failed to save order", ex);
-		}
-		nextOrderNumber++;
+	/** Streaming export with progress; see {@link Session#exportOrders(java.nio.file.Path, OrderExport.Progress)}. */
+	public long exportOrders(File file, OrderExport.Progress progress) throws IOException {
+		return session.exportOrders(file.toPath(), progress);
+	}
 
-		cart.clear();
+	/** Streaming export on a virtual thread; cancel the future to stop it. */
+	public CompletableFuture<Long> exportOrdersAsync(File file, OrderExport.Progress progress) {
+		return session.exportOrdersAsync(file.toPath(), progress);
 	}
 
 	/**
-	 * Persist all orders to a text file.
+	 * One page of the current user's order history, newest first. Pass 0 as
+	 * {@code beforeId} for the first page, then the id of the last row
+	 * received. The date bounds may be null.
 	 */
-	public void exportOrders(File file) throws IOException {
-		List<Order> orders;
-		try {
-			orders = orderDao.getAllOrders();
-		} catch (SQLException ex) {
-			throw new IOException("Failed to load orders", ex);
-		}
-		DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-		try (FileWriter fw = new FileWriter(file)) {
-			for (Order o : orders) {
-				fw.write("Order Number: " + String.format("%04d", o.getOrderNumber()) + "\n");
-				fw.write("Date & Time  : " + o.getTimestamp().format(fmt) + "\n");
-				fw.write("Items:\n");
-				for (CartItem ci : o.getItems()) {
-					fw.write("  • " + ci.getEvent().getName()
-							+ " — " + ci.getQuantity() + " seats\n");
-				}
-				fw.write(String.format("Total        : $%.2f%n%n", o.getTotal()));
-			}
-		}
+	public List<OrderSummary> getOrderPage(int beforeId, int limit,
+										   LocalDateTime from, LocalDateTime to) throws SQLException {
+		return session.getOrderPage(beforeId, limit, from, to);
+	}
+
+	public CompletableFuture<List<OrderSummary>> getOrderPageAsync(int beforeId, int limit,
+																   LocalDateTime from, LocalDateTime to) {
+		return session.getOrderPageAsync(beforeId, limit, from, to);
+	}
+
+	// --- Sales (admin) ---
+
+	/** The top {@code limit} rows of a sales breakdown, highest revenue first. */
+	public CompletableFuture<List<SalesTotal>> getSalesTotalsAsync(SalesTotal.Dimension by, int limit) {
+		return engine.getSalesTotalsAsync(by, limit);
+	}
+
+	public CompletableFuture<SalesTotal> getSalesGrandTotalAsync() {
+		return engine.getSalesGrandTotalAsync();
+	}
+
+	/** The breakdown for orders placed in [from, to); either may be null. Reads the history. */
+	public CompletableFuture<List<SalesTotal>> computeSalesTotalsAsync(SalesTotal.Dimension by,
+			LocalDateTime from, LocalDateTime to, int limit) {
+		return engine.computeSalesTotalsAsync(by, from, to, limit);
+	}
+
+	public CompletableFuture<Void> rebuildSalesAsync() {
+		return engine.rebuildSalesAsync();
+	}
+
+	/** The current user's totals; cached, see {@link Session#getOrderSummary()}. */
+	public UserOrderSummary getOrderSummary() throws SQLException {
+		return session.getOrderSummary();
+	}
+
+	public CompletableFuture<UserOrderSummary> getOrderSummaryAsync() {
+		return session.getOrderSummaryAsync();
 	}
 
 	// ─── Admin-only methods ────────────────────────────────────────────────────
@@ -177,67 +312,46 @@ public class Model {
 	 * Toggle a specific event’s disabled flag and persist to the DB immediately.
 	 */
 	public void setEventDisabled(Event e, boolean disabled) {
-		e.setDisabled(disabled);
-		try {
-			eventDao.updateDisabled(e.getId(), disabled);
-		} catch (SQLException ex) {
-			throw new RuntimeException("Failed to persist disabled flag", ex);
-		}
+		engine.setEventDisabled(e, disabled);
 	}
 
 	/** Return all past orders (newest first). */
 	public List<Order> getOrders() throws SQLException {
-		return orderDao.getAllOrders();
+		return engine.getOrders();
 	}
-	// model/Model.java
 
 	/** Add a brand-new event (check for dupes first). */
 	public void addEvent(Event e) {
-		// duplicate check: same name/venue/date?
-		boolean dup = events.stream()
-				.anyMatch(o -> o.getName().equals(e.getName())
-						&& o.getVenue().equals(e.getVenue())
-						&& o.getDate().equals(e.getDate()));
-		if (dup) throw new IllegalArgumentException("That event already exists");
-		try {
-			eventDao.insertEvent(e);
-			events.add(e);
-		} catch (SQLException ex) {
-			throw new RuntimeException(ex);
-		}
+		engine.addEvent(e);
 	}
 
 	/** Remove an event (will wipe historical bookings in DB!). */
 	public void deleteEvent(Event e) {
-		try {
-			eventDao.deleteEvent(e.getId());
-			events.removeIf(o -> o.getId() == e.getId());
-		} catch (SQLException ex) {
-			throw new RuntimeException(ex);
-		}
+		engine.deleteEvent(e);
 	}
 
-	/** Edit an existing event’s details. */
-	public void editEvent(Event updated) {
-		// duplicate check against others
-		boolean dup = events.stream()
-				.anyMatch(o -> o.getId() != updated.getId()
-						&& o.getName().equals(updated.getName())
-						&& o.getVenue().equals(updated.getVenue())
-						&& o.getDate().equals(updated.getDate()));
-		if (dup) throw new IllegalArgumentException("That event would collide with an existing one");
-		try {
-			eventDao.updateEvent(updated);
-			// update in‐memory
-			for (int i=0; i<events.size(); i++) {
-				if (events.get(i).getId() == updated.getId()) {
-					events.set(i, updated);
-					break;
-				}
-			}
-		} catch (SQLException ex) {
-			throw new RuntimeException(ex);
-		}
+	/** Edit an existing event’s details; see {@link BookingEngine#editEvent}. */
+	public void editEvent(Event updated, int shownSeats) {
+		engine.editEvent(updated, shownSeats);
+	}
+
+	// ─── Admin-only methods, async ─────────────────────────────────────────────
+
+	public CompletableFuture<Void> setEventDisabledAsync(Event e, boolean disabled) {
+		return engine.setEventDisabledAsync(e, disabled);
 	}
 
+	/** Fails with IllegalArgumentException for a duplicate. */
+	public CompletableFuture<Void> addEventAsync(Event e) {
+		return engine.addEventAsync(e);
+	}
+
+	public CompletableFuture<Void> deleteEventAsync(Event e) {
+		return engine.deleteEventAsync(e);
+	}
+
+	/** Fails with IllegalArgumentException for a collision. */
+	public CompletableFuture<Void> editEventAsync(Event updated, int shownSeats) {
+		return engine.editEventAsync(updated, shownSeats);
+	}
 }
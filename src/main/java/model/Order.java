@@ -12,7 +12,7 @@ import java.util.stream.Collectors;
 
 /**
  * Represents one historical order: its 4-digit order number, timestamp,
- * the items booked (event + qty), and the total.
+ * who placed it, the items booked (event + qty), and the total.
  */
 public class Order {
     private static final DateTimeFormatter TS_FMT =
@@ -20,48 +20,69 @@ public class Order {
 
     private final int orderNumber;
     private final LocalDateTime timestamp;
+    private final String username;
     private final List<CartItem> items;
     private final double total;
 
-    // JavaFX properties for binding to a TableView
-    private final StringProperty orderNumberProp;
-    private final StringProperty timestampProp;
-    private final StringProperty detailsProp;
-    private final DoubleProperty totalProp;
+    // JavaFX properties for binding to a TableView, built on first use
+    private Fx fx;
 
     public Order(int orderNumber,
                  LocalDateTime timestamp,
                  List<CartItem> items,
                  double total)
+    {
+        this(orderNumber, timestamp, null, items, total);
+    }
+
+    /** @param username who placed the order; null if unknown */
+    public Order(int orderNumber,
+                 LocalDateTime timestamp,
+                 String username,
+                 List<CartItem> items,
+                 double total)
     {
         this.orderNumber = orderNumber;
         this.timestamp   = timestamp;
+        this.username    = username;
         this.items       = items;
         this.total       = total;
-
-        this.orderNumberProp = new SimpleStringProperty(
-                String.format("%04d", orderNumber)
-        );
-        this.timestampProp = new SimpleStringProperty(
-                timestamp.format(TS_FMT)
-        );
-        this.detailsProp = new SimpleStringProperty(
-                items.stream()
-                        .map(ci -> ci.getEvent().getName() + " x" + ci.getQuantity())
-                        .collect(Collectors.joining(", "))
-        );
-        this.totalProp = new SimpleDoubleProperty(total);
     }
 
     // raw getters
     public int getOrderNumber()         { return orderNumber; }
     public LocalDateTime getTimestamp() { return timestamp; }
+    public String getUsername()         { return username; }
     public List<CartItem> getItems()    { return items; }
     public double getTotal()            { return total; }
 
     // JavaFX property getters
-    public StringProperty orderNumberProperty() { return orderNumberProp; }
-    public StringProperty timestampProperty()   { return timestampProp; }
-    public StringProperty detailsProperty()     { return detailsProp; }
-    public DoubleProperty totalProperty()       { return totalProp; }
+    public StringProperty orderNumberProperty() { return fx().orderNumber; }
+    public StringProperty timestampProperty()   { return fx().timestamp; }
+    public StringProperty detailsProperty()     { return fx().details; }
+    public DoubleProperty totalProperty()       { return fx().total; }
+
+    private Fx fx() {
+        if (fx == null) fx = new Fx(this);
+        return fx;
+    }
+
+    /** Kept apart so headless code never loads JavaFX classes. */
+    private static final class Fx {
+        final StringProperty orderNumber;
+        final StringProperty timestamp;
+        final StringProperty details;
+        final DoubleProperty total;
+
+        Fx(Order o) {
+            orderNumber = new SimpleStringProperty(String.format("%04d", o.orderNumber));
+            timestamp   = new SimpleStringProperty(o.timestamp.format(TS_FMT));
+            details     = new SimpleStringProperty(
+                    o.items.stream()
+                            .map(ci -> ci.getEvent().getName() + " x" + ci.getQuantity())
+                            .collect(Collectors.joining(", "))
+            );
+            total       = new SimpleDoubleProperty(o.total);
+        }
+    }
 }
@@ -0,0 +1,44 @@
+package model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the order history table: an order with its item lines already
+ * reduced to a name list and a seat count by the query, so the table never
+ * has to walk the items itself.
+ */
+public class OrderSummary {
+    private final int id;
+    private final String orderNumber;
+    private final LocalDateTime timestamp;
+    private final String eventNames;
+    private final int seats;
+    private final double total;
+
+    /**
+     * @param id          database id; also the paging cursor
+     * @param orderNumber zero-padded, e.g. "0001"
+     * @param eventNames  comma-separated names of the booked events
+     * @param seats       seats over all items
+     */
+    public OrderSummary(int id,
+                        String orderNumber,
+                        LocalDateTime timestamp,
+                        String eventNames,
+                        int seats,
+                        double total) {
+        this.id          = id;
+        this.orderNumber = orderNumber;
+        this.timestamp   = timestamp;
+        this.eventNames  = eventNames;
+        this.seats       = seats;
+        this.total       = total;
+    }
+
+    public int getId()                  { return id; }
+    public String getOrderNumber()      { return orderNumber; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public String getEventNames()       { return eventNames; }
+    public int getSeats()               { return seats; }
+    public double getTotal()            { return total; }
+}
@@ -0,0 +1,45 @@
+package model;
+
+/**
+ * Sales of one event, show, venue or day (or of everything): revenue,
+ * seats sold and the number of orders they came from. Kept up to date by
+ * checkout, so the admin screen can show them without reading the order
+ * history.
+ */
+public class SalesTotal {
+    /** What the totals are broken down by. */
+    public enum Dimension {
+        /** A single row, every sale. */
+        ALL,
+        /** Keyed by event id. */
+        EVENT,
+        /** Keyed by event name. */
+        SHOW,
+        VENUE,
+        /** Keyed by the event's day, e.g. "Mon". */
+        DAY
+    }
+
+    public static final SalesTotal EMPTY = new SalesTotal("", "", 0, 0, 0);
+
+    private final String key;
+    private final String label;
+    private final double revenue;
+    private final int seatsSold;
+    private final int orderCount;
+
+    public SalesTotal(String key, String label, double revenue, int seatsSold, int orderCount) {
+        this.key        = key;
+        this.label      = label;
+        this.revenue    = revenue;
+        this.seatsSold  = seatsSold;
+        this.orderCount = orderCount;
+    }
+
+    public String getKey()     { return key; }
+    /** The key as shown to people; for events, their name, day and venue. */
+    public String getLabel()   { return label; }
+    public double getRevenue() { return revenue; }
+    public int getSeatsSold()  { return seatsSold; }
+    public int getOrderCount() { return orderCount; }
+}
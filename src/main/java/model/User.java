@@ -2,6 +2,7 @@ package model;
 
 public class User {
 	private String username;
+	// the stored hash; plaintext on accounts not logged into since hashing
 	private String password;
 	private String preferredName;
 
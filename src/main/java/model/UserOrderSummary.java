@@ -0,0 +1,30 @@
+package model;
+
+/**
+ * A user's booking totals, kept up to date by checkout so they can be shown
+ * without reading the order history.
+ */
+public class UserOrderSummary {
+    public static final UserOrderSummary EMPTY = new UserOrderSummary(0, 0, 0);
+
+    private final int orderCount;
+    private final double totalSpent;
+    private final int seatsBooked;
+
+    public UserOrderSummary(int orderCount, double totalSpent, int seatsBooked) {
+        this.orderCount  = orderCount;
+        this.totalSpent  = totalSpent;
+        this.seatsBooked = seatsBooked;
+    }
+
+    public int getOrderCount()    { return orderCount; }
+    public double getTotalSpent() { return totalSpent; }
+    public int getSeatsBooked()   { return seatsBooked; }
+
+    /** These totals with one more order added, as checkout adds it to the table. */
+    public UserOrderSummary plus(Order o) {
+        int seats = 0;
+        for (CartItem ci : o.getItems()) seats += ci.getQuantity();
+        return new UserOrderSummary(orderCount + 1, totalSpent + o.getTotal(), seatsBooked + seats);
+    }
+}